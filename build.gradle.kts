@@ -30,6 +30,7 @@ plugins {
     `maven-publish`
     id("io.github.gradle-nexus.publish-plugin") version "1.0.0"
     id("org.jmailen.kotlinter") version "3.4.0"
+    id("me.champeau.jmh") version "0.6.6"
 }
 
 repositories {
@@ -53,10 +54,28 @@ dependencies {
     implementation("com.fasterxml.jackson.core:jackson-core")
     implementation("com.fasterxml.jackson.module:jackson-module-kotlin")
 
+    // optional, only needed by the suspend API and the com.nftco.flow.sdk.streams adapters
+    compileOnly("org.jetbrains.kotlinx:kotlinx-coroutines-core:1.5.0")
+    compileOnly("org.jetbrains.kotlinx:kotlinx-coroutines-jdk8:1.5.0")
+    compileOnly("org.jetbrains.kotlinx:kotlinx-coroutines-reactive:1.5.0")
+
+    // optional, only needed by the com.nftco.flow.sdk.metrics adapters
+    compileOnly("io.micrometer:micrometer-core:1.7.0")
+    compileOnly("io.opentelemetry:opentelemetry-api:1.10.0")
+
     testImplementation("org.junit.jupiter:junit-jupiter:5.8.2")
     testImplementation("org.assertj:assertj-core:3.21.0")
+    testImplementation("org.jetbrains.kotlinx:kotlinx-coroutines-core:1.5.0")
+    testImplementation("org.jetbrains.kotlinx:kotlinx-coroutines-jdk8:1.5.0")
+    testImplementation("org.jetbrains.kotlinx:kotlinx-coroutines-reactive:1.5.0")
+    testImplementation("io.micrometer:micrometer-core:1.7.0")
 
     testFixturesImplementation("org.junit.jupiter:junit-jupiter:5.8.2")
+    testFixturesImplementation("org.onflow:flow:0.21")
+}
+
+jmh {
+    jmhVersion.set("1.34")
 }
 
 tasks {
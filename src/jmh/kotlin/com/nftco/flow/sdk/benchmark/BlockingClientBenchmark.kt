@@ -0,0 +1,96 @@
+package com.nftco.flow.sdk.benchmark
+
+import com.nftco.flow.sdk.FlowAccessApi
+import com.nftco.flow.sdk.FlowChannelConfig
+import com.nftco.flow.sdk.impl.FlowAccessApiImpl
+import io.grpc.ManagedChannel
+import io.grpc.Server
+import io.grpc.inprocess.InProcessChannelBuilder
+import io.grpc.inprocess.InProcessServerBuilder
+import io.grpc.stub.StreamObserver
+import org.onflow.protobuf.access.Access
+import org.onflow.protobuf.access.AccessAPIGrpc
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Makes [calls] concurrent blocking calls, each on its own platform or virtual thread, against an in-process server
+ * answering after [latencyMs]. The virtual thread variant needs to run on Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+open class BlockingClientBenchmark {
+
+    @Param("platform", "virtual")
+    var threads: String = "platform"
+
+    @Param("10000")
+    var calls: Int = 0
+
+    @Param("5")
+    var latencyMs: Long = 0
+
+    private lateinit var scheduler: ScheduledExecutorService
+    private lateinit var server: Server
+    private lateinit var channel: ManagedChannel
+    private lateinit var callers: ExecutorService
+    private lateinit var api: FlowAccessApi
+
+    @Setup
+    fun setUp() {
+        scheduler = Executors.newScheduledThreadPool(4)
+        val name = InProcessServerBuilder.generateName()
+        server = InProcessServerBuilder.forName(name)
+            .executor(scheduler)
+            .addService(object : AccessAPIGrpc.AccessAPIImplBase() {
+                override fun ping(request: Access.PingRequest, responseObserver: StreamObserver<Access.PingResponse>) {
+                    scheduler.schedule({
+                        responseObserver.onNext(Access.PingResponse.getDefaultInstance())
+                        responseObserver.onCompleted()
+                    }, latencyMs, TimeUnit.MILLISECONDS)
+                }
+            })
+            .build()
+            .start()
+
+        channel = InProcessChannelBuilder.forName(name).build()
+        api = FlowAccessApiImpl(AccessAPIGrpc.newBlockingStub(channel))
+        callers = if (threads == "virtual") FlowChannelConfig.newVirtualThreadExecutor() else Executors.newCachedThreadPool()
+    }
+
+    @TearDown
+    fun tearDown() {
+        callers.shutdownNow()
+        channel.shutdownNow()
+        server.shutdownNow()
+        scheduler.shutdownNow()
+    }
+
+    @Benchmark
+    fun concurrentCalls() {
+        val done = CountDownLatch(calls)
+        val failure = AtomicReference<Throwable>()
+        repeat(calls) {
+            callers.execute {
+                try {
+                    api.ping()
+                } catch (t: Throwable) {
+                    failure.compareAndSet(null, t)
+                } finally {
+                    done.countDown()
+                }
+            }
+        }
+        done.await()
+        failure.get()?.let { throw it }
+    }
+}
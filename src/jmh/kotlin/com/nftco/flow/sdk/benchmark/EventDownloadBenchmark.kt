@@ -0,0 +1,93 @@
+package com.nftco.flow.sdk.benchmark
+
+import com.nftco.flow.sdk.Flow
+import com.nftco.flow.sdk.FlowAccessApi
+import com.nftco.flow.sdk.FlowChannelConfig
+import com.nftco.flow.sdk.FlowEvent
+import com.nftco.flow.sdk.FlowEventPayload
+import com.nftco.flow.sdk.FlowEventResult
+import com.nftco.flow.sdk.FlowId
+import io.grpc.Server
+import io.grpc.ServerBuilder
+import io.grpc.stub.ServerCallStreamObserver
+import io.grpc.stub.StreamObserver
+import org.onflow.protobuf.access.Access
+import org.onflow.protobuf.access.AccessAPIGrpc
+import org.openjdk.jmh.annotations.*
+import java.io.Closeable
+import java.time.LocalDateTime
+import java.util.concurrent.TimeUnit
+
+/**
+ * Downloads a range of blocks full of events from a server running in the same JVM over loopback, so that the
+ * HTTP/2 flow-control window and response compression take effect the way they would against an access node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+open class EventDownloadBenchmark {
+
+    @Param("65535", "1048576", "8388608")
+    var flowControlWindow: Int = 0
+
+    @Param("identity", "gzip")
+    var compression: String = "identity"
+
+    @Param("250")
+    var blocks: Int = 0
+
+    @Param("40")
+    var eventsPerBlock: Int = 0
+
+    private lateinit var server: Server
+    private lateinit var api: FlowAccessApi
+    private lateinit var response: Access.EventsResponse
+
+    @Setup
+    fun setUp() {
+        response = Access.EventsResponse.newBuilder()
+            .addAllResults((1..blocks).map { height -> result(height.toLong()) })
+            .build()
+
+        server = ServerBuilder.forPort(0)
+            .addService(object : AccessAPIGrpc.AccessAPIImplBase() {
+                override fun getEventsForHeightRange(request: Access.GetEventsForHeightRangeRequest, responseObserver: StreamObserver<Access.EventsResponse>) {
+                    (responseObserver as ServerCallStreamObserver<Access.EventsResponse>).setCompression(compression)
+                    responseObserver.onNext(response)
+                    responseObserver.onCompleted()
+                }
+            })
+            .build()
+            .start()
+
+        val config = FlowChannelConfig.builder()
+            .flowControlWindow(flowControlWindow)
+            .build()
+        api = Flow.newAccessApi("localhost", server.port, maxMessageSize = Int.MAX_VALUE, channelConfig = config)
+    }
+
+    @TearDown
+    fun tearDown() {
+        (api as Closeable).close()
+        server.shutdownNow()
+    }
+
+    @Benchmark
+    fun download(): Int = api.getEventsForHeightRange("A.0000000000000001.Market.Sold", 1L..blocks).sumOf { it.events.size }
+
+    private fun result(height: Long): Access.EventsResponse.Result {
+        val events = (0 until eventsPerBlock).map { index ->
+            val payload = """{"type":"Event","value":{"id":"A.0000000000000001.Market.Sold","fields":[""" +
+                """{"name":"id","value":{"type":"UInt64","value":"${height * 1000 + index}"}},""" +
+                """{"name":"price","value":{"type":"UFix64","value":"12.50000000"}},""" +
+                """{"name":"seller","value":{"type":"Address","value":"0x1a1f2e458a098135"}}]}}"""
+            FlowEvent("A.0000000000000001.Market.Sold", id(height), index, index, FlowEventPayload(payload.toByteArray()))
+        }
+        return FlowEventResult(id(height), height, LocalDateTime.now(), events).builder().build()
+    }
+
+    private fun id(height: Long) = FlowId.of(ByteArray(32) { (height shr (it % 8)).toByte() })
+}
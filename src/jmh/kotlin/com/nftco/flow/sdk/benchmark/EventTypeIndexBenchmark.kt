@@ -0,0 +1,68 @@
+package com.nftco.flow.sdk.benchmark
+
+import com.nftco.flow.sdk.EventTypeIndex
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/**
+ * Compares finding the subscriptions of event types with an [EventTypeIndex] to calling `endsWith` for every
+ * subscription, as `getEventsOfType` does, with [subscriptions] subscribed types and half of the events unsubscribed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class EventTypeIndexBenchmark {
+
+    companion object {
+        const val EVENTS = 1024
+    }
+
+    @Param("10", "100", "1000")
+    var subscriptions: Int = 0
+
+    private lateinit var patterns: Array<String>
+    private lateinit var index: EventTypeIndex<Int>
+    private lateinit var types: Array<String>
+
+    private fun type(collection: Int) = "A.%016x.Collection$collection.Deposit".format(collection.toLong() * 7919)
+
+    @Setup
+    fun setUp() {
+        patterns = Array(subscriptions) { type(it) }
+        val builder = EventTypeIndex.builder<Int>()
+        patterns.forEachIndexed { i, pattern -> builder.exact(pattern, i) }
+        index = builder.build()
+        val random = Random(subscriptions)
+        types = Array(EVENTS) { type(random.nextInt(subscriptions * 2)) }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    fun endsWith(): Int {
+        var ret = 0
+        for (type in types) {
+            for (i in patterns.indices) {
+                if (type.endsWith(patterns[i])) {
+                    ret += i
+                }
+            }
+        }
+        return ret
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    fun index(): Int {
+        var ret = 0
+        for (type in types) {
+            for (handler in index.handlersOf(type)) {
+                ret += handler
+            }
+        }
+        return ret
+    }
+}
@@ -0,0 +1,60 @@
+package com.nftco.flow.sdk.benchmark
+
+import com.google.common.io.BaseEncoding
+import com.nftco.flow.sdk.bytesToHex
+import com.nftco.flow.sdk.decodeHex
+import com.nftco.flow.sdk.hexPrefixLength
+import com.nftco.flow.sdk.hexToBytes
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/**
+ * Compares the hex codec of the SDK with Guava's `BaseEncoding`, which it used before, on ids of [size] bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class HexBenchmark {
+
+    @Param("8", "32", "64")
+    var size: Int = 0
+
+    private lateinit var bytes: ByteArray
+    private lateinit var hex: String
+    private lateinit var buffer: ByteArray
+
+    @Setup
+    fun setUp() {
+        bytes = Random(size).nextBytes(size)
+        hex = "0x" + bytes.bytesToHex()
+        buffer = ByteArray(size)
+    }
+
+    @Benchmark
+    fun encodeGuava(): String = BaseEncoding.base16().lowerCase().encode(bytes)
+
+    @Benchmark
+    fun encode(): String = bytes.bytesToHex()
+
+    @Benchmark
+    fun decodeGuava(): ByteArray = BaseEncoding.base16().lowerCase().decode(
+        if (hex.lowercase().startsWith("0x")) {
+            hex.substring(2)
+        } else {
+            hex
+        }
+    )
+
+    @Benchmark
+    fun decode(): ByteArray = hex.hexToBytes()
+
+    @Benchmark
+    fun decodeInto(): ByteArray {
+        decodeHex(hex, hexPrefixLength(hex), hex.length, buffer, 0)
+        return buffer
+    }
+}
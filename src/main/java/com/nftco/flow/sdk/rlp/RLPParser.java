@@ -2,9 +2,6 @@ package com.nftco.flow.sdk.rlp;
 
 import lombok.NonNull;
 
-import java.math.BigInteger;
-import java.util.Arrays;
-
 final class RLPParser {
     private byte[] raw;
     private int offset;
@@ -21,10 +18,20 @@ final class RLPParser {
         this.limit = limit;
     }
 
-    private static int byteArrayToInt(byte[] b) {
-        if (b == null || b.length == 0)
-            return 0;
-        return new BigInteger(1, b).intValue();
+    // big endian length of n bytes at index, without copying them
+    private int lengthAt(int index, int n) {
+        if (index + n > limit) throw new RuntimeException("read overflow");
+        int ret = 0;
+        for (int i = 0; i < n; i++) {
+            ret = (ret << 8) | Byte.toUnsignedInt(raw[index + i]);
+        }
+        return ret;
+    }
+
+    private int readLength(int n) {
+        int ret = lengthAt(offset, n);
+        offset += n;
+        return ret;
     }
 
     static RLPElement fromEncoded(@NonNull byte[] data, boolean lazy) {
@@ -52,14 +59,12 @@ final class RLPParser {
         }
         if (prefix < RLPConstants.OFFSET_SHORT_LIST) {
             // skip
-            return byteArrayToInt(
-                    Arrays.copyOfRange(raw, offset + 1, offset + 1 + prefix - RLPConstants.OFFSET_LONG_ITEM)
-            ) + 1 + prefix - RLPConstants.OFFSET_LONG_ITEM;
+            return lengthAt(offset + 1, prefix - RLPConstants.OFFSET_LONG_ITEM) + 1 + prefix - RLPConstants.OFFSET_LONG_ITEM;
         }
         if (prefix <= RLPConstants.OFFSET_LONG_LIST) {
             return prefix - RLPConstants.OFFSET_SHORT_LIST + 1;
         }
-        return byteArrayToInt(Arrays.copyOfRange(raw, offset + 1, offset + 1 + prefix - RLPConstants.OFFSET_LONG_LIST)) + 1 + prefix - RLPConstants.OFFSET_LONG_LIST;
+        return lengthAt(offset + 1, prefix - RLPConstants.OFFSET_LONG_LIST) + 1 + prefix - RLPConstants.OFFSET_LONG_LIST;
     }
 
     private int read() {
@@ -67,13 +72,6 @@ final class RLPParser {
         return Byte.toUnsignedInt(raw[offset++]);
     }
 
-    private byte[] read(int n) {
-        if (offset + n > limit) throw new RuntimeException("read overflow");
-        byte[] res = Arrays.copyOfRange(raw, offset, offset + n);
-        offset += n;
-        return res;
-    }
-
     private void skip(int n) {
         offset += n;
     }
@@ -99,7 +97,7 @@ final class RLPParser {
             parser = readAsParser(len);
         } else {
             int lenlen = prefix - RLPConstants.OFFSET_LONG_LIST; // length of length the encoded list
-            int lenlist = byteArrayToInt(read(lenlen)); // length of encoded bytes
+            int lenlist = readLength(lenlen); // length of encoded bytes
             parser = readAsParser(lenlist);
         }
         int limit = parser.limit;
@@ -140,7 +138,7 @@ final class RLPParser {
         }
         int lengthBits = prefix - RLPConstants.OFFSET_LONG_ITEM; // length of length the encoded bytes
         // skip
-        int length = byteArrayToInt(read(lengthBits));
+        int length = readLength(lengthBits);
         int stopLimit = this.limit;
         RLPItem item = new RLPItem(new LazyByteArray(raw, offset, offset + length));
         item.setEncoded(new LazyByteArray(raw, initOffset, stopLimit));
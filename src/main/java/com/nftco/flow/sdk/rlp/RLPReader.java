@@ -0,0 +1,328 @@
+package com.nftco.flow.sdk.rlp;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * pull style rlp reader over a ByteBuffer or an InputStream, reading one element at a time so that a sequence of
+ * encoded elements, such as a file of signed transactions, is decoded with constant memory
+ * <p>
+ * lists are entered with {@link #enterList()} and left with {@link #exitList()}, which skips whatever remains of
+ * them, items are read with {@link #readItem()} and any element, whole subtrees included, is skipped by
+ * {@link #skip()} using its length prefix only
+ * <pre>
+ * RLPReader reader = RLPReader.of(inputStream);
+ * while (reader.hasNext()) {
+ *     FlowTransaction tx = FlowTransaction.of(reader.readEncoded());
+ * }
+ * </pre>
+ */
+public final class RLPReader implements Closeable {
+    private final ByteBuffer buffer;
+    private final InputStream in;
+    // the prefix byte of the next element once peeked from the stream, -1 when there's none
+    private int peeked = -1;
+    private long position;
+    private long[] ends = new long[8];
+    private int depth;
+
+    // header of the last element read
+    private boolean list;
+    private long length;
+    private int single = -1;
+    private final byte[] header = new byte[9];
+    private int headerSize;
+
+    private byte[] scratch = new byte[64];
+
+    private RLPReader(ByteBuffer buffer, InputStream in) {
+        this.buffer = buffer;
+        this.in = in;
+    }
+
+    /**
+     * reads from the position to the limit of the buffer, advancing its position, item payloads being returned as
+     * slices of it
+     */
+    public static RLPReader of(@NonNull ByteBuffer buffer) {
+        return new RLPReader(buffer, null);
+    }
+
+    public static RLPReader of(@NonNull byte[] data) {
+        return of(ByteBuffer.wrap(data));
+    }
+
+    public static RLPReader of(@NonNull InputStream in) {
+        return new RLPReader(null, in);
+    }
+
+    /**
+     * bytes read so far
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * number of lists entered and not yet exited
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * whether there's another element in the current list, or in the input at the top level
+     */
+    public boolean hasNext() {
+        if (depth > 0) return position < ends[depth - 1];
+        return peekPrefix() >= 0;
+    }
+
+    public boolean peekIsList() {
+        int prefix = peekPrefix();
+        if (prefix < 0) throw new RuntimeException("read overflow");
+        return prefix >= RLPConstants.OFFSET_SHORT_LIST;
+    }
+
+    /**
+     * reads the header of the next element, which must be a list, and returns the length of its payload
+     */
+    public long enterList() {
+        readHeader();
+        if (!list) throw new RuntimeException("not a list");
+        if (depth == ends.length) ends = Arrays.copyOf(ends, depth * 2);
+        ends[depth++] = position + length;
+        return length;
+    }
+
+    /**
+     * skips the rest of the current list
+     */
+    public void exitList() {
+        if (depth == 0) throw new IllegalStateException("not in a list");
+        skipBytes(ends[depth - 1] - position);
+        depth--;
+    }
+
+    /**
+     * skips the next element, a list being skipped with all its content
+     */
+    public void skip() {
+        readHeader();
+        skipBytes(length);
+    }
+
+    /**
+     * reads the next item, the returned buffer is a slice of the source buffer, or for streams a view on an internal
+     * buffer only valid until the next read
+     */
+    public ByteBuffer readItem() {
+        readHeader();
+        if (list) throw new RuntimeException("not an item");
+        if (single >= 0) {
+            if (buffer == null) {
+                scratch[0] = (byte) single;
+                return ByteBuffer.wrap(scratch, 0, 1).slice().asReadOnlyBuffer();
+            }
+            ByteBuffer ret = buffer.duplicate();
+            ((Buffer) ret).position(buffer.position() - 1);
+            ((Buffer) ret).limit(buffer.position());
+            return ret.slice().asReadOnlyBuffer();
+        }
+        int n = checkedLength(length);
+        if (buffer == null) {
+            if (scratch.length < n) scratch = new byte[Math.max(n, scratch.length * 2)];
+            readFully(scratch, 0, n);
+            return ByteBuffer.wrap(scratch, 0, n).slice().asReadOnlyBuffer();
+        }
+        ByteBuffer ret = buffer.slice();
+        ((Buffer) ret).limit(n);
+        skipBytes(n);
+        return ret.asReadOnlyBuffer();
+    }
+
+    /**
+     * reads the next item into a new array
+     */
+    public byte[] readBytes() {
+        ByteBuffer item = readItem();
+        byte[] ret = new byte[item.remaining()];
+        item.get(ret);
+        return ret;
+    }
+
+    public String readString() {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    public long readLong() {
+        ByteBuffer item = readItem();
+        int n = item.remaining();
+        if (n > Long.BYTES || n > 0 && item.get(item.position()) == 0) throw new RuntimeException("not a number");
+        long ret = 0;
+        for (int i = 0; i < n; i++) {
+            ret = (ret << 8) | Byte.toUnsignedLong(item.get(item.position() + i));
+        }
+        return ret;
+    }
+
+    public int readInt() {
+        long ret = readLong();
+        if (ret < 0 || ret > 0xffffffffL) throw new RuntimeException("invalid int, overflow");
+        return (int) ret;
+    }
+
+    /**
+     * reads the complete encoding of the next element, header included, as accepted by {@link RLPCodec#decode}
+     */
+    public byte[] readEncoded() {
+        readHeader();
+        int n = checkedLength(length);
+        if (single >= 0) return new byte[]{(byte) single};
+        byte[] ret = new byte[checkedLength((long) headerSize + n)];
+        System.arraycopy(header, 0, ret, 0, headerSize);
+        readFully(ret, headerSize, n);
+        return ret;
+    }
+
+    /**
+     * reads the next element into a tree, see {@link RLPElement#fromEncoded(byte[])}
+     */
+    public RLPElement readElement() {
+        return RLPElement.fromEncoded(readEncoded());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) in.close();
+    }
+
+    private void readHeader() {
+        if (depth > 0 && position >= ends[depth - 1]) throw new RuntimeException("read overflow");
+        int prefix = readByte();
+        header[0] = (byte) prefix;
+        headerSize = 1;
+        single = -1;
+        if (prefix < RLPConstants.OFFSET_SHORT_ITEM) {
+            list = false;
+            length = 0;
+            single = prefix;
+        } else if (prefix <= RLPConstants.OFFSET_LONG_ITEM) {
+            list = false;
+            length = prefix - RLPConstants.OFFSET_SHORT_ITEM;
+        } else if (prefix < RLPConstants.OFFSET_SHORT_LIST) {
+            list = false;
+            length = readLength(prefix - RLPConstants.OFFSET_LONG_ITEM);
+        } else if (prefix <= RLPConstants.OFFSET_LONG_LIST) {
+            list = true;
+            length = prefix - RLPConstants.OFFSET_SHORT_LIST;
+        } else {
+            list = true;
+            length = readLength(prefix - RLPConstants.OFFSET_LONG_LIST);
+        }
+        if (depth > 0 && position + length > ends[depth - 1]) throw new RuntimeException("read overflow");
+    }
+
+    private long readLength(int n) {
+        long ret = 0;
+        for (int i = 0; i < n; i++) {
+            int b = readByte();
+            header[headerSize++] = (byte) b;
+            ret = (ret << 8) | b;
+        }
+        if (ret < 0) throw new RuntimeException("invalid length");
+        return ret;
+    }
+
+    private int peekPrefix() {
+        if (buffer != null) {
+            return buffer.hasRemaining() ? Byte.toUnsignedInt(buffer.get(buffer.position())) : -1;
+        }
+        if (peeked < 0) {
+            try {
+                peeked = in.read();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return peeked;
+    }
+
+    private int readByte() {
+        int ret;
+        if (buffer != null) {
+            if (!buffer.hasRemaining()) throw new RuntimeException("read overflow");
+            ret = Byte.toUnsignedInt(buffer.get());
+        } else {
+            ret = peekPrefix();
+            if (ret < 0) throw new UncheckedIOException(new EOFException());
+            peeked = -1;
+        }
+        position++;
+        return ret;
+    }
+
+    private void readFully(byte[] dst, int offset, int n) {
+        if (buffer != null) {
+            if (buffer.remaining() < n) throw new RuntimeException("read overflow");
+            buffer.get(dst, offset, n);
+        } else {
+            try {
+                int done = 0;
+                if (n > 0 && peeked >= 0) {
+                    dst[offset] = (byte) peeked;
+                    peeked = -1;
+                    done = 1;
+                }
+                while (done < n) {
+                    int read = in.read(dst, offset + done, n - done);
+                    if (read < 0) throw new EOFException();
+                    done += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        position += n;
+    }
+
+    private void skipBytes(long n) {
+        if (buffer != null) {
+            if (buffer.remaining() < n) throw new RuntimeException("read overflow");
+            ((Buffer) buffer).position(buffer.position() + (int) n);
+        } else {
+            try {
+                long done = 0;
+                if (n > 0 && peeked >= 0) {
+                    peeked = -1;
+                    done = 1;
+                }
+                while (done < n) {
+                    long skipped = in.skip(n - done);
+                    if (skipped <= 0) {
+                        if (in.read() < 0) throw new EOFException();
+                        skipped = 1;
+                    }
+                    done += skipped;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        position += n;
+    }
+
+    private static int checkedLength(long n) {
+        if (n > Integer.MAX_VALUE) throw new RuntimeException("element too large");
+        return (int) n;
+    }
+}
@@ -1,5 +1,9 @@
 package com.nftco.flow.sdk
 
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
+import java.util.concurrent.atomic.AtomicReference
+
 /**
  * Contains addresses of contract/addresses on the blockchain and offers methods for processing scripts by performing
  * token replacement on them with the appropriate addresses.
@@ -16,35 +20,112 @@ class AddressRegistry {
         const val NON_FUNGIBLE_TOKEN = "0xNONFUNGIBLETOKEN"
         const val NFT_STOREFRONT = "0xNFTSTOREFRONT"
         const val TOKEN_FORWARDING = "0xTOKENFORWARDING"
+
+        private const val MAX_CACHED_SCRIPTS = 1024
+    }
+
+    private data class ScriptKey(
+        val script: String,
+        val chainId: FlowChainId,
+        val addresses: Map<String, FlowAddress>
+    )
+
+    /**
+     * An immutable view of the registered addresses. Compiled matchers and resolved scripts hang off the
+     * snapshot they were built from, so they go away with it when the registry changes.
+     */
+    private class Snapshot(
+        val version: Long,
+        val addresses: Map<FlowChainId, Map<String, FlowAddress>>
+    ) {
+        val matchers: ConcurrentMap<FlowChainId, PlaceholderMatcher> = ConcurrentHashMap()
+        val scripts: ConcurrentMap<ScriptKey, FlowScript> = ConcurrentHashMap()
     }
 
-    private val SCRIPT_TOKEN_MAP: MutableMap<FlowChainId, MutableMap<String, FlowAddress>> = mutableMapOf()
+    private val SNAPSHOT: AtomicReference<Snapshot> = AtomicReference(Snapshot(0, emptyMap()))
 
+    @Volatile
     var defaultChainId = Flow.DEFAULT_CHAIN_ID
 
+    /**
+     * Incremented every time the registered addresses change.
+     */
+    val version: Long get() = SNAPSHOT.get().version
+
     init {
         registerDefaults()
     }
 
+    /**
+     * Replaces the registered placeholders, and the ones in [addresses] which take precedence over them, in a
+     * single pass over the script.
+     */
     @JvmOverloads
     fun processScript(script: String, chainId: FlowChainId = defaultChainId, addresses: Map<String, FlowAddress> = mapOf()): String {
-        var ret = script
-        SCRIPT_TOKEN_MAP[chainId]?.forEach {
-            ret = ret.replace(it.key, it.value.formatted)
+        return matcherOf(SNAPSHOT.get(), chainId, addresses).replace(script)
+    }
+
+    /**
+     * Same as [processScript] but returns a [FlowScript] that is cached per script, chain and addresses, so
+     * submitting the same script again skips the replacement.
+     */
+    @JvmOverloads
+    fun resolveScript(script: String, chainId: FlowChainId = defaultChainId, addresses: Map<String, FlowAddress> = mapOf()): FlowScript {
+        val snapshot = SNAPSHOT.get()
+        val cached = snapshot.scripts[ScriptKey(script, chainId, addresses)]
+        if (cached != null) {
+            return cached
         }
-        addresses.forEach {
-            ret = ret.replace(it.key, it.value.formatted)
+        val ret = FlowScript(matcherOf(snapshot, chainId, addresses).replace(script))
+        if (snapshot.scripts.size >= MAX_CACHED_SCRIPTS) {
+            snapshot.scripts.clear()
         }
-        return ret
+        return snapshot.scripts.putIfAbsent(ScriptKey(script, chainId, addresses.toMap()), ret) ?: ret
+    }
+
+    private fun matcherOf(snapshot: Snapshot, chainId: FlowChainId, addresses: Map<String, FlowAddress>): PlaceholderMatcher {
+        val registered = snapshot.addresses[chainId] ?: emptyMap()
+        if (addresses.isEmpty()) {
+            // built outside of the map's lock, computeIfAbsent would pin virtual threads while waiting on it
+            snapshot.matchers[chainId]?.let { return it }
+            val ret = PlaceholderMatcher(registered.mapValues { it.value.formatted })
+            return snapshot.matchers.putIfAbsent(chainId, ret) ?: ret
+        }
+        return PlaceholderMatcher((registered + addresses).mapValues { it.value.formatted })
     }
 
     @JvmOverloads
-    fun addressOf(contract: String, chainId: FlowChainId = defaultChainId): FlowAddress? = SCRIPT_TOKEN_MAP[chainId]?.get(contract)
+    fun addressOf(contract: String, chainId: FlowChainId = defaultChainId): FlowAddress? = SNAPSHOT.get().addresses[chainId]?.get(contract)
+
+    /**
+     * Atomically applies [block] to a copy of the registered addresses and publishes the result as a new version.
+     * The block may run more than once when other threads update the registry concurrently, so it shouldn't have
+     * side effects.
+     */
+    fun update(block: (MutableMap<FlowChainId, MutableMap<String, FlowAddress>>) -> Unit): AddressRegistry {
+        while (true) {
+            val current = SNAPSHOT.get()
+            val addresses: MutableMap<FlowChainId, MutableMap<String, FlowAddress>> = current.addresses
+                .mapValuesTo(mutableMapOf()) { it.value.toMutableMap() }
+            block(addresses)
+            val next = Snapshot(
+                version = current.version + 1,
+                addresses = addresses.filterValues { it.isNotEmpty() }.mapValues { it.value.toMap() }
+            )
+            if (SNAPSHOT.compareAndSet(current, next)) {
+                return this
+            }
+        }
+    }
 
     @JvmOverloads
     fun register(contract: String, address: FlowAddress, chainId: FlowChainId = defaultChainId): AddressRegistry {
-        SCRIPT_TOKEN_MAP.computeIfAbsent(chainId) { mutableMapOf() }[contract] = address
-        return this
+        return update { it.computeIfAbsent(chainId) { mutableMapOf() }[contract] = address }
+    }
+
+    @JvmOverloads
+    fun registerAll(addresses: Map<String, FlowAddress>, chainId: FlowChainId = defaultChainId): AddressRegistry {
+        return update { it.computeIfAbsent(chainId) { mutableMapOf() }.putAll(addresses) }
     }
 
     @JvmOverloads
@@ -54,17 +135,15 @@ class AddressRegistry {
         } else {
             FlowChainId.values()
         }
-        chains.forEach { SCRIPT_TOKEN_MAP[it]?.remove(contract) }
-        return this
+        return update { addresses -> chains.forEach { addresses[it]?.remove(contract) } }
     }
 
     fun clear(): AddressRegistry {
-        SCRIPT_TOKEN_MAP.clear()
-        return this
+        return update { it.clear() }
     }
 
     fun registerDefaults(): AddressRegistry {
-        mapOf(
+        val defaults = mapOf(
             FlowChainId.EMULATOR to mutableMapOf(
                 FUNGIBLE_TOKEN to FlowAddress("0xee82856bf20e2aa6"),
                 FLOW_TOKEN to FlowAddress("0x0ae53cb6e3f42a79"),
@@ -91,11 +170,11 @@ class AddressRegistry {
                 NFT_STOREFRONT to FlowAddress("0x4eb8a10cb9f87357"),
                 TOKEN_FORWARDING to FlowAddress("0xe544175ee0461c4b")
             ),
-        ).forEach { chain ->
-            chain.value.forEach {
-                register(it.key, it.value, chain.key)
+        )
+        return update { addresses ->
+            defaults.forEach { chain ->
+                addresses.computeIfAbsent(chain.key) { mutableMapOf() }.putAll(chain.value)
             }
         }
-        return this
     }
 }
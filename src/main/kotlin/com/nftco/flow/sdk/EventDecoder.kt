@@ -0,0 +1,191 @@
+package com.nftco.flow.sdk
+
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.databind.exc.MismatchedInputException
+import com.fasterxml.jackson.databind.util.TokenBuffer
+import com.nftco.flow.sdk.cadence.CompositeAttribute
+import com.nftco.flow.sdk.cadence.CompositeValue
+import com.nftco.flow.sdk.cadence.EventField
+import com.nftco.flow.sdk.cadence.Field
+import com.nftco.flow.sdk.cadence.TYPE_EVENT
+import com.nftco.flow.sdk.jfr.FlowJfr
+import com.nftco.flow.sdk.metrics.FlowInstrumentation
+import com.nftco.flow.sdk.metrics.FlowStage
+
+/**
+ * Decodes the events of selected types with only the fields asked for. Events of other types are skipped from their
+ * type alone, without looking at the payload. The payloads of the others are scanned as a stream in which the values
+ * of unwanted fields are skipped rather than decoded, and the scan stops once the id and every wanted field are read.
+ *
+ * Decoded events keep the fields found in payload order, fields missing from a payload are left out. It is immutable
+ * and can be shared between threads.
+ */
+class EventDecoder private constructor(private val selections: Map<String, Set<String>?>) {
+
+    companion object {
+        @JvmStatic
+        fun builder(): Builder = Builder()
+    }
+
+    val eventTypes: Set<String> get() = selections.keys
+
+    fun accepts(type: String): Boolean = type in selections
+
+    /**
+     * Returns [event] with its selected fields, or null when its type isn't selected.
+     */
+    fun decode(event: FlowEvent): EventField? {
+        if (!selections.containsKey(event.type)) {
+            return null
+        }
+        val fields = selections[event.type] ?: return event.event
+        return decode(event.payload.bytes, fields)
+    }
+
+    /**
+     * Returns the events of selected types among [events], in order.
+     */
+    fun decodeAll(events: Iterable<FlowEvent>): List<EventField> = events.mapNotNull { decode(it) }
+
+    /**
+     * Calls [action] with every event of a selected type among [events] and its decoded fields, in order.
+     */
+    fun forEach(events: Iterable<FlowEvent>, action: (FlowEvent, EventField) -> Unit) {
+        for (event in events) {
+            val decoded = decode(event) ?: continue
+            action(event, decoded)
+        }
+    }
+
+    private fun decode(payload: ByteArray, fields: Set<String>): EventField {
+        val event = FlowJfr.beginJsonCadenceDecode()
+        var ret: EventField? = null
+        try {
+            ret = FlowInstrumentation.measure(FlowStage.JSON_CADENCE_DECODE) {
+                Flow.OBJECT_MAPPER.createParser(payload).use { Scan(it, fields).event() }
+            }
+            return ret
+        } finally {
+            FlowJfr.commitJsonCadenceDecode(event, payload.size.toLong(), ret == null)
+        }
+    }
+
+    class Builder internal constructor() {
+        private val selections = LinkedHashMap<String, Set<String>?>()
+
+        /**
+         * Selects the events of [type], with only [fields] of them. Selecting a type again adds to its fields.
+         */
+        fun select(type: String, vararg fields: String) = apply {
+            require(fields.isNotEmpty()) { "fields must not be empty, use selectAll to decode every field" }
+            if (!selections.containsKey(type)) {
+                selections[type] = fields.toSet()
+            } else {
+                selections[type] = selections[type]?.plus(fields)
+            }
+        }
+
+        /**
+         * Selects the events of [type] with all their fields.
+         */
+        fun selectAll(type: String) = apply { selections[type] = null }
+
+        fun build(): EventDecoder = EventDecoder(LinkedHashMap(selections))
+    }
+
+    private class Scan(private val p: JsonParser, private val wanted: Set<String>) {
+        private var id: String? = null
+        private val fields = ArrayList<CompositeAttribute>(wanted.size)
+        private var stopEarly = false
+        private var complete = false
+
+        fun event(): EventField {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw MismatchedInputException.from(p, EventField::class.java, "Expected object for Event, found ${p.currentToken}")
+            }
+            var type: String? = null
+            var found = false
+            while (!complete && p.nextToken() == JsonToken.FIELD_NAME) {
+                val name = p.currentName
+                p.nextToken()
+                when (name) {
+                    "type" -> type = p.valueAsString
+                    "value" -> {
+                        if (type != null && type != TYPE_EVENT) {
+                            throw MismatchedInputException.from(p, EventField::class.java, "Expected an Event, found $type")
+                        }
+                        // the rest of the payload can only be left unread once its type is known
+                        stopEarly = type != null
+                        composite()
+                        found = true
+                    }
+                    else -> p.skipChildren()
+                }
+            }
+            if (type != TYPE_EVENT) {
+                throw MismatchedInputException.from(p, EventField::class.java, "Expected an Event, found $type")
+            }
+            val id = this.id
+            if (!found || id == null) {
+                throw MismatchedInputException.from(p, EventField::class.java, "value not specified for Event")
+            }
+            return EventField(CompositeValue(id, fields.toTypedArray()))
+        }
+
+        private fun composite() {
+            if (p.currentToken != JsonToken.START_OBJECT) {
+                throw MismatchedInputException.from(p, EventField::class.java, "Expected object for Event value, found ${p.currentToken}")
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                val name = p.currentName
+                p.nextToken()
+                when (name) {
+                    "id" -> id = p.valueAsString
+                    "fields" -> {
+                        attributes()
+                        if (complete) {
+                            return
+                        }
+                    }
+                    else -> p.skipChildren()
+                }
+            }
+        }
+
+        private fun attributes() {
+            if (p.currentToken != JsonToken.START_ARRAY) {
+                throw MismatchedInputException.from(p, EventField::class.java, "Expected array for Event fields, found ${p.currentToken}")
+            }
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                if (p.currentToken != JsonToken.START_OBJECT) {
+                    throw MismatchedInputException.from(p, EventField::class.java, "Expected object for Event field, found ${p.currentToken}")
+                }
+                var name: String? = null
+                var value: Field<*>? = null
+                var buffered: TokenBuffer? = null
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    val key = p.currentName
+                    p.nextToken()
+                    when {
+                        key == "name" -> name = p.valueAsString
+                        key != "value" -> p.skipChildren()
+                        name == null -> buffered = TokenBuffer(p, null).also { it.copyCurrentStructure(p) }
+                        name in wanted -> value = Flow.OBJECT_MAPPER.readValue(p, Field::class.java)
+                        else -> p.skipChildren()
+                    }
+                }
+                if (name != null && name in wanted) {
+                    val field = value ?: buffered?.let { Flow.OBJECT_MAPPER.readValue(it.asParser(), Field::class.java) }
+                    if (field != null) {
+                        fields.add(CompositeAttribute(name, field))
+                    }
+                }
+                if (stopEarly && id != null && fields.size == wanted.size) {
+                    complete = true
+                    return
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.nftco.flow.sdk
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Finds the handlers subscribed to an event type among many subscriptions, each one being:
+ *  - an exact type, such as `A.0b2a3299cc857e29.TopShot.Deposit`,
+ *  - a contract event at any address, such as `A.*.TopShot.Deposit`,
+ *  - a suffix of the type, matched like `endsWith` in [FlowTransactionResult.getEventsOfType], such as `*.Deposit`.
+ *
+ * Exact types and contract events are looked up in hash maps and suffixes in a trie of the reversed types, so that
+ * resolving a type doesn't depend on the number of subscriptions. Resolved types are then cached, which makes
+ * dispatching an event a single lookup. Handlers are returned in the order they were added, once each.
+ *
+ * It is immutable once built and can be shared between threads.
+ */
+class EventTypeIndex<H> private constructor(
+    private val exact: Map<String, List<Entry<H>>>,
+    private val anyAddress: Map<String, List<Entry<H>>>,
+    private val suffixes: SuffixNode<H>,
+    /** The number of subscriptions. */
+    val size: Int,
+    private val maxCachedTypes: Int
+) {
+
+    companion object {
+        @JvmStatic
+        fun <H> builder(): Builder<H> = Builder()
+
+        // "A.<address>.<contract>.<event>" to "<contract>.<event>"
+        private fun contractEventOf(type: String): String? {
+            if (!type.startsWith("A.")) {
+                return null
+            }
+            val end = type.indexOf('.', 2)
+            return if (end < 0) null else type.substring(end + 1)
+        }
+    }
+
+    private class Entry<H>(val order: Int, val handler: H)
+
+    private class SuffixNode<H> {
+        val children = HashMap<Char, SuffixNode<H>>(4)
+        val entries = ArrayList<Entry<H>>(0)
+    }
+
+    private val cache = ConcurrentHashMap<String, List<H>>()
+
+    /**
+     * Returns the handlers subscribed to events of [type], empty when there are none.
+     */
+    fun handlersOf(type: String): List<H> {
+        var ret = cache[type]
+        if (ret == null) {
+            ret = resolve(type)
+            if (cache.size < maxCachedTypes) {
+                cache.putIfAbsent(type, ret)
+            }
+        }
+        return ret
+    }
+
+    fun matches(type: String): Boolean = handlersOf(type).isNotEmpty()
+
+    /**
+     * Calls [action] with every event of [result] and each of its handlers, in event order.
+     */
+    fun dispatch(result: FlowEventResult, action: (H, FlowEvent) -> Unit) {
+        for (event in result.events) {
+            for (handler in handlersOf(event.type)) {
+                action(handler, event)
+            }
+        }
+    }
+
+    /**
+     * Returns [result] with only the events that have handlers.
+     */
+    fun filter(result: FlowEventResult): FlowEventResult {
+        val events = result.events.filter { matches(it.type) }
+        return if (events.size == result.events.size) result else result.copy(events = events)
+    }
+
+    private fun resolve(type: String): List<H> {
+        val entries = ArrayList<Entry<H>>()
+        exact[type]?.let { entries.addAll(it) }
+        contractEventOf(type)?.let { key -> anyAddress[key]?.let { entries.addAll(it) } }
+        var node = suffixes
+        entries.addAll(node.entries)
+        for (i in type.length - 1 downTo 0) {
+            node = node.children[type[i]] ?: break
+            entries.addAll(node.entries)
+        }
+        if (entries.isEmpty()) {
+            return emptyList()
+        }
+        entries.sortBy { it.order }
+        return entries.map { it.handler }.distinct()
+    }
+
+    class Builder<H> internal constructor() {
+        private val exact = HashMap<String, MutableList<Entry<H>>>()
+        private val anyAddress = HashMap<String, MutableList<Entry<H>>>()
+        private val suffixes = SuffixNode<H>()
+        private var size = 0
+        private var maxCachedTypes = 16384
+
+        /**
+         * Subscribes [handler] to [pattern]: `A.*.<contract>.<event>` for a contract event at any address, `*` followed
+         * by a suffix for types ending with it, or else an exact type.
+         */
+        fun add(pattern: String, handler: H) = when {
+            pattern.startsWith("A.*.") -> anyAddress(pattern.substring(4), handler)
+            pattern.startsWith("*") -> suffix(pattern.substring(1), handler)
+            else -> exact(pattern, handler)
+        }
+
+        fun exact(type: String, handler: H) = apply {
+            require(type.isNotEmpty()) { "type must not be empty" }
+            exact.getOrPut(type) { ArrayList(1) }.add(Entry(size++, handler))
+        }
+
+        /**
+         * Subscribes [handler] to [contractEvent], such as `TopShot.Deposit`, at any address.
+         */
+        fun anyAddress(contractEvent: String, handler: H) = apply {
+            require(contractEvent.isNotEmpty() && '*' !in contractEvent) { "Invalid contract event $contractEvent" }
+            anyAddress.getOrPut(contractEvent) { ArrayList(1) }.add(Entry(size++, handler))
+        }
+
+        /**
+         * Subscribes [handler] to the types ending with [suffix], an empty suffix matching every type.
+         */
+        fun suffix(suffix: String, handler: H) = apply {
+            var node = suffixes
+            for (i in suffix.length - 1 downTo 0) {
+                node = node.children.getOrPut(suffix[i]) { SuffixNode() }
+            }
+            node.entries.add(Entry(size++, handler))
+        }
+
+        /**
+         * Bounds the number of resolved types kept, others being resolved on every lookup.
+         */
+        fun maxCachedTypes(maxCachedTypes: Int) = apply {
+            require(maxCachedTypes >= 0) { "maxCachedTypes must not be negative" }
+            this.maxCachedTypes = maxCachedTypes
+        }
+
+        fun build(): EventTypeIndex<H> = EventTypeIndex(
+            exact.mapValues { it.value.toList() },
+            anyAddress.mapValues { it.value.toList() },
+            suffixes.copy(),
+            size,
+            maxCachedTypes
+        )
+
+        // the index keeps a copy so that the builder can go on being used
+        private fun SuffixNode<H>.copy(): SuffixNode<H> {
+            val ret = SuffixNode<H>()
+            ret.entries.addAll(entries)
+            children.forEach { (c, child) -> ret.children[c] = child.copy() }
+            return ret
+        }
+    }
+}
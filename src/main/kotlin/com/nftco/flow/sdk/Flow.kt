@@ -4,13 +4,16 @@ import com.fasterxml.jackson.core.type.TypeReference
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.module.kotlin.registerKotlinModule
 import io.grpc.ManagedChannel
-import io.grpc.ManagedChannelBuilder
 import org.onflow.protobuf.access.AccessAPIGrpc
 import com.nftco.flow.sdk.cadence.CadenceNamespace
 import com.nftco.flow.sdk.cadence.Field
 import com.nftco.flow.sdk.cadence.JsonCadenceMarshalling
 import com.nftco.flow.sdk.impl.AsyncFlowAccessApiImpl
 import com.nftco.flow.sdk.impl.FlowAccessApiImpl
+import com.nftco.flow.sdk.impl.SuspendFlowAccessApiImpl
+import com.nftco.flow.sdk.jfr.FlowJfr
+import com.nftco.flow.sdk.metrics.FlowInstrumentation
+import com.nftco.flow.sdk.metrics.FlowStage
 import kotlin.reflect.KClass
 
 object Flow {
@@ -43,24 +46,39 @@ object Flow {
         DEFAULT_ADDRESS_REGISTRY = addressRegistry
     }
 
+    /**
+     * Blocking calls wait for their response by parking the calling thread, which runs the call's callbacks itself, so
+     * on Java 21 or later they can be made from one virtual thread per request without pinning a carrier thread, see
+     * [FlowChannelConfig.newVirtualThreadExecutor].
+     */
     @JvmStatic
     @JvmOverloads
-    fun newAccessApi(host: String, port: Int = 9000, secure: Boolean = false, userAgent: String = DEFAULT_USER_AGENT, maxMessageSize: Int = DEFAULT_MAX_MESSAGE_SIZE): FlowAccessApi {
-        val channel = openChannel(host, port, secure, userAgent, maxMessageSize)
-        return FlowAccessApiImpl(AccessAPIGrpc.newBlockingStub(channel))
+    fun newAccessApi(host: String, port: Int = 9000, secure: Boolean = false, userAgent: String = DEFAULT_USER_AGENT, maxMessageSize: Int = DEFAULT_MAX_MESSAGE_SIZE, channelConfig: FlowChannelConfig = FlowChannelConfig.DEFAULT): FlowAccessApi {
+        val channel = openChannel(host, port, secure, userAgent, maxMessageSize, channelConfig)
+        return FlowAccessApiImpl(channelConfig.apply(AccessAPIGrpc.newBlockingStub(channel)))
     }
 
     @JvmStatic
     @JvmOverloads
-    fun newAsyncAccessApi(host: String, port: Int = 9000, secure: Boolean = false, userAgent: String = DEFAULT_USER_AGENT, maxMessageSize: Int = DEFAULT_MAX_MESSAGE_SIZE): AsyncFlowAccessApi {
-        val channel = openChannel(host, port, secure, userAgent, maxMessageSize)
-        return AsyncFlowAccessApiImpl(AccessAPIGrpc.newFutureStub(channel))
+    fun newAsyncAccessApi(host: String, port: Int = 9000, secure: Boolean = false, userAgent: String = DEFAULT_USER_AGENT, maxMessageSize: Int = DEFAULT_MAX_MESSAGE_SIZE, channelConfig: FlowChannelConfig = FlowChannelConfig.DEFAULT): AsyncFlowAccessApi {
+        val channel = openChannel(host, port, secure, userAgent, maxMessageSize, channelConfig)
+        return AsyncFlowAccessApiImpl(channelConfig.apply(AccessAPIGrpc.newFutureStub(channel)))
     }
 
+    /**
+     * Requires kotlinx-coroutines-core on the classpath.
+     */
     @JvmStatic
-    private fun openChannel(host: String, port: Int, secure: Boolean, userAgent: String, maxMessageSize: Int): ManagedChannel {
-        var channelBuilder = ManagedChannelBuilder
-            .forAddress(host, port)
+    @JvmOverloads
+    fun newSuspendAccessApi(host: String, port: Int = 9000, secure: Boolean = false, userAgent: String = DEFAULT_USER_AGENT, maxMessageSize: Int = DEFAULT_MAX_MESSAGE_SIZE, channelConfig: FlowChannelConfig = FlowChannelConfig.DEFAULT): SuspendFlowAccessApi {
+        val channel = openChannel(host, port, secure, userAgent, maxMessageSize, channelConfig)
+        return SuspendFlowAccessApiImpl(channel, channelConfig.callOptions)
+    }
+
+    @JvmStatic
+    private fun openChannel(host: String, port: Int, secure: Boolean, userAgent: String, maxMessageSize: Int, channelConfig: FlowChannelConfig): ManagedChannel {
+        var channelBuilder = channelConfig
+            .newChannelBuilder(host, port)
             .userAgent(userAgent)
             .maxInboundMessageSize(maxMessageSize)
 
@@ -70,23 +88,49 @@ object Flow {
             channelBuilder.usePlaintext()
         }
 
-        return channelBuilder.build()
+        return channelConfig.apply(channelBuilder).build()
     }
 
     @JvmStatic
     fun <T : Field<*>> decodeJsonCadenceList(string: String): List<T> = decodeJsonCadenceList(string.toByteArray(Charsets.UTF_8))
     @JvmStatic
-    fun <T : Field<*>> decodeJsonCadenceList(bytes: ByteArray): List<T> = OBJECT_MAPPER.readValue(bytes, object : TypeReference<List<T>>() {})
+    fun <T : Field<*>> decodeJsonCadenceList(bytes: ByteArray): List<T> {
+        val event = FlowJfr.beginJsonCadenceDecode()
+        var ret: List<T>? = null
+        try {
+            ret = FlowInstrumentation.measure(FlowStage.JSON_CADENCE_DECODE) {
+                OBJECT_MAPPER.readValue<List<T>>(bytes, object : TypeReference<List<T>>() {})
+            }
+            return ret
+        } finally {
+            FlowJfr.commitJsonCadenceDecode(event, bytes.size.toLong(), ret == null)
+        }
+    }
 
     @JvmStatic
     fun <T : Field<*>> decodeJsonCadence(string: String): T = decodeJsonCadence(string.toByteArray(Charsets.UTF_8))
     @JvmStatic
-    fun <T : Field<*>> decodeJsonCadence(bytes: ByteArray): T = OBJECT_MAPPER.readValue(bytes, object : TypeReference<T>() {})
+    fun <T : Field<*>> decodeJsonCadence(bytes: ByteArray): T {
+        val event = FlowJfr.beginJsonCadenceDecode()
+        var ret: T? = null
+        try {
+            ret = FlowInstrumentation.measure(FlowStage.JSON_CADENCE_DECODE) {
+                OBJECT_MAPPER.readValue<T>(bytes, object : TypeReference<T>() {})
+            }
+            return ret
+        } finally {
+            FlowJfr.commitJsonCadenceDecode(event, bytes.size.toLong(), ret == null)
+        }
+    }
 
     @JvmStatic
-    fun <T : Field<*>> encodeJsonCadenceList(jsonCadences: Iterable<T>): ByteArray = OBJECT_MAPPER.writeValueAsBytes(jsonCadences)
+    fun <T : Field<*>> encodeJsonCadenceList(jsonCadences: Iterable<T>): ByteArray = FlowInstrumentation.measure(FlowStage.JSON_CADENCE_ENCODE) {
+        OBJECT_MAPPER.writeValueAsBytes(jsonCadences)
+    }
     @JvmStatic
-    fun <T : Field<*>> encodeJsonCadence(jsonCadence: T): ByteArray = OBJECT_MAPPER.writeValueAsBytes(jsonCadence)
+    fun <T : Field<*>> encodeJsonCadence(jsonCadence: T): ByteArray = FlowInstrumentation.measure(FlowStage.JSON_CADENCE_ENCODE) {
+        OBJECT_MAPPER.writeValueAsBytes(jsonCadence)
+    }
 
     @JvmStatic
     fun <T : Any> unmarshall(type: KClass<T>, value: Field<*>, namespace: FlowAddress): T = JsonCadenceMarshalling.unmarshall(type, value, namespace)
@@ -0,0 +1,171 @@
+package com.nftco.flow.sdk
+
+import com.nftco.flow.sdk.metrics.FlowCallTracer
+import com.nftco.flow.sdk.metrics.FlowMetricsInterceptor
+import com.nftco.flow.sdk.metrics.FlowMetricsRecorder
+import io.grpc.CallOptions
+import io.grpc.ClientInterceptor
+import io.grpc.ManagedChannelBuilder
+import io.grpc.stub.AbstractStub
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.TimeUnit
+
+/**
+ * Options applied to the gRPC channel opened by [Flow.newAccessApi] and friends. Without any of them gRPC runs
+ * callbacks on its own shared cached thread pool and uses the first transport found on the classpath. The executors
+ * only apply to the async and suspend APIs, blocking calls run their callbacks on the calling thread.
+ *
+ * [eventLoopGroup] and [channelType] are passed on to the transport's channel builder as is, for the Netty transport
+ * they have to be an `EventLoopGroup` and the matching `Channel` class, and have to be given together.
+ * [flowControlWindow] is the initial HTTP/2 flow-control window in bytes, supported by the Netty and OkHttp
+ * transports. [compression] names the compressor used for requests, responses are compressed as the server decides
+ * and gzip responses are always accepted. [interceptors] are installed on every channel.
+ */
+data class FlowChannelConfig @JvmOverloads constructor(
+    val executor: Executor? = null,
+    val directExecutor: Boolean = false,
+    val offloadExecutor: Executor? = null,
+    val eventLoopGroup: Any? = null,
+    val channelType: Class<*>? = null,
+    val customizer: ((ManagedChannelBuilder<*>) -> Unit)? = null,
+    val transport: Transport = Transport.DEFAULT,
+    val keepAliveTimeMs: Long? = null,
+    val keepAliveTimeoutMs: Long? = null,
+    val keepAliveWithoutCalls: Boolean = false,
+    val idleTimeoutMs: Long? = null,
+    val flowControlWindow: Int? = null,
+    val compression: String? = null,
+    val interceptors: List<ClientInterceptor> = emptyList()
+) {
+
+    enum class Transport(val builderClassName: String?) {
+        DEFAULT(null),
+        NETTY("io.grpc.netty.NettyChannelBuilder"),
+        NETTY_SHADED("io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder"),
+        OKHTTP("io.grpc.okhttp.OkHttpChannelBuilder")
+    }
+
+    companion object {
+        @JvmField
+        val DEFAULT = FlowChannelConfig()
+
+        private val VIRTUAL_THREAD_EXECUTOR_FACTORY = try {
+            java.util.concurrent.Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor")
+        } catch (e: NoSuchMethodException) {
+            null
+        }
+
+        /**
+         * Whether the running JVM has virtual threads (JDK 21 or later).
+         */
+        @JvmStatic
+        val virtualThreadsSupported: Boolean get() = VIRTUAL_THREAD_EXECUTOR_FACTORY != null
+
+        /**
+         * An executor starting a new virtual thread for every task, to make blocking calls from. The caller owns it
+         * and has to shut it down.
+         */
+        @JvmStatic
+        fun newVirtualThreadExecutor(): ExecutorService {
+            val factory = VIRTUAL_THREAD_EXECUTOR_FACTORY
+                ?: throw UnsupportedOperationException("Virtual threads require Java 21 or later")
+            return factory.invoke(null) as ExecutorService
+        }
+
+        @JvmStatic
+        fun builder(): Builder = Builder(DEFAULT)
+    }
+
+    init {
+        require(!directExecutor || executor == null) { "directExecutor and executor are mutually exclusive" }
+        require((eventLoopGroup == null) == (channelType == null)) { "eventLoopGroup and channelType have to be given together" }
+        require(keepAliveTimeMs == null || keepAliveTimeMs > 0) { "keepAliveTimeMs must be positive" }
+        require(keepAliveTimeoutMs == null || keepAliveTimeoutMs > 0) { "keepAliveTimeoutMs must be positive" }
+        require(idleTimeoutMs == null || idleTimeoutMs > 0) { "idleTimeoutMs must be positive" }
+        require(flowControlWindow == null || flowControlWindow > 0) { "flowControlWindow must be positive" }
+    }
+
+    val callOptions: CallOptions get() = if (compression != null) CallOptions.DEFAULT.withCompression(compression) else CallOptions.DEFAULT
+
+    fun toBuilder(): Builder = Builder(this)
+
+    /**
+     * A channel builder for the configured [transport].
+     */
+    fun newChannelBuilder(host: String, port: Int): ManagedChannelBuilder<*> {
+        val className = transport.builderClassName ?: return ManagedChannelBuilder.forAddress(host, port)
+        val type = try {
+            Class.forName(className)
+        } catch (e: ClassNotFoundException) {
+            throw IllegalStateException("Transport $transport isn't on the classpath", e)
+        }
+        return type.getMethod("forAddress", String::class.java, Int::class.javaPrimitiveType).invoke(null, host, port) as ManagedChannelBuilder<*>
+    }
+
+    fun apply(builder: ManagedChannelBuilder<*>): ManagedChannelBuilder<*> {
+        if (directExecutor) {
+            builder.directExecutor()
+        } else if (executor != null) {
+            builder.executor(executor)
+        }
+        if (offloadExecutor != null) {
+            builder.offloadExecutor(offloadExecutor)
+        }
+        if (eventLoopGroup != null && channelType != null) {
+            invoke(builder, "eventLoopGroup", eventLoopGroup)
+            invoke(builder, "channelType", channelType)
+        }
+        if (keepAliveTimeMs != null) {
+            builder.keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
+        }
+        if (keepAliveTimeoutMs != null) {
+            builder.keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
+        }
+        if (keepAliveWithoutCalls) {
+            builder.keepAliveWithoutCalls(true)
+        }
+        if (idleTimeoutMs != null) {
+            builder.idleTimeout(idleTimeoutMs, TimeUnit.MILLISECONDS)
+        }
+        if (flowControlWindow != null) {
+            invoke(builder, "flowControlWindow", flowControlWindow)
+        }
+        if (interceptors.isNotEmpty()) {
+            builder.intercept(interceptors)
+        }
+        customizer?.invoke(builder)
+        return builder
+    }
+
+    fun <S : AbstractStub<S>> apply(stub: S): S = if (compression != null) stub.withCompression(compression) else stub
+
+    private fun invoke(builder: ManagedChannelBuilder<*>, name: String, value: Any) {
+        val method = builder.javaClass.methods
+            .firstOrNull { it.name == name && it.parameterTypes.size == 1 && it.parameterTypes[0].kotlin.javaObjectType.isInstance(value) }
+            ?: throw IllegalArgumentException("${builder.javaClass.name} doesn't support $name(${value.javaClass.name})")
+        method.invoke(builder, value)
+    }
+
+    class Builder internal constructor(private var config: FlowChannelConfig) {
+        fun executor(executor: Executor?) = apply { config = config.copy(executor = executor, directExecutor = false) }
+        fun directExecutor() = apply { config = config.copy(executor = null, directExecutor = true) }
+        fun offloadExecutor(executor: Executor?) = apply { config = config.copy(offloadExecutor = executor) }
+        fun eventLoopGroup(eventLoopGroup: Any?, channelType: Class<*>?) = apply { config = config.copy(eventLoopGroup = eventLoopGroup, channelType = channelType) }
+        fun customizer(customizer: ((ManagedChannelBuilder<*>) -> Unit)?) = apply { config = config.copy(customizer = customizer) }
+        fun transport(transport: Transport) = apply { config = config.copy(transport = transport) }
+        @JvmOverloads
+        fun keepAlive(time: Long, timeout: Long? = null, unit: TimeUnit = TimeUnit.MILLISECONDS, withoutCalls: Boolean = false) = apply {
+            config = config.copy(keepAliveTimeMs = unit.toMillis(time), keepAliveTimeoutMs = timeout?.let { unit.toMillis(it) }, keepAliveWithoutCalls = withoutCalls)
+        }
+        @JvmOverloads
+        fun idleTimeout(timeout: Long, unit: TimeUnit = TimeUnit.MILLISECONDS) = apply { config = config.copy(idleTimeoutMs = unit.toMillis(timeout)) }
+        fun flowControlWindow(bytes: Int) = apply { config = config.copy(flowControlWindow = bytes) }
+        fun compression(compressor: String?) = apply { config = config.copy(compression = compressor) }
+        fun gzip() = compression("gzip")
+        fun interceptor(interceptor: ClientInterceptor) = apply { config = config.copy(interceptors = config.interceptors + interceptor) }
+        @JvmOverloads
+        fun metrics(recorder: FlowMetricsRecorder, tracer: FlowCallTracer? = null) = interceptor(FlowMetricsInterceptor(recorder, tracer))
+        fun build(): FlowChannelConfig = config
+    }
+}
@@ -0,0 +1,154 @@
+package com.nftco.flow.sdk
+
+import com.google.protobuf.ByteString
+import com.nftco.flow.sdk.cadence.Field
+import java.io.Closeable
+import java.util.ArrayDeque
+import java.util.Spliterator
+import java.util.Spliterators
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.stream.Stream
+import java.util.stream.StreamSupport
+
+/**
+ * Runs the same script at many block heights, keeping at most [concurrency] calls in flight, and returns the
+ * results in height order as they become available.
+ */
+class ScriptTimeSeries @JvmOverloads constructor(
+    private val api: AsyncFlowAccessApi,
+    val script: FlowScript,
+    val arguments: List<ByteString> = emptyList(),
+    val concurrency: Int = 16
+) {
+
+    companion object {
+        @JvmStatic
+        @JvmOverloads
+        fun of(
+            api: AsyncFlowAccessApi,
+            script: PreparedScript,
+            concurrency: Int = 16,
+            arguments: PreparedScript.Arguments.() -> Unit = {}
+        ): ScriptTimeSeries = ScriptTimeSeries(api, script.script, script.arguments(arguments), concurrency)
+    }
+
+    init {
+        require(concurrency > 0) { "concurrency must be positive" }
+    }
+
+    /**
+     * The result of the script at [height]. When results are collapsed it is also the result at every queried
+     * height up to and including [endHeight].
+     */
+    data class Point(
+        val height: Long,
+        val endHeight: Long,
+        val response: FlowScriptResponse
+    ) {
+        val value: Field<*> get() = response.jsonCadence
+    }
+
+    private class Pending(
+        val height: Long,
+        val future: CompletableFuture<FlowScriptResponse>
+    )
+
+    /**
+     * Queries every height of [heights] lazily, calls are only started while the query is being read, at most
+     * [concurrency] of them ahead of the reader. With [collapse] consecutive heights returning identical bytes are
+     * merged into a single [Point].
+     *
+     * The query is closed once read to the end or when a call fails. A reader stopping early has to close it, or the
+     * stream from [Query.stream], to cancel the calls still in flight.
+     */
+    @JvmOverloads
+    fun query(heights: LongProgression, collapse: Boolean = false): Query = Query(heights.iterator(), collapse)
+
+    @JvmOverloads
+    fun query(range: LongRange, step: Long, collapse: Boolean = false): Query = query(range step step, collapse)
+
+    inner class Query internal constructor(
+        private val source: LongIterator,
+        private val collapse: Boolean
+    ) : Iterator<Point>, Closeable {
+
+        private val window = ArrayDeque<Pending>(concurrency)
+        private var collapsed: Point? = null
+        private var next: Point? = null
+        private var closed = false
+
+        override fun hasNext(): Boolean {
+            if (next == null && !closed) {
+                next = advance()
+            }
+            return next != null
+        }
+
+        override fun next(): Point {
+            if (!hasNext()) {
+                throw NoSuchElementException()
+            }
+            val ret = next!!
+            next = null
+            return ret
+        }
+
+        /**
+         * The points as a stream, closing it closes the query.
+         */
+        fun stream(): Stream<Point> = StreamSupport
+            .stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED or Spliterator.NONNULL), false)
+            .onClose { close() }
+
+        /**
+         * Cancels the calls in flight, the points already read stay valid.
+         */
+        override fun close() {
+            closed = true
+            window.forEach { it.future.cancel(true) }
+            window.clear()
+        }
+
+        private fun fill() {
+            while (window.size < concurrency && source.hasNext()) {
+                val height = source.nextLong()
+                window.add(Pending(height, api.executeScriptAtBlockHeight(script, height, arguments)))
+            }
+        }
+
+        // the next point, or null once they were all returned
+        private fun advance(): Point? {
+            try {
+                while (true) {
+                    fill()
+                    val pending = window.poll() ?: break
+                    val response = try {
+                        pending.future.get()
+                    } catch (e: ExecutionException) {
+                        throw FlowException("Error while running script at height ${pending.height}", e.cause ?: e)
+                    }
+
+                    val current = collapsed
+                    when {
+                        !collapse -> return Point(pending.height, pending.height, response)
+                        current != null && current.response.bytes.contentEquals(response.bytes) -> collapsed = current.copy(endHeight = pending.height)
+                        else -> {
+                            collapsed = Point(pending.height, pending.height, response)
+                            if (current != null) {
+                                return current
+                            }
+                        }
+                    }
+                }
+            } catch (e: Throwable) {
+                close()
+                throw e
+            }
+            val ret = collapsed
+            collapsed = null
+            close()
+            return ret
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.nftco.flow.sdk
+
+import com.google.protobuf.ByteString
+
+/**
+ * The access API for coroutines, see [com.nftco.flow.sdk.impl.SuspendFlowAccessApiImpl].
+ */
+interface SuspendFlowAccessApi {
+
+    suspend fun ping()
+
+    suspend fun getLatestBlockHeader(): FlowBlockHeader
+
+    suspend fun getBlockHeaderById(id: FlowId): FlowBlockHeader?
+
+    suspend fun getBlockHeaderByHeight(height: Long): FlowBlockHeader?
+
+    suspend fun getLatestBlock(sealed: Boolean = true): FlowBlock
+
+    suspend fun getBlockById(id: FlowId): FlowBlock?
+
+    suspend fun getBlockByHeight(height: Long): FlowBlock?
+
+    suspend fun getCollectionById(id: FlowId): FlowCollection?
+
+    suspend fun sendTransaction(transaction: FlowTransaction): FlowId
+
+    suspend fun getTransactionById(id: FlowId): FlowTransaction?
+
+    suspend fun getTransactionResultById(id: FlowId): FlowTransactionResult?
+
+    @Deprecated(
+        message = "Behaves identically to getAccountAtLatestBlock",
+        replaceWith = ReplaceWith("getAccountAtLatestBlock")
+    )
+    suspend fun getAccountByAddress(addresss: FlowAddress): FlowAccount?
+
+    suspend fun getAccountAtLatestBlock(addresss: FlowAddress): FlowAccount?
+
+    suspend fun getAccountByBlockHeight(addresss: FlowAddress, height: Long): FlowAccount?
+
+    suspend fun executeScriptAtLatestBlock(script: FlowScript, arguments: Iterable<ByteString> = emptyList()): FlowScriptResponse
+
+    suspend fun executeScriptAtBlockId(script: FlowScript, blockId: FlowId, arguments: Iterable<ByteString> = emptyList()): FlowScriptResponse
+
+    suspend fun executeScriptAtBlockHeight(script: FlowScript, height: Long, arguments: Iterable<ByteString> = emptyList()): FlowScriptResponse
+
+    suspend fun getEventsForHeightRange(type: String, range: ClosedRange<Long>): List<FlowEventResult>
+
+    suspend fun getEventsForBlockIds(type: String, ids: Set<FlowId>): List<FlowEventResult>
+
+    suspend fun getNetworkParameters(): FlowChainId
+
+    suspend fun getLatestProtocolStateSnapshot(): FlowSnapshot
+}
@@ -0,0 +1,413 @@
+package com.nftco.flow.sdk
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Hands out a single shared instance for each address it has seen, so that indexes holding the same hot addresses
+ * many times over keep one copy of each. Once [maxSize] addresses are pooled new ones are returned as they are.
+ */
+class FlowAddressPool @JvmOverloads constructor(
+    val maxSize: Int = 65536
+) {
+
+    private val addresses = ConcurrentHashMap<FlowAddress, FlowAddress>()
+
+    init {
+        require(maxSize > 0) { "maxSize must be positive" }
+    }
+
+    val size: Int get() = addresses.size
+
+    fun intern(address: FlowAddress): FlowAddress {
+        val pooled = addresses[address]
+        if (pooled != null) {
+            return pooled
+        }
+        if (addresses.size >= maxSize) {
+            return address
+        }
+        return addresses.putIfAbsent(address, address) ?: address
+    }
+
+    fun of(bytes: ByteArray): FlowAddress = intern(FlowAddress.of(bytes))
+
+    fun of(longValue: Long): FlowAddress = intern(FlowAddress.of(longValue))
+
+    fun of(hex: String): FlowAddress = intern(FlowAddress(hex))
+
+    fun clear() {
+        addresses.clear()
+    }
+}
+
+/**
+ * Open addressing table of [FlowAddress.longValue]s, the values are kept by the owner in arrays of `capacity + 1`
+ * slots, the last one being used by the zero address.
+ */
+internal class FlowAddressTable(expectedSize: Int, private val values: Values) {
+
+    interface Values {
+        fun move(from: Int, to: Int)
+
+        /**
+         * Replaces the values with an array of [length] slots, the value of old slot `i` going to slot `target[i]`
+         * unless it's negative.
+         */
+        fun relocate(target: IntArray, length: Int)
+    }
+
+    private var keys: LongArray
+    private var mask: Int
+    private var threshold: Int
+    private var hasZeroKey = false
+
+    var size: Int = 0
+        private set
+
+    init {
+        require(expectedSize >= 0) { "expectedSize must not be negative" }
+        var capacity = 16
+        while (thresholdOf(capacity) < expectedSize) {
+            capacity *= 2
+        }
+        keys = LongArray(capacity)
+        mask = capacity - 1
+        threshold = thresholdOf(capacity)
+    }
+
+    val capacity: Int get() = keys.size
+
+    fun isUsed(slot: Int): Boolean = if (slot == keys.size) hasZeroKey else keys[slot] != 0L
+
+    fun keyAt(slot: Int): Long = if (slot == keys.size) 0L else keys[slot]
+
+    fun slotOf(key: Long): Int {
+        if (key == 0L) {
+            return if (hasZeroKey) keys.size else -1
+        }
+        var i = mix(key) and mask
+        while (true) {
+            val k = keys[i]
+            if (k == 0L) {
+                return -1
+            }
+            if (k == key) {
+                return i
+            }
+            i = (i + 1) and mask
+        }
+    }
+
+    /**
+     * Returns the slot of [key], or `-(slot + 1)` when it had to be added.
+     */
+    fun insert(key: Long): Int {
+        if (key == 0L) {
+            if (!hasZeroKey) {
+                hasZeroKey = true
+                size++
+                return -(keys.size + 1)
+            }
+            return keys.size
+        }
+        var i = mix(key) and mask
+        while (true) {
+            val k = keys[i]
+            if (k == key) {
+                return i
+            }
+            if (k == 0L) {
+                break
+            }
+            i = (i + 1) and mask
+        }
+        if (size + 1 > threshold) {
+            rehash(keys.size * 2)
+            return insert(key)
+        }
+        keys[i] = key
+        size++
+        return -(i + 1)
+    }
+
+    /**
+     * Frees [slot], shifting back the keys probed past it. The value left in [slot] must have been cleared first.
+     */
+    fun removeAt(slot: Int) {
+        size--
+        if (slot == keys.size) {
+            hasZeroKey = false
+            return
+        }
+        var free = slot
+        var i = (slot + 1) and mask
+        while (true) {
+            val k = keys[i]
+            if (k == 0L) {
+                break
+            }
+            val home = mix(k) and mask
+            if (((i - home) and mask) >= ((i - free) and mask)) {
+                keys[free] = k
+                values.move(i, free)
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        keys[free] = 0L
+    }
+
+    fun clear() {
+        keys.fill(0L)
+        hasZeroKey = false
+        size = 0
+    }
+
+    private fun rehash(newCapacity: Int) {
+        val oldKeys = keys
+        keys = LongArray(newCapacity)
+        mask = newCapacity - 1
+        threshold = thresholdOf(newCapacity)
+        val target = IntArray(oldKeys.size + 1)
+        for (i in oldKeys.indices) {
+            val key = oldKeys[i]
+            if (key == 0L) {
+                target[i] = -1
+                continue
+            }
+            var j = mix(key) and mask
+            while (keys[j] != 0L) {
+                j = (j + 1) and mask
+            }
+            keys[j] = key
+            target[i] = j
+        }
+        target[oldKeys.size] = if (hasZeroKey) newCapacity else -1
+        values.relocate(target, newCapacity + 1)
+    }
+
+    private fun thresholdOf(capacity: Int): Int = capacity / 4 * 3
+
+    private fun mix(key: Long): Int {
+        val h = key * -7046029254386353131L
+        val ret = (h xor (h ushr 32)).toInt()
+        return ret xor (ret ushr 16)
+    }
+}
+
+/**
+ * A map from [FlowAddress] to objects that stores the addresses as primitive longs, without an entry or an address
+ * object per key. It isn't thread safe.
+ */
+class FlowAddressMap<V> @JvmOverloads constructor(expectedSize: Int = 16) {
+
+    private val table = FlowAddressTable(
+        expectedSize,
+        object : FlowAddressTable.Values {
+            override fun move(from: Int, to: Int) {
+                values[to] = values[from]
+                values[from] = null
+            }
+
+            override fun relocate(target: IntArray, length: Int) {
+                val old = values
+                values = arrayOfNulls(length)
+                for (i in target.indices) {
+                    if (target[i] >= 0) {
+                        values[target[i]] = old[i]
+                    }
+                }
+            }
+        }
+    )
+
+    private var values: Array<Any?> = arrayOfNulls(table.capacity + 1)
+
+    val size: Int get() = table.size
+
+    fun isEmpty(): Boolean = table.size == 0
+
+    fun containsKey(address: FlowAddress): Boolean = table.slotOf(address.longValue) >= 0
+
+    operator fun get(address: FlowAddress): V? = get(address.longValue)
+
+    @Suppress("UNCHECKED_CAST")
+    operator fun get(longValue: Long): V? {
+        val slot = table.slotOf(longValue)
+        return if (slot < 0) null else values[slot] as V
+    }
+
+    fun put(address: FlowAddress, value: V): V? = put(address.longValue, value)
+
+    @Suppress("UNCHECKED_CAST")
+    fun put(longValue: Long, value: V): V? {
+        val slot = table.insert(longValue)
+        if (slot < 0) {
+            values[-slot - 1] = value
+            return null
+        }
+        val ret = values[slot] as V
+        values[slot] = value
+        return ret
+    }
+
+    operator fun set(address: FlowAddress, value: V) {
+        put(address.longValue, value)
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    fun getOrPut(address: FlowAddress, defaultValue: () -> V): V {
+        val slot = table.slotOf(address.longValue)
+        if (slot >= 0) {
+            return values[slot] as V
+        }
+        val ret = defaultValue()
+        put(address.longValue, ret)
+        return ret
+    }
+
+    fun remove(address: FlowAddress): V? = remove(address.longValue)
+
+    @Suppress("UNCHECKED_CAST")
+    fun remove(longValue: Long): V? {
+        val slot = table.slotOf(longValue)
+        if (slot < 0) {
+            return null
+        }
+        val ret = values[slot] as V
+        values[slot] = null
+        table.removeAt(slot)
+        return ret
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    fun forEach(action: (FlowAddress, V) -> Unit) {
+        for (slot in 0..table.capacity) {
+            if (table.isUsed(slot)) {
+                action(FlowAddress.of(table.keyAt(slot)), values[slot] as V)
+            }
+        }
+    }
+
+    fun keys(): List<FlowAddress> {
+        val ret = ArrayList<FlowAddress>(table.size)
+        for (slot in 0..table.capacity) {
+            if (table.isUsed(slot)) {
+                ret.add(FlowAddress.of(table.keyAt(slot)))
+            }
+        }
+        return ret
+    }
+
+    fun clear() {
+        table.clear()
+        values.fill(null)
+    }
+}
+
+/**
+ * Receives the entries of a [FlowAddressLongMap] without boxing the values.
+ */
+fun interface FlowAddressLongConsumer {
+    fun accept(address: FlowAddress, value: Long)
+}
+
+/**
+ * A map from [FlowAddress] to primitive longs, such as balances or counters, with neither the addresses nor the
+ * values being boxed. Missing addresses read as [defaultValue]. It isn't thread safe.
+ */
+class FlowAddressLongMap @JvmOverloads constructor(
+    expectedSize: Int = 16,
+    val defaultValue: Long = 0L
+) {
+
+    private val table = FlowAddressTable(
+        expectedSize,
+        object : FlowAddressTable.Values {
+            override fun move(from: Int, to: Int) {
+                values[to] = values[from]
+            }
+
+            override fun relocate(target: IntArray, length: Int) {
+                val old = values
+                values = LongArray(length)
+                for (i in target.indices) {
+                    if (target[i] >= 0) {
+                        values[target[i]] = old[i]
+                    }
+                }
+            }
+        }
+    )
+
+    private var values = LongArray(table.capacity + 1)
+
+    val size: Int get() = table.size
+
+    fun isEmpty(): Boolean = table.size == 0
+
+    fun containsKey(address: FlowAddress): Boolean = table.slotOf(address.longValue) >= 0
+
+    operator fun get(address: FlowAddress): Long = get(address.longValue)
+
+    operator fun get(longValue: Long): Long {
+        val slot = table.slotOf(longValue)
+        return if (slot < 0) defaultValue else values[slot]
+    }
+
+    fun put(address: FlowAddress, value: Long): Long = put(address.longValue, value)
+
+    fun put(longValue: Long, value: Long): Long {
+        val slot = table.insert(longValue)
+        if (slot < 0) {
+            values[-slot - 1] = value
+            return defaultValue
+        }
+        val ret = values[slot]
+        values[slot] = value
+        return ret
+    }
+
+    operator fun set(address: FlowAddress, value: Long) {
+        put(address.longValue, value)
+    }
+
+    /**
+     * Adds [delta] to the value of [address], starting from [defaultValue], and returns the new value.
+     */
+    fun addTo(address: FlowAddress, delta: Long): Long = addTo(address.longValue, delta)
+
+    fun addTo(longValue: Long, delta: Long): Long {
+        val inserted = table.insert(longValue)
+        val slot = if (inserted < 0) -inserted - 1 else inserted
+        if (inserted < 0) {
+            values[slot] = defaultValue
+        }
+        values[slot] += delta
+        return values[slot]
+    }
+
+    fun remove(address: FlowAddress): Long = remove(address.longValue)
+
+    fun remove(longValue: Long): Long {
+        val slot = table.slotOf(longValue)
+        if (slot < 0) {
+            return defaultValue
+        }
+        val ret = values[slot]
+        table.removeAt(slot)
+        return ret
+    }
+
+    fun forEach(action: FlowAddressLongConsumer) {
+        for (slot in 0..table.capacity) {
+            if (table.isUsed(slot)) {
+                action.accept(FlowAddress.of(table.keyAt(slot)), values[slot])
+            }
+        }
+    }
+
+    fun clear() {
+        table.clear()
+    }
+}
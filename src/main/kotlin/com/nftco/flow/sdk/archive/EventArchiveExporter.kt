@@ -0,0 +1,81 @@
+package com.nftco.flow.sdk.archive
+
+import com.nftco.flow.sdk.AsyncFlowAccessApi
+import com.nftco.flow.sdk.FlowEvent
+import com.nftco.flow.sdk.FlowEventResult
+import com.nftco.flow.sdk.FlowException
+import java.util.ArrayDeque
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+
+/**
+ * Exports the blocks of a height range with their events of [eventTypes] to an [EventArchiveWriter]. The range is
+ * fetched in batches of [batchSize] heights, one call per type, with up to [concurrency] batches in flight while
+ * earlier ones are written, so that the exporter waits on the network rather than the other way around.
+ */
+class EventArchiveExporter @JvmOverloads constructor(
+    private val api: AsyncFlowAccessApi,
+    private val eventTypes: List<String>,
+    private val batchSize: Int = 250,
+    private val concurrency: Int = 4
+) {
+
+    init {
+        require(eventTypes.isNotEmpty()) { "eventTypes must not be empty" }
+        require(batchSize > 0) { "batchSize must be positive" }
+        require(concurrency > 0) { "concurrency must be positive" }
+    }
+
+    /**
+     * Writes the blocks of [range], which must be sealed, and returns the number of events written.
+     */
+    fun export(range: ClosedRange<Long>, writer: EventArchiveWriter): Long {
+        // the calls of each batch in flight, one per type, kept so that each of them can be cancelled
+        val window = ArrayDeque<List<CompletableFuture<List<FlowEventResult>>>>(concurrency)
+        var events = 0L
+        try {
+            var next = range.start
+            while (next <= range.endInclusive || window.isNotEmpty()) {
+                while (window.size < concurrency && next <= range.endInclusive) {
+                    val end = minOf(range.endInclusive, next + batchSize - 1)
+                    window.add(fetch(next..end))
+                    next = end + 1
+                }
+                val batch = try {
+                    merge(window.peek().map { it.join() })
+                } catch (e: CompletionException) {
+                    throw FlowException("Failed to fetch events", e.cause ?: e)
+                }
+                window.poll()
+                for (result in batch) {
+                    writer.write(result)
+                    events += result.events.size
+                }
+            }
+        } finally {
+            window.forEach { calls -> calls.forEach { it.cancel(true) } }
+        }
+        return events
+    }
+
+    private fun fetch(range: LongRange): List<CompletableFuture<List<FlowEventResult>>> =
+        eventTypes.map { api.getEventsForHeightRange(it, range) }
+
+    // one result per block, with the events of every type in execution order
+    private fun merge(results: List<List<FlowEventResult>>): List<FlowEventResult> {
+        if (results.size == 1) {
+            return results[0]
+        }
+        val blocks = LinkedHashMap<Long, FlowEventResult>()
+        val events = HashMap<Long, MutableList<FlowEvent>>()
+        for (result in results.flatten()) {
+            blocks.putIfAbsent(result.blockHeight, result)
+            events.getOrPut(result.blockHeight) { ArrayList() }.addAll(result.events)
+        }
+        return blocks.values
+            .sortedBy { it.blockHeight }
+            .map { block ->
+                block.copy(events = events.getValue(block.blockHeight).sortedWith(compareBy({ it.transactionIndex }, { it.eventIndex })))
+            }
+    }
+}
@@ -0,0 +1,227 @@
+package com.nftco.flow.sdk.archive
+
+import com.nftco.flow.sdk.FlowEvent
+import com.nftco.flow.sdk.FlowEventPayload
+import com.nftco.flow.sdk.FlowEventResult
+import com.nftco.flow.sdk.FlowId
+import java.io.Closeable
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+import java.util.zip.Inflater
+
+/**
+ * A row group of an event archive, described by the directory so that it can be read on its own.
+ */
+data class EventArchiveRowGroup(
+    val index: Int,
+    val offset: Long,
+    val length: Int,
+    val minHeight: Long,
+    val maxHeight: Long,
+    val blockCount: Int,
+    val eventCount: Int,
+    val eventTypes: List<String>
+)
+
+/**
+ * Reads an archive written by [EventArchiveWriter]. Row groups can be read independently, in any order or from
+ * different threads. When filtering by event type, row groups without any of the types are skipped from the
+ * directory alone, and in the others the rows are selected from the type column, only the pages of payloads holding
+ * selected rows being inflated. Payloads are never parsed.
+ */
+class EventArchiveReader private constructor(
+    val path: Path,
+    private val channel: FileChannel,
+    val rowGroups: List<EventArchiveRowGroup>
+) : Closeable {
+
+    companion object {
+        @JvmStatic
+        fun open(path: Path): EventArchiveReader {
+            val channel = FileChannel.open(path, StandardOpenOption.READ)
+            try {
+                return EventArchiveReader(path, channel, readDirectory(path, channel))
+            } catch (e: Exception) {
+                channel.close()
+                throw e
+            }
+        }
+
+        private fun readDirectory(path: Path, channel: FileChannel): List<EventArchiveRowGroup> {
+            val size = channel.size()
+            if (size < 16) {
+                throw IOException("$path is not an event archive")
+            }
+            val header = ByteBuffer.allocate(8)
+            channel.readFully(header, 0)
+            val trailer = ByteBuffer.allocate(8)
+            channel.readFully(trailer, size - 8)
+            if (header.getInt() != EVENT_ARCHIVE_MAGIC || trailer.getInt(4) != EVENT_ARCHIVE_MAGIC) {
+                throw IOException("$path is not an event archive, or wasn't closed")
+            }
+            val version = header.getInt()
+            if (version != EVENT_ARCHIVE_VERSION) {
+                throw IOException("unsupported event archive version $version")
+            }
+            val length = trailer.getInt(0)
+            if (length < 0 || length > size - 16) {
+                throw IOException("malformed event archive directory")
+            }
+            val bytes = ByteBuffer.allocate(length)
+            channel.readFully(bytes, size - 8 - length)
+            val directory = ColumnInput(bytes.array())
+            return List(directory.readVarInt()) {
+                EventArchiveRowGroup(
+                    index = it,
+                    offset = directory.readVarLong(),
+                    length = directory.readVarInt(),
+                    minHeight = directory.readVarLong(),
+                    maxHeight = directory.readVarLong(),
+                    blockCount = directory.readVarInt(),
+                    eventCount = directory.readVarInt(),
+                    eventTypes = List(directory.readVarInt()) { directory.readString() }
+                )
+            }
+        }
+    }
+
+    val blockCount: Long get() = rowGroups.sumOf { it.blockCount.toLong() }
+
+    val eventCount: Long get() = rowGroups.sumOf { it.eventCount.toLong() }
+
+    /**
+     * Reads the blocks of [rowGroup] with their events, only those of [eventTypes] when given. Blocks without
+     * matching events are returned with no events.
+     */
+    @JvmOverloads
+    fun read(rowGroup: EventArchiveRowGroup, eventTypes: Set<String>? = null): List<FlowEventResult> {
+        val selected = BooleanArray(rowGroup.eventTypes.size) { eventTypes == null || rowGroup.eventTypes[it] in eventTypes }
+        val readEvents = rowGroup.eventCount > 0 && selected.any { it }
+
+        val bytes = ByteBuffer.allocate(rowGroup.length)
+        channel.readFully(bytes, rowGroup.offset)
+        val chunks = ColumnInput(bytes.array())
+        val inflater = Inflater()
+        try {
+            val heights = chunks.readChunk(inflater)!!
+            val ids = chunks.readChunk(inflater)!!
+            val timestamps = chunks.readChunk(inflater)!!
+            val blockEvents = Array(rowGroup.blockCount) { ArrayList<FlowEvent>(0) }
+            if (readEvents) {
+                readEvents(rowGroup, chunks, inflater, selected, blockEvents)
+            }
+
+            var height = 0L
+            var seconds = 0L
+            return List(rowGroup.blockCount) {
+                height += heights.readSignedVarLong()
+                seconds += timestamps.readSignedVarLong()
+                FlowEventResult(
+                    blockId = FlowId.of(ids.readBytes(ID_SIZE)),
+                    blockHeight = height,
+                    blockTimestamp = LocalDateTime.ofEpochSecond(seconds, timestamps.readVarInt(), ZoneOffset.UTC),
+                    events = blockEvents[it]
+                )
+            }
+        } finally {
+            inflater.end()
+        }
+    }
+
+    /**
+     * Calls [action] with every block of the archive, in ascending height, with only the events of [eventTypes]
+     * when given.
+     */
+    @JvmOverloads
+    fun forEach(eventTypes: Set<String>? = null, action: (FlowEventResult) -> Unit) {
+        for (rowGroup in rowGroups) {
+            read(rowGroup, eventTypes).forEach(action)
+        }
+    }
+
+    override fun close() {
+        channel.close()
+    }
+
+    private fun readEvents(
+        rowGroup: EventArchiveRowGroup,
+        chunks: ColumnInput,
+        inflater: Inflater,
+        selected: BooleanArray,
+        blockEvents: Array<ArrayList<FlowEvent>>
+    ) {
+        val eventBlocks = chunks.readChunk(inflater)!!
+        val types = chunks.readChunk(inflater)!!
+        val transactions = chunks.readChunk(inflater)!!
+        val indexes = chunks.readChunk(inflater)!!
+        val lengths = chunks.readChunk(inflater)!!
+
+        var block = 0
+        var transaction: FlowId? = null
+        var row = 0
+        var pages = chunks.readVarInt()
+        while (row < rowGroup.eventCount) {
+            if (pages-- == 0) {
+                throw IOException("malformed row group ${rowGroup.index}")
+            }
+            val pageRows = chunks.readVarInt()
+            if (pageRows == 0 || row + pageRows > rowGroup.eventCount) {
+                throw IOException("malformed row group ${rowGroup.index}")
+            }
+
+            // the rows of the page, before knowing whether it needs inflating
+            val pageEvents = ArrayList<PendingEvent>(pageRows)
+            var skipped = 0
+            for (i in 0 until pageRows) {
+                block += eventBlocks.readVarInt()
+                val type = types.readVarInt()
+                if (transactions.readByte() != 0) {
+                    transaction = FlowId.of(transactions.readBytes(ID_SIZE))
+                }
+                val transactionIndex = indexes.readVarInt()
+                val eventIndex = indexes.readVarInt()
+                val length = lengths.readVarInt()
+                if (block >= blockEvents.size || type >= selected.size || transaction == null) {
+                    throw IOException("malformed row group ${rowGroup.index}")
+                }
+                if (selected[type]) {
+                    pageEvents.add(PendingEvent(block, type, transaction, transactionIndex, eventIndex, skipped, length))
+                    skipped = 0
+                } else {
+                    skipped += length
+                }
+            }
+            row += pageRows
+
+            val payloads = chunks.readChunk(inflater, skip = pageEvents.isEmpty()) ?: continue
+            for (event in pageEvents) {
+                payloads.position += event.skip
+                blockEvents[event.block].add(
+                    FlowEvent(
+                        type = rowGroup.eventTypes[event.type],
+                        transactionId = event.transactionId,
+                        transactionIndex = event.transactionIndex,
+                        eventIndex = event.eventIndex,
+                        payload = FlowEventPayload(payloads.readBytes(event.length))
+                    )
+                )
+            }
+        }
+    }
+
+    private class PendingEvent(
+        val block: Int,
+        val type: Int,
+        val transactionId: FlowId,
+        val transactionIndex: Int,
+        val eventIndex: Int,
+        // the bytes of unselected payloads before this one
+        val skip: Int,
+        val length: Int
+    )
+}
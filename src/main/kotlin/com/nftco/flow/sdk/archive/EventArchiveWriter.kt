@@ -0,0 +1,200 @@
+package com.nftco.flow.sdk.archive
+
+import com.nftco.flow.sdk.FlowEventResult
+import com.nftco.flow.sdk.FlowId
+import java.io.BufferedOutputStream
+import java.io.Closeable
+import java.io.DataOutputStream
+import java.io.OutputStream
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.ZoneOffset
+import java.util.zip.Deflater
+
+/**
+ * Writes blocks and their events to a compact columnar file, read back by [EventArchiveReader]. Blocks are
+ * gathered in row groups of at most [rowGroupBlocks] blocks and about [rowGroupEvents] events, a block never being
+ * split, and each column of a row group is deflated at [compressionLevel], payloads in pages of about 64 KiB.
+ * Blocks must be written in ascending height. It isn't thread safe.
+ */
+class EventArchiveWriter @JvmOverloads constructor(
+    out: OutputStream,
+    val rowGroupEvents: Int = 65536,
+    val rowGroupBlocks: Int = 16384,
+    compressionLevel: Int = Deflater.BEST_SPEED
+) : Closeable {
+
+    companion object {
+        @JvmStatic
+        @JvmOverloads
+        fun open(
+            path: Path,
+            rowGroupEvents: Int = 65536,
+            rowGroupBlocks: Int = 16384,
+            compressionLevel: Int = Deflater.BEST_SPEED
+        ): EventArchiveWriter = EventArchiveWriter(Files.newOutputStream(path), rowGroupEvents, rowGroupBlocks, compressionLevel)
+    }
+
+    init {
+        require(rowGroupEvents > 0) { "rowGroupEvents must be positive" }
+        require(rowGroupBlocks > 0) { "rowGroupBlocks must be positive" }
+    }
+
+    private val out = DataOutputStream(BufferedOutputStream(out, 64 * 1024))
+    private val deflater = Deflater(compressionLevel)
+    private val columns = Array(COLUMN_COUNT) { ColumnOutput() }
+    private val chunks = ColumnOutput(64 * 1024)
+    private val directory = ColumnOutput()
+    private val payloadPages = ColumnOutput(64 * 1024)
+    private var pageCount = 0
+    private var pageRows = 0
+
+    private val types = LinkedHashMap<String, Int>()
+    private var blocks = 0
+    private var events = 0
+    private var minHeight = 0L
+    private var lastHeight = 0L
+    private var lastSeconds = 0L
+    private var lastEventBlock = 0
+    private var lastTransaction: FlowId? = null
+    private var previousHeight = 0L
+    private var rowGroups = 0
+    private var position = 8L
+    private var closed = false
+
+    /**
+     * The number of blocks written so far.
+     */
+    var blockCount = 0L
+        private set
+
+    /**
+     * The number of events written so far.
+     */
+    var eventCount = 0L
+        private set
+
+    init {
+        this.out.writeInt(EVENT_ARCHIVE_MAGIC)
+        this.out.writeInt(EVENT_ARCHIVE_VERSION)
+    }
+
+    fun write(result: FlowEventResult) {
+        check(!closed) { "archive is closed" }
+        require(blockCount == 0L || result.blockHeight > previousHeight) { "blocks must be written in ascending height" }
+        previousHeight = result.blockHeight
+        if (blocks == 0) {
+            minHeight = result.blockHeight
+        }
+        columns[COLUMN_BLOCK_HEIGHT].writeSignedVarLong(result.blockHeight - lastHeight)
+        columns[COLUMN_BLOCK_ID].writeBytes(result.blockId.bytes)
+        val seconds = result.blockTimestamp.toEpochSecond(ZoneOffset.UTC)
+        columns[COLUMN_BLOCK_TIMESTAMP].writeSignedVarLong(seconds - lastSeconds)
+        columns[COLUMN_BLOCK_TIMESTAMP].writeVarLong(result.blockTimestamp.nano.toLong())
+        lastHeight = result.blockHeight
+        lastSeconds = seconds
+
+        for (event in result.events) {
+            columns[COLUMN_EVENT_BLOCK].writeVarLong((blocks - lastEventBlock).toLong())
+            lastEventBlock = blocks
+            val type = types[event.type] ?: types.size.also { types[event.type] = it }
+            columns[COLUMN_EVENT_TYPE].writeVarLong(type.toLong())
+            if (event.transactionId == lastTransaction) {
+                columns[COLUMN_EVENT_TRANSACTION].writeByte(0)
+            } else {
+                columns[COLUMN_EVENT_TRANSACTION].writeByte(1)
+                columns[COLUMN_EVENT_TRANSACTION].writeBytes(event.transactionId.bytes)
+                lastTransaction = event.transactionId
+            }
+            columns[COLUMN_EVENT_INDEXES].writeVarLong(event.transactionIndex.toLong())
+            columns[COLUMN_EVENT_INDEXES].writeVarLong(event.eventIndex.toLong())
+            val payload = event.payload.bytes
+            columns[COLUMN_EVENT_PAYLOAD_LENGTH].writeVarLong(payload.size.toLong())
+            columns[COLUMN_EVENT_PAYLOAD].writeBytes(payload)
+            pageRows++
+            if (columns[COLUMN_EVENT_PAYLOAD].size >= PAYLOAD_PAGE_SIZE) {
+                finishPage()
+            }
+            events++
+        }
+        blocks++
+        blockCount++
+        eventCount += result.events.size
+        if (events >= rowGroupEvents || blocks >= rowGroupBlocks) {
+            finishRowGroup()
+        }
+    }
+
+    fun writeAll(results: Iterable<FlowEventResult>) {
+        results.forEach { write(it) }
+    }
+
+    /**
+     * Writes the pending row group and the directory, and closes the output.
+     */
+    override fun close() {
+        if (closed) {
+            return
+        }
+        closed = true
+        try {
+            finishRowGroup()
+            val footer = ColumnOutput()
+            footer.writeVarLong(rowGroups.toLong())
+            footer.writeBytes(directory.bytes, 0, directory.size)
+            out.write(footer.bytes, 0, footer.size)
+            out.writeInt(footer.size)
+            out.writeInt(EVENT_ARCHIVE_MAGIC)
+            out.flush()
+        } finally {
+            deflater.end()
+            out.close()
+        }
+    }
+
+    private fun finishRowGroup() {
+        if (blocks == 0) {
+            return
+        }
+        chunks.reset()
+        for (column in 0 until COLUMN_EVENT_PAYLOAD) {
+            chunks.writeChunk(columns[column], deflater)
+            columns[column].reset()
+        }
+        finishPage()
+        chunks.writeVarLong(pageCount.toLong())
+        chunks.writeBytes(payloadPages.bytes, 0, payloadPages.size)
+        payloadPages.reset()
+        pageCount = 0
+        directory.writeVarLong(position)
+        directory.writeVarLong(chunks.size.toLong())
+        directory.writeVarLong(minHeight)
+        directory.writeVarLong(lastHeight)
+        directory.writeVarLong(blocks.toLong())
+        directory.writeVarLong(events.toLong())
+        directory.writeVarLong(types.size.toLong())
+        types.keys.forEach { directory.writeString(it) }
+        out.write(chunks.bytes, 0, chunks.size)
+        position += chunks.size
+
+        rowGroups++
+        types.clear()
+        blocks = 0
+        events = 0
+        lastHeight = 0
+        lastSeconds = 0
+        lastEventBlock = 0
+        lastTransaction = null
+    }
+
+    private fun finishPage() {
+        if (pageRows == 0) {
+            return
+        }
+        payloadPages.writeVarLong(pageRows.toLong())
+        payloadPages.writeChunk(columns[COLUMN_EVENT_PAYLOAD], deflater)
+        columns[COLUMN_EVENT_PAYLOAD].reset()
+        pageCount++
+        pageRows = 0
+    }
+}
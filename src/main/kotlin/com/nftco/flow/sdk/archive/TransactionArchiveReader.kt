@@ -0,0 +1,205 @@
+package com.nftco.flow.sdk.archive
+
+import com.nftco.flow.sdk.FlowId
+import com.nftco.flow.sdk.FlowTransaction
+import com.nftco.flow.sdk.rlp.RLPElement
+import java.io.Closeable
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * Reads a transaction archive written by [TransactionArchiveWriter] through memory mappings of its data and index
+ * files. Transactions are found by id through an in-memory table of 4 to 8 bytes per transaction built when
+ * opening, or iterated in the order they were appended, and are only decoded when asked for. It sees the
+ * transactions flushed before it was opened, and is safe to use from several threads.
+ *
+ * Very large archives are best split in segments, for instance one per day, to bound the size of the table. A
+ * segment can't hold more than 805,306,368 transactions.
+ */
+class TransactionArchiveReader private constructor(
+    val path: Path,
+    private val data: MappedSegments,
+    private val index: MappedSegments,
+    /** The number of transactions in the archive. */
+    val count: Int
+) : Closeable {
+
+    companion object {
+        private const val DATA_CHUNK_SIZE = 1L shl 30
+        private const val INDEX_CHUNK_SIZE = INDEX_ENTRY_SIZE.toLong() shl 24
+        private const val MAX_SLOTS = 1 shl 30
+        // the table is kept at most three quarters full
+        internal const val MAX_ENTRIES = MAX_SLOTS / 4 * 3
+
+        @JvmStatic
+        fun open(path: Path): TransactionArchiveReader {
+            FileChannel.open(path, StandardOpenOption.READ).use { dataChannel ->
+                FileChannel.open(indexPathOf(path), StandardOpenOption.READ).use { indexChannel ->
+                    val dataSize = dataChannel.size()
+                    val header = ByteBuffer.allocate(ARCHIVE_HEADER_SIZE.toInt())
+                    if (dataSize < ARCHIVE_HEADER_SIZE) {
+                        throw IOException("$path is not a transaction archive")
+                    }
+                    dataChannel.readFully(header, 0)
+                    if (header.getInt() != ARCHIVE_MAGIC) {
+                        throw IOException("$path is not a transaction archive")
+                    }
+                    val version = header.getInt()
+                    if (version != ARCHIVE_VERSION) {
+                        throw IOException("unsupported transaction archive version $version")
+                    }
+
+                    // the mappings stay valid once the channels are closed
+                    val data = MappedSegments(dataChannel, dataSize, DATA_CHUNK_SIZE, RECORD_HEADER_SIZE.toLong() + MAX_ARCHIVED_TRANSACTION_SIZE)
+                    val entries = indexChannel.size() / INDEX_ENTRY_SIZE
+                    val index = MappedSegments(indexChannel, entries * INDEX_ENTRY_SIZE, INDEX_CHUNK_SIZE, 0)
+
+                    // skips the entries of records still being written
+                    var count = entries
+                    while (count > 0) {
+                        val offset = index.getLong((count - 1) * INDEX_ENTRY_SIZE + ID_SIZE)
+                        if (offset + RECORD_HEADER_SIZE <= dataSize && offset + RECORD_HEADER_SIZE + data.getInt(offset) <= dataSize) {
+                            break
+                        }
+                        count--
+                    }
+                    require(count <= MAX_ENTRIES) { "archive too large, split it in segments" }
+                    return TransactionArchiveReader(path, data, index, count.toInt())
+                }
+            }
+        }
+
+        /**
+         * Returns the size of the table for [entries], a power of two.
+         */
+        internal fun slotCount(entries: Int): Int {
+            require(entries <= MAX_ENTRIES) { "archive too large, split it in segments" }
+            var capacity = 16
+            while (capacity / 4 * 3 < entries) {
+                capacity *= 2
+            }
+            return capacity
+        }
+
+        private fun mix(word: Long): Int {
+            val h = word * -7046029254386353131L
+            val ret = (h xor (h ushr 32)).toInt()
+            return ret xor (ret ushr 16)
+        }
+    }
+
+    // open addressing table of entry number + 1, by the first 8 bytes of the ids
+    private val slots: IntArray
+    private val mask: Int
+
+    init {
+        slots = IntArray(slotCount(count))
+        mask = slots.size - 1
+        for (entry in 0 until count) {
+            var i = mix(index.getLong(entry.toLong() * INDEX_ENTRY_SIZE)) and mask
+            while (slots[i] != 0) {
+                i = (i + 1) and mask
+            }
+            slots[i] = entry + 1
+        }
+    }
+
+    fun contains(id: FlowId): Boolean = entryOf(id) >= 0
+
+    /**
+     * Returns a read-only view of the canonical transaction [id], straight from the mapping, or null.
+     */
+    fun buffer(id: FlowId): ByteBuffer? {
+        val entry = entryOf(id)
+        return if (entry < 0) null else recordOf(entry)
+    }
+
+    /**
+     * Returns a copy of the canonical transaction [id], or null.
+     */
+    fun bytes(id: FlowId): ByteArray? = buffer(id)?.toByteArray()
+
+    /**
+     * Returns the transaction [id] as an RLP tree parsed lazily, only the elements accessed being decoded.
+     */
+    fun element(id: FlowId): RLPElement? = bytes(id)?.let { RLPElement.fromEncoded(it, true) }
+
+    fun transaction(id: FlowId): FlowTransaction? = bytes(id)?.let { FlowTransaction.of(it) }
+
+    /**
+     * Returns the id of the transaction appended in position [entry].
+     */
+    fun idAt(entry: Int): FlowId {
+        checkEntry(entry)
+        return FlowId.of(index.slice(entry.toLong() * INDEX_ENTRY_SIZE, ID_SIZE))
+    }
+
+    /**
+     * Returns a read-only view of the canonical transaction appended in position [entry].
+     */
+    fun bufferAt(entry: Int): ByteBuffer {
+        checkEntry(entry)
+        return recordOf(entry)
+    }
+
+    /**
+     * Calls [action] with the id and a read-only view of every transaction, in the order they were appended.
+     */
+    fun forEach(action: (FlowId, ByteBuffer) -> Unit) {
+        for (entry in 0 until count) {
+            action(idAt(entry), recordOf(entry))
+        }
+    }
+
+    /**
+     * Lets the mappings be released, which happens once they are garbage collected.
+     */
+    override fun close() = Unit
+
+    private fun checkEntry(entry: Int) {
+        if (entry < 0 || entry >= count) {
+            throw IndexOutOfBoundsException("entry $entry of $count")
+        }
+    }
+
+    private fun entryOf(id: FlowId): Int {
+        val bytes = id.bytes
+        val first = ByteBuffer.wrap(bytes).getLong(0)
+        var i = mix(first) and mask
+        while (true) {
+            val entry = slots[i] - 1
+            if (entry < 0) {
+                return -1
+            }
+            if (idMatches(entry, bytes)) {
+                return entry
+            }
+            i = (i + 1) and mask
+        }
+    }
+
+    private fun idMatches(entry: Int, id: ByteArray): Boolean {
+        val position = entry.toLong() * INDEX_ENTRY_SIZE
+        val ids = ByteBuffer.wrap(id)
+        for (word in 0 until ID_SIZE / 8) {
+            if (index.getLong(position + word * 8) != ids.getLong(word * 8)) {
+                return false
+            }
+        }
+        return true
+    }
+
+    private fun recordOf(entry: Int): ByteBuffer {
+        val offset = index.getLong(entry.toLong() * INDEX_ENTRY_SIZE + ID_SIZE)
+        return data.slice(offset + RECORD_HEADER_SIZE, data.getInt(offset))
+    }
+
+    private fun ByteBuffer.toByteArray(): ByteArray {
+        val ret = ByteArray(remaining())
+        duplicate().get(ret)
+        return ret
+    }
+}
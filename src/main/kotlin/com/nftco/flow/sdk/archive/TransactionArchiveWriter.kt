@@ -0,0 +1,189 @@
+package com.nftco.flow.sdk.archive
+
+import com.nftco.flow.sdk.FlowId
+import com.nftco.flow.sdk.FlowTransaction
+import java.io.Closeable
+import java.io.IOException
+import java.nio.Buffer
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * Appends canonical transactions to an archive made of a data file at [path] and an index next to it, see
+ * [TransactionArchiveReader]. Opening an existing archive continues it, indexing records that were written but not
+ * indexed and dropping a record torn by a crash. Records are buffered until [flush], [sync] or [close]. It isn't
+ * thread safe.
+ */
+class TransactionArchiveWriter private constructor(
+    val path: Path,
+    private val data: FileChannel,
+    private val index: FileChannel,
+    private var dataSize: Long,
+    count: Long
+) : Closeable {
+
+    companion object {
+        private const val BUFFER_SIZE = 64 * 1024
+
+        @JvmStatic
+        fun open(path: Path): TransactionArchiveWriter {
+            val data = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+            val index = try {
+                FileChannel.open(indexPathOf(path), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+            } catch (e: IOException) {
+                data.close()
+                throw e
+            }
+            try {
+                return recover(path, data, index)
+            } catch (e: Exception) {
+                data.close()
+                index.close()
+                throw e
+            }
+        }
+
+        private fun recover(path: Path, data: FileChannel, index: FileChannel): TransactionArchiveWriter {
+            val header = ByteBuffer.allocate(ARCHIVE_HEADER_SIZE.toInt())
+            if (data.size() < ARCHIVE_HEADER_SIZE) {
+                data.truncate(0)
+                index.truncate(0)
+                header.putInt(ARCHIVE_MAGIC).putInt(ARCHIVE_VERSION)
+                data.position(0)
+                data.writeFully(header)
+                return TransactionArchiveWriter(path, data, index, ARCHIVE_HEADER_SIZE, 0)
+            }
+            data.readFully(header, 0)
+            if (header.getInt() != ARCHIVE_MAGIC) {
+                throw IOException("$path is not a transaction archive")
+            }
+            val version = header.getInt()
+            if (version != ARCHIVE_VERSION) {
+                throw IOException("unsupported transaction archive version $version")
+            }
+
+            val size = data.size()
+            var count = index.size() / INDEX_ENTRY_SIZE
+            var end = ARCHIVE_HEADER_SIZE
+            val entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE)
+            val record = ByteBuffer.allocate(RECORD_HEADER_SIZE)
+            while (count > 0) {
+                (entry as Buffer).clear()
+                index.readFully(entry, (count - 1) * INDEX_ENTRY_SIZE)
+                val offset = entry.getLong(ID_SIZE)
+                val length = if (offset + RECORD_HEADER_SIZE <= size) {
+                    (record as Buffer).clear()
+                    data.readFully(record, offset)
+                    record.getInt(0).toLong()
+                } else {
+                    -1L
+                }
+                if (length >= 0 && offset + RECORD_HEADER_SIZE + length <= size) {
+                    end = offset + RECORD_HEADER_SIZE + length
+                    break
+                }
+                count--
+            }
+            index.truncate(count * INDEX_ENTRY_SIZE)
+            index.position(count * INDEX_ENTRY_SIZE)
+
+            // records written after the last index entry
+            while (end + RECORD_HEADER_SIZE <= size) {
+                (record as Buffer).clear()
+                data.readFully(record, end)
+                val length = record.getInt(0)
+                if (length < 0 || length > MAX_ARCHIVED_TRANSACTION_SIZE || end + RECORD_HEADER_SIZE + length > size) {
+                    break
+                }
+                (entry as Buffer).clear()
+                entry.put(record.array(), 4, ID_SIZE).putLong(end)
+                index.writeFully(entry)
+                count++
+                end += RECORD_HEADER_SIZE + length
+            }
+            data.truncate(end)
+            data.position(end)
+            return TransactionArchiveWriter(path, data, index, end, count)
+        }
+    }
+
+    private val dataBuffer = ByteBuffer.allocate(BUFFER_SIZE)
+    private val indexBuffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE * 1024)
+
+    /**
+     * The number of transactions in the archive.
+     */
+    var count: Long = count
+        private set
+
+    /**
+     * Appends [transaction] and returns its id.
+     */
+    fun append(transaction: FlowTransaction): FlowId {
+        val id = transaction.id
+        append(id, transaction.canonicalTransaction)
+        return id
+    }
+
+    /**
+     * Appends the [canonicalTransaction] of the transaction [id], without checking that they match.
+     */
+    fun append(id: FlowId, canonicalTransaction: ByteArray) {
+        require(canonicalTransaction.isNotEmpty() && canonicalTransaction.size <= MAX_ARCHIVED_TRANSACTION_SIZE) {
+            "transaction must be between 1 and $MAX_ARCHIVED_TRANSACTION_SIZE bytes"
+        }
+        check(data.isOpen) { "archive is closed" }
+        val idBytes = id.bytes
+        if (dataBuffer.remaining() < RECORD_HEADER_SIZE + canonicalTransaction.size) {
+            data.writeFully(dataBuffer)
+        }
+        dataBuffer.putInt(canonicalTransaction.size).put(idBytes)
+        if (dataBuffer.remaining() >= canonicalTransaction.size) {
+            dataBuffer.put(canonicalTransaction)
+        } else {
+            data.writeFully(dataBuffer)
+            val body = ByteBuffer.wrap(canonicalTransaction)
+            while (body.hasRemaining()) {
+                data.write(body)
+            }
+        }
+
+        if (!indexBuffer.hasRemaining()) {
+            flush()
+        }
+        indexBuffer.put(idBytes).putLong(dataSize)
+        dataSize += RECORD_HEADER_SIZE + canonicalTransaction.size
+        count++
+    }
+
+    /**
+     * Writes out the buffered records, the data first so that the index never points past it.
+     */
+    fun flush() {
+        data.writeFully(dataBuffer)
+        index.writeFully(indexBuffer)
+    }
+
+    /**
+     * Flushes and forces the archive to the storage device.
+     */
+    fun sync() {
+        flush()
+        data.force(false)
+        index.force(false)
+    }
+
+    override fun close() {
+        if (!data.isOpen) {
+            return
+        }
+        try {
+            flush()
+        } finally {
+            data.close()
+            index.close()
+        }
+    }
+}
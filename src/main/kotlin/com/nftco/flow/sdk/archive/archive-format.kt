@@ -0,0 +1,76 @@
+package com.nftco.flow.sdk.archive
+
+import java.io.EOFException
+import java.nio.Buffer
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Path
+
+// Layout of a transaction archive:
+//
+// data file:  MAGIC (4) | VERSION (4) | record*
+// record:     length (4) | id (32) | canonical transaction (length)
+// index file: entry*, in the order of the records
+// entry:      id (32) | offset of the record in the data file (8)
+//
+// All numbers are big-endian. The index never points past the data, it is written after the records it refers to.
+
+internal const val ARCHIVE_MAGIC = 0x46545841 // "FTXA"
+internal const val ARCHIVE_VERSION = 1
+internal const val ARCHIVE_HEADER_SIZE = 8L
+internal const val RECORD_HEADER_SIZE = 36
+internal const val INDEX_ENTRY_SIZE = 40
+internal const val ID_SIZE = 32
+
+/**
+ * The largest transaction an archive accepts, far above what access nodes accept.
+ */
+const val MAX_ARCHIVED_TRANSACTION_SIZE = 16 * 1024 * 1024
+
+internal fun indexPathOf(path: Path): Path = path.resolveSibling("${path.fileName}.idx")
+
+internal fun FileChannel.readFully(buffer: ByteBuffer, position: Long) {
+    var at = position
+    while (buffer.hasRemaining()) {
+        val read = read(buffer, at)
+        if (read < 0) {
+            throw EOFException("unexpected end of ${buffer.remaining()} bytes at $at")
+        }
+        at += read
+    }
+    (buffer as Buffer).flip()
+}
+
+internal fun FileChannel.writeFully(buffer: ByteBuffer) {
+    (buffer as Buffer).flip()
+    while (buffer.hasRemaining()) {
+        write(buffer)
+    }
+    (buffer as Buffer).clear()
+}
+
+/**
+ * A read-only mapping of the first [size] bytes of a file that may be larger than a single [MappedByteBuffer], in
+ * chunks of [chunkSize] bytes each mapped with [overlap] more bytes, so that anything of up to [overlap] bytes
+ * starting in a chunk can be read from it.
+ */
+internal class MappedSegments(channel: FileChannel, val size: Long, private val chunkSize: Long, overlap: Long) {
+
+    private val chunks: Array<MappedByteBuffer> = Array(((size + chunkSize - 1) / chunkSize).toInt()) {
+        val start = it * chunkSize
+        channel.map(FileChannel.MapMode.READ_ONLY, start, minOf(size - start, chunkSize + overlap))
+    }
+
+    fun getInt(position: Long): Int = chunks[(position / chunkSize).toInt()].getInt((position % chunkSize).toInt())
+
+    fun getLong(position: Long): Long = chunks[(position / chunkSize).toInt()].getLong((position % chunkSize).toInt())
+
+    fun slice(position: Long, length: Int): ByteBuffer {
+        val ret = chunks[(position / chunkSize).toInt()].duplicate()
+        val start = (position % chunkSize).toInt()
+        (ret as Buffer).position(start)
+        (ret as Buffer).limit(start + length)
+        return ret.slice().asReadOnlyBuffer()
+    }
+}
@@ -0,0 +1,203 @@
+package com.nftco.flow.sdk.archive
+
+import java.io.IOException
+import java.util.zip.DataFormatException
+import java.util.zip.Deflater
+import java.util.zip.Inflater
+
+// Layout of an event archive:
+//
+// file:      MAGIC (4) | VERSION (4) | row group* | directory | directory length (4) | MAGIC (4)
+// row group: column chunk for each of the columns below but the payloads, in order, then payload page count (varint)
+//            and the payload pages
+// chunk:     raw length (varint) | compressed length (varint) | deflated column
+// page:      row count (varint) | chunk of the payloads of these rows
+// directory: row group count (varint) then for each: offset, length, min height, max height, block count,
+//            event count (varints) and its event types (varint count then strings)
+//
+// Varints are unsigned LEB128, signed values are zigzag encoded, strings are a varint length and UTF-8 bytes.
+// Events refer to the blocks and event types of their row group by index, so that a reader can tell from the
+// directory which row groups hold the types it wants and, in those, which rows, before inflating any payload.
+// Payloads are paged so that only the pages holding selected rows are inflated.
+
+internal const val EVENT_ARCHIVE_MAGIC = 0x46455641 // "FEVA"
+internal const val EVENT_ARCHIVE_VERSION = 1
+
+internal const val COLUMN_BLOCK_HEIGHT = 0 // signed delta from the previous block
+internal const val COLUMN_BLOCK_ID = 1 // 32 bytes
+internal const val COLUMN_BLOCK_TIMESTAMP = 2 // signed delta of epoch seconds, then nanos
+internal const val COLUMN_EVENT_BLOCK = 3 // delta of the block index from the previous event
+internal const val COLUMN_EVENT_TYPE = 4 // index in the types of the row group
+internal const val COLUMN_EVENT_TRANSACTION = 5 // 0 when the same as the previous event, else 1 then 32 bytes
+internal const val COLUMN_EVENT_INDEXES = 6 // transaction index then event index
+internal const val COLUMN_EVENT_PAYLOAD_LENGTH = 7
+internal const val COLUMN_EVENT_PAYLOAD = 8 // in pages
+internal const val COLUMN_COUNT = 9
+
+internal const val PAYLOAD_PAGE_SIZE = 64 * 1024 // raw size after which a page of payloads is closed
+
+/**
+ * A growable byte array with the varint encodings of the event archive.
+ */
+internal class ColumnOutput(initialSize: Int = 256) {
+
+    var bytes = ByteArray(initialSize)
+        private set
+
+    var size = 0
+        private set
+
+    fun writeByte(b: Int) {
+        ensure(1)
+        bytes[size++] = b.toByte()
+    }
+
+    fun writeBytes(src: ByteArray, offset: Int = 0, length: Int = src.size) {
+        ensure(length)
+        System.arraycopy(src, offset, bytes, size, length)
+        size += length
+    }
+
+    fun writeVarLong(value: Long) {
+        ensure(10)
+        var v = value
+        while (v and 0x7fL.inv() != 0L) {
+            bytes[size++] = ((v and 0x7f) or 0x80).toByte()
+            v = v ushr 7
+        }
+        bytes[size++] = v.toByte()
+    }
+
+    fun writeSignedVarLong(value: Long) = writeVarLong((value shl 1) xor (value shr 63))
+
+    fun writeString(value: String) {
+        val utf8 = value.toByteArray(Charsets.UTF_8)
+        writeVarLong(utf8.size.toLong())
+        writeBytes(utf8)
+    }
+
+    /**
+     * Appends [column] as a chunk deflated with [deflater].
+     */
+    fun writeChunk(column: ColumnOutput, deflater: Deflater) {
+        deflater.reset()
+        deflater.setInput(column.bytes, 0, column.size)
+        deflater.finish()
+        var compressed = ByteArray(maxOf(64, column.size / 2))
+        var length = 0
+        while (!deflater.finished()) {
+            if (length == compressed.size) {
+                compressed = compressed.copyOf(compressed.size * 2)
+            }
+            length += deflater.deflate(compressed, length, compressed.size - length)
+        }
+        writeVarLong(column.size.toLong())
+        writeVarLong(length.toLong())
+        writeBytes(compressed, 0, length)
+    }
+
+    fun reset() {
+        size = 0
+    }
+
+    private fun ensure(n: Int) {
+        if (size + n > bytes.size) {
+            bytes = bytes.copyOf(maxOf(bytes.size * 2, size + n))
+        }
+    }
+}
+
+/**
+ * Reads what [ColumnOutput] writes, throwing [IOException] on malformed input.
+ */
+internal class ColumnInput(private val bytes: ByteArray, var position: Int = 0, private val limit: Int = bytes.size) {
+
+    val hasRemaining: Boolean get() = position < limit
+
+    fun readByte(): Int {
+        if (position >= limit) {
+            throw IOException("unexpected end of column")
+        }
+        return bytes[position++].toInt() and 0xff
+    }
+
+    fun readVarLong(): Long {
+        var ret = 0L
+        var shift = 0
+        while (true) {
+            val b = readByte()
+            ret = ret or ((b and 0x7f).toLong() shl shift)
+            if (b and 0x80 == 0) {
+                return ret
+            }
+            shift += 7
+            if (shift > 63) {
+                throw IOException("malformed varint")
+            }
+        }
+    }
+
+    fun readVarInt(): Int {
+        val ret = readVarLong()
+        if (ret < 0 || ret > Int.MAX_VALUE) {
+            throw IOException("malformed varint")
+        }
+        return ret.toInt()
+    }
+
+    fun readSignedVarLong(): Long {
+        val v = readVarLong()
+        return (v ushr 1) xor -(v and 1)
+    }
+
+    fun readBytes(n: Int): ByteArray {
+        if (n < 0 || position + n > limit) {
+            throw IOException("unexpected end of column")
+        }
+        val ret = bytes.copyOfRange(position, position + n)
+        position += n
+        return ret
+    }
+
+    fun readString(): String {
+        val n = readVarInt()
+        if (position + n > limit) {
+            throw IOException("unexpected end of column")
+        }
+        val ret = String(bytes, position, n, Charsets.UTF_8)
+        position += n
+        return ret
+    }
+
+    /**
+     * Reads the next chunk, inflating it with [inflater] unless [skip] is set.
+     */
+    fun readChunk(inflater: Inflater, skip: Boolean = false): ColumnInput? {
+        val rawLength = readVarInt()
+        val length = readVarInt()
+        if (position + length > limit) {
+            throw IOException("unexpected end of row group")
+        }
+        val start = position
+        position += length
+        if (skip) {
+            return null
+        }
+        inflater.reset()
+        inflater.setInput(bytes, start, length)
+        val raw = ByteArray(rawLength)
+        var done = 0
+        try {
+            while (done < rawLength) {
+                val n = inflater.inflate(raw, done, rawLength - done)
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw IOException("truncated column")
+                }
+                done += n
+            }
+        } catch (e: DataFormatException) {
+            throw IOException("malformed column", e)
+        }
+        return ColumnInput(raw)
+    }
+}
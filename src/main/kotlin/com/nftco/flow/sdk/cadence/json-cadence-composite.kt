@@ -0,0 +1,316 @@
+package com.nftco.flow.sdk.cadence
+
+import com.nftco.flow.sdk.FlowAddress
+import java.lang.reflect.Constructor
+import java.lang.reflect.InvocationTargetException
+import java.math.BigDecimal
+import java.math.BigInteger
+import kotlin.reflect.KClass
+import kotlin.reflect.KFunction
+import kotlin.reflect.KParameter
+import kotlin.reflect.KType
+import kotlin.reflect.full.findAnnotation
+import kotlin.reflect.full.isSubclassOf
+import kotlin.reflect.full.memberProperties
+import kotlin.reflect.full.primaryConstructor
+import kotlin.reflect.jvm.isAccessible
+import kotlin.reflect.jvm.javaConstructor
+import kotlin.reflect.jvm.javaField
+import kotlin.reflect.jvm.javaGetter
+
+/**
+ * Marks a class whose constructor parameters map one-to-one onto the fields of a cadence composite. Classes
+ * carrying this annotation don't need a hand-written [JsonCadenceConverter], [JsonCadenceMarshalling] generates
+ * one the first time the class is seen.
+ */
+@MustBeDocumented
+@Target(AnnotationTarget.CLASS)
+@Retention(AnnotationRetention.RUNTIME)
+annotation class JsonCadenceComposite(
+    val kind: String = TYPE_STRUCT,
+    val typeName: String = ""
+)
+
+/**
+ * Overrides the composite field name and/or the cadence number type of a [JsonCadenceComposite] constructor parameter.
+ */
+@MustBeDocumented
+@Target(AnnotationTarget.VALUE_PARAMETER)
+@Retention(AnnotationRetention.RUNTIME)
+annotation class JsonCadenceField(
+    val name: String = "",
+    val type: String = ""
+)
+
+/**
+ * A [JsonCadenceConverter] for [JsonCadenceComposite] classes. All reflection happens once in [of], after that
+ * composite fields are matched to constructor parameters by position using a layout that is cached per converter.
+ */
+class CompositeJsonCadenceConverter<T : Any> private constructor(
+    private val type: KClass<T>,
+    private val kind: String,
+    private val typeName: String,
+    private val kConstructor: KFunction<T>,
+    private val constructor: Constructor<T>,
+    private val names: Array<String>,
+    private val codecs: Array<CompositeValueCodec>,
+    private val accessors: Array<(Any) -> Any?>
+) : JsonCadenceConverter<T> {
+
+    companion object {
+        @JvmStatic
+        fun <T : Any> of(type: KClass<T>): CompositeJsonCadenceConverter<T> {
+            val annotation = type.java.getAnnotation(JsonCadenceComposite::class.java)
+                ?: throw IllegalArgumentException("${type.simpleName} is not annotated with JsonCadenceComposite")
+            val kConstructor = type.primaryConstructor
+                ?: type.constructors.singleOrNull()
+                ?: throw IllegalArgumentException("${type.simpleName} must have a primary constructor or a single constructor")
+            kConstructor.isAccessible = true
+            val constructor = kConstructor.javaConstructor
+                ?: throw IllegalArgumentException("${type.simpleName} has no usable constructor")
+            constructor.isAccessible = true
+
+            val parameters = kConstructor.parameters
+            val properties = type.memberProperties
+            val names = Array(parameters.size) { i ->
+                val parameter = parameters[i]
+                parameter.findAnnotation<JsonCadenceField>()?.name?.ifEmpty { null }
+                    ?: parameter.name
+                    ?: throw IllegalArgumentException("Parameter $i of ${type.simpleName} has no name, annotate it with JsonCadenceField")
+            }
+            val codecs = Array(parameters.size) { i ->
+                val parameter = parameters[i]
+                CompositeValueCodecs.forType(parameter.type, parameter.findAnnotation<JsonCadenceField>()?.type ?: "")
+            }
+            val accessors = Array(parameters.size) { i ->
+                val parameter = parameters[i]
+                val property = properties.find { it.name == parameter.name }
+                    ?: throw IllegalArgumentException("${type.simpleName} has no property for constructor parameter ${parameter.name}")
+                val getter = property.javaGetter
+                val field = property.javaField
+                when {
+                    getter != null -> {
+                        getter.isAccessible = true
+                        val accessor: (Any) -> Any? = { getter.invoke(it) }
+                        accessor
+                    }
+                    field != null -> {
+                        field.isAccessible = true
+                        val accessor: (Any) -> Any? = { field.get(it) }
+                        accessor
+                    }
+                    else -> throw IllegalArgumentException("Property ${property.name} of ${type.simpleName} cannot be read")
+                }
+            }
+            return CompositeJsonCadenceConverter(
+                type = type,
+                kind = annotation.kind,
+                typeName = annotation.typeName.ifEmpty { type.java.simpleName },
+                kConstructor = kConstructor,
+                constructor = constructor,
+                names = names,
+                codecs = codecs,
+                accessors = accessors
+            )
+        }
+    }
+
+    private class Layout(
+        val names: Array<String>,
+        val indices: IntArray,
+        val missing: IntArray
+    ) {
+        fun matches(fields: Array<CompositeAttribute>): Boolean {
+            if (fields.size != names.size) {
+                return false
+            }
+            for (i in fields.indices) {
+                if (fields[i].name != names[i]) {
+                    return false
+                }
+            }
+            return true
+        }
+    }
+
+    @Volatile
+    private var layout: Layout? = null
+
+    private fun layoutOf(fields: Array<CompositeAttribute>): Layout {
+        val current = layout
+        if (current != null && current.matches(fields)) {
+            return current
+        }
+        val indices = IntArray(fields.size) { names.indexOf(fields[it].name) }
+        val missing = names.indices.filter { index -> indices.none { it == index } }.toIntArray()
+        val ret = Layout(Array(fields.size) { fields[it].name }, indices, missing)
+        layout = ret
+        return ret
+    }
+
+    override fun unmarshall(value: Field<*>, namespace: CadenceNamespace): T {
+        val composite = (value as? CompositeField)?.value
+            ?: throw IllegalArgumentException("Expected a composite for ${type.simpleName} but found ${value.type}")
+        val fields = composite.fields
+        val layout = layoutOf(fields)
+        val args = arrayOfNulls<Any>(codecs.size)
+        for (i in fields.indices) {
+            val index = layout.indices[i]
+            if (index >= 0) {
+                args[index] = codecs[index].read(fields[i].value, namespace)
+            }
+        }
+        if (layout.missing.isNotEmpty()) {
+            return newInstanceWithDefaults(args, layout.missing)
+        }
+        return try {
+            constructor.newInstance(*args)
+        } catch (e: InvocationTargetException) {
+            throw e.targetException
+        }
+    }
+
+    private fun newInstanceWithDefaults(args: Array<Any?>, missing: IntArray): T {
+        val parameters = kConstructor.parameters
+        val arguments = HashMap<KParameter, Any?>(parameters.size)
+        for (i in parameters.indices) {
+            val parameter = parameters[i]
+            if (i !in missing) {
+                arguments[parameter] = args[i]
+            } else if (!parameter.isOptional) {
+                check(parameter.type.isMarkedNullable) { "Value for ${names[i]} not found" }
+                arguments[parameter] = null
+            }
+        }
+        return kConstructor.callBy(arguments)
+    }
+
+    override fun marshall(value: T, namespace: CadenceNamespace): Field<*> {
+        val attributes = Array(names.size) {
+            CompositeAttribute(names[it], codecs[it].write(accessors[it](value), namespace))
+        }
+        val composite = CompositeValue(namespace.withNamespace(typeName), attributes)
+        return when (kind) {
+            TYPE_RESOURCE -> ResourceField(composite)
+            TYPE_EVENT -> EventField(composite)
+            TYPE_CONTRACT -> ContractField(composite)
+            else -> StructField(composite)
+        }
+    }
+}
+
+internal interface CompositeValueCodec {
+    fun read(field: Field<*>, namespace: CadenceNamespace): Any?
+    fun write(value: Any?, namespace: CadenceNamespace): Field<*>
+}
+
+private class FunctionCodec(
+    private val reader: (Field<*>, CadenceNamespace) -> Any?,
+    private val writer: (Any, CadenceNamespace) -> Field<*>
+) : CompositeValueCodec {
+    override fun read(field: Field<*>, namespace: CadenceNamespace): Any? = reader(field, namespace)
+    override fun write(value: Any?, namespace: CadenceNamespace): Field<*> = writer(requireNotNull(value) { "Value for a non optional field is null" }, namespace)
+}
+
+private class OptionalCodec(
+    private val delegate: CompositeValueCodec
+) : CompositeValueCodec {
+    override fun read(field: Field<*>, namespace: CadenceNamespace): Any? = if (field is OptionalField) {
+        field.value?.let { delegate.read(it, namespace) }
+    } else {
+        delegate.read(field, namespace)
+    }
+    override fun write(value: Any?, namespace: CadenceNamespace): Field<*> = OptionalField(value?.let { delegate.write(it, namespace) })
+}
+
+private class NestedCodec(
+    private val type: KClass<Any>
+) : CompositeValueCodec {
+    override fun read(field: Field<*>, namespace: CadenceNamespace): Any? = JsonCadenceMarshalling.unmarshall(type, field, namespace)
+    override fun write(value: Any?, namespace: CadenceNamespace): Field<*> = JsonCadenceMarshalling.marshall(requireNotNull(value), type, namespace)
+}
+
+internal object CompositeValueCodecs {
+
+    private val builder = JsonCadenceBuilder()
+    private val parser = JsonCadenceParser()
+
+    fun forType(type: KType, cadenceType: String): CompositeValueCodec {
+        val codec = forClassifier(type, cadenceType)
+        return if (type.isMarkedNullable) {
+            OptionalCodec(codec)
+        } else {
+            codec
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun forClassifier(type: KType, cadenceType: String): CompositeValueCodec {
+        val klass = type.classifier as? KClass<*>
+            ?: throw IllegalArgumentException("Unsupported composite field type $type")
+        return when {
+            klass == Boolean::class -> FunctionCodec({ f, _ -> parser.boolean(f) }) { v, _ -> builder.boolean(v as Boolean) }
+            klass == String::class -> FunctionCodec({ f, _ -> parser.string(f) }) { v, _ -> builder.string(v as String) }
+            klass == Byte::class -> number(cadenceType.ifEmpty { TYPE_INT8 }) { it.toByte()!! }
+            klass == Short::class -> number(cadenceType.ifEmpty { TYPE_INT16 }) { it.toShort()!! }
+            klass == Int::class -> number(cadenceType.ifEmpty { TYPE_INT32 }) { it.toInt()!! }
+            klass == Long::class -> number(cadenceType.ifEmpty { TYPE_INT64 }) { it.toLong()!! }
+            klass == BigInteger::class -> number(cadenceType.ifEmpty { TYPE_INT }) { it.toBigInteger()!! }
+            klass == Float::class -> number(cadenceType.ifEmpty { TYPE_FIX64 }) { it.toFloat()!! }
+            klass == Double::class -> number(cadenceType.ifEmpty { TYPE_FIX64 }) { it.toDouble()!! }
+            klass == BigDecimal::class -> number(cadenceType.ifEmpty { TYPE_UFIX64 }) { it.toBigDecimal()!! }
+            klass == FlowAddress::class -> FunctionCodec({ f, _ -> FlowAddress(parser.address(f)) }) { v, _ -> builder.address(v as FlowAddress) }
+            klass == ByteArray::class -> FunctionCodec({ f, _ -> parser.byteArray(f) }) { v, _ -> builder.byteArray(v as ByteArray) }
+            klass.java.isEnum -> enum(klass.java)
+            klass == List::class || klass == Collection::class || klass == Iterable::class -> collection(type, cadenceType, false)
+            klass == Set::class -> collection(type, cadenceType, true)
+            klass == Map::class -> map(type, cadenceType)
+            klass.isSubclassOf(Field::class) -> FunctionCodec({ f, _ -> f }) { v, _ -> v as Field<*> }
+            else -> NestedCodec(klass as KClass<Any>)
+        }
+    }
+
+    private fun number(cadenceType: String, reader: (NumberField) -> Any): CompositeValueCodec = FunctionCodec(
+        { f, _ -> reader(f as NumberField) },
+        { v, _ -> builder.number(cadenceType, v as Number) }
+    )
+
+    private fun enum(type: Class<*>): CompositeValueCodec {
+        val constants = type.enumConstants
+        val name = type.simpleName
+        return FunctionCodec(
+            { f, _ -> constants[(f as CompositeField).value!!.getRequiredField<NumberField>("rawValue").toInt()!!] },
+            { v, ns -> builder.enum(ns.withNamespace(name), builder.uint8((v as Enum<*>).ordinal)) }
+        )
+    }
+
+    private fun collection(type: KType, cadenceType: String, set: Boolean): CompositeValueCodec {
+        val element = type.arguments.firstOrNull()?.type
+            ?: throw IllegalArgumentException("Unsupported composite field type $type")
+        val codec = forType(element, cadenceType)
+        return FunctionCodec(
+            { f, ns ->
+                val values = (f as ArrayField).value!!.map { codec.read(it, ns) }
+                if (set) {
+                    values.toSet()
+                } else {
+                    values
+                }
+            },
+            { v, ns -> ArrayField((v as Iterable<*>).map { codec.write(it, ns) }) }
+        )
+    }
+
+    private fun map(type: KType, cadenceType: String): CompositeValueCodec {
+        val keyType = type.arguments.getOrNull(0)?.type
+            ?: throw IllegalArgumentException("Unsupported composite field type $type")
+        val valueType = type.arguments.getOrNull(1)?.type
+            ?: throw IllegalArgumentException("Unsupported composite field type $type")
+        val keys = forType(keyType, "")
+        val values = forType(valueType, cadenceType)
+        return FunctionCodec(
+            { f, ns -> (f as DictionaryField).value!!.associate { keys.read(it.key, ns) to values.read(it.value, ns) } },
+            { v, ns -> DictionaryField((v as Map<*, *>).map { DictionaryFieldEntry(keys.write(it.key, ns), values.write(it.value, ns)) }) }
+        )
+    }
+}
@@ -3,9 +3,14 @@ package com.nftco.flow.sdk.cadence
 import com.nftco.flow.sdk.Flow
 import com.nftco.flow.sdk.FlowAddress
 import com.nftco.flow.sdk.cadence.CadenceNamespace.Companion.ns
+import com.nftco.flow.sdk.metrics.FlowInstrumentation
+import com.nftco.flow.sdk.metrics.FlowStage
 import java.lang.annotation.Inherited
 import java.math.BigDecimal
 import java.math.BigInteger
+import java.math.RoundingMode
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
 import kotlin.reflect.KClass
 import kotlin.reflect.full.createInstance
 
@@ -65,53 +70,61 @@ interface JsonCadenceConverter<T> {
 
 object JsonCadenceMarshalling {
 
-    private val MARSHALLER_CACHE_JSON: MutableMap<KClass<*>, JsonCadenceConverter<*>> = mutableMapOf()
+    private val MARSHALLER_CACHE_JSON: ConcurrentMap<KClass<*>, JsonCadenceConverter<*>> = ConcurrentHashMap()
 
     @JvmStatic
     @JvmOverloads
-    @Synchronized
     @Suppress("UNCHECKED_CAST")
     fun <T : Any> getSerializer(type: KClass<out T>, cache: Boolean = true): JsonCadenceConverter<T> {
-        var ret = if (cache) {
-            MARSHALLER_CACHE_JSON[type]
-        } else {
-            null
+        if (cache) {
+            val cached = MARSHALLER_CACHE_JSON[type]
+            if (cached != null) {
+                return cached as JsonCadenceConverter<T>
+            }
         }
-        if (ret == null) {
-            ret = type.annotations
-                .find { it is JsonCadenceConversion }
-                ?.let { it as JsonCadenceConversion }
-                ?.converter
-                ?.createInstance()
-        }
-        if (ret != null && cache) {
-            MARSHALLER_CACHE_JSON[type] = ret
-        } else if (ret == null) {
-            throw IllegalArgumentException("No JsonCadenceSerializer found for ${type.simpleName}")
+        val ret = createSerializer(type)
+            ?: throw IllegalArgumentException("No JsonCadenceSerializer found for ${type.simpleName}")
+        if (cache) {
+            return (MARSHALLER_CACHE_JSON.putIfAbsent(type, ret) ?: ret) as JsonCadenceConverter<T>
         }
         return ret as JsonCadenceConverter<T>
     }
 
+    private fun createSerializer(type: KClass<*>): JsonCadenceConverter<*>? {
+        val conversion = type.java.getAnnotation(JsonCadenceConversion::class.java)
+        if (conversion != null) {
+            return conversion.converter.objectInstance ?: conversion.converter.createInstance()
+        }
+        if (type.java.isAnnotationPresent(JsonCadenceComposite::class.java)) {
+            return CompositeJsonCadenceConverter.of(type)
+        }
+        return null
+    }
+
     @JvmStatic
-    fun <T : Any> unmarshall(type: KClass<T>, value: Field<*>, namespace: FlowAddress): T = getSerializer(type).unmarshall(value, ns(namespace))
+    fun <T : Any> unmarshall(type: KClass<T>, value: Field<*>, namespace: FlowAddress): T = unmarshall(type, value, ns(namespace))
 
     @JvmStatic
     @JvmOverloads
-    fun <T : Any> unmarshall(type: KClass<T>, value: Field<*>, namespace: CadenceNamespace = CadenceNamespace()): T = getSerializer(type).unmarshall(value, namespace)
+    fun <T : Any> unmarshall(type: KClass<T>, value: Field<*>, namespace: CadenceNamespace = CadenceNamespace()): T = FlowInstrumentation.measure(FlowStage.UNMARSHALL) {
+        getSerializer(type).unmarshall(value, namespace)
+    }
 
     @JvmStatic
-    fun <T : Any> marshall(value: T, clazz: KClass<out T>, namespace: FlowAddress): Field<*> = getSerializer(clazz).marshall(value, ns(namespace))
+    fun <T : Any> marshall(value: T, clazz: KClass<out T>, namespace: FlowAddress): Field<*> = marshall(value, clazz, ns(namespace))
 
     @JvmStatic
     @JvmOverloads
-    fun <T : Any> marshall(value: T, clazz: KClass<out T>, namespace: CadenceNamespace = CadenceNamespace()): Field<*> = getSerializer(clazz).marshall(value, namespace)
+    fun <T : Any> marshall(value: T, clazz: KClass<out T>, namespace: CadenceNamespace = CadenceNamespace()): Field<*> = FlowInstrumentation.measure(FlowStage.MARSHALL) {
+        getSerializer(clazz).marshall(value, namespace)
+    }
 
     @JvmStatic
-    fun <T : Any> marshall(value: T, namespace: FlowAddress): Field<*> = getSerializer(value::class).marshall(value, ns(namespace))
+    fun <T : Any> marshall(value: T, namespace: FlowAddress): Field<*> = marshall(value, value::class, ns(namespace))
 
     @JvmStatic
     @JvmOverloads
-    fun <T : Any> marshall(value: T, namespace: CadenceNamespace = CadenceNamespace()): Field<*> = getSerializer(value::class).marshall(value, namespace)
+    fun <T : Any> marshall(value: T, namespace: CadenceNamespace = CadenceNamespace()): Field<*> = marshall(value, value::class, namespace)
 }
 
 fun <T : Field<*>> marshall(block: JsonCadenceBuilder.() -> T): T = block(JsonCadenceBuilder())
@@ -128,8 +141,8 @@ class JsonCadenceBuilder {
     fun array(value: Iterable<Field<*>>): ArrayField = ArrayField(value)
     fun <T> array(value: Iterable<T>, mapper: JsonCadenceBuilder.(T) -> Field<*>): ArrayField = ArrayField(value.map { mapper(it) })
     fun array(block: JsonCadenceBuilder.() -> Iterable<Field<*>>): ArrayField = ArrayField(block().toList().toTypedArray())
-    fun byteArray(value: Array<UByte>): ArrayField = ArrayField(value.map { uint8(it) })
-    fun byteArray(value: ByteArray): ArrayField = byteArray(value.map { it.toUByte() }.toTypedArray())
+    fun byteArray(value: Array<UByte>): ArrayField = ByteArrayField(ByteArray(value.size) { value[it].toByte() })
+    fun byteArray(value: ByteArray): ArrayField = ByteArrayField(value.copyOf())
     fun dictionary(value: Iterable<DictionaryFieldEntry>): DictionaryField = DictionaryField(value)
     fun dictionary(block: JsonCadenceBuilder.() -> Array<DictionaryFieldEntry>): DictionaryField = DictionaryField(block().toList().toTypedArray())
     fun dictionaryOfMap(block: JsonCadenceBuilder.() -> Map<Field<*>, Field<*>>): DictionaryField = DictionaryField(block().map { DictionaryFieldEntry(it.key, it.value) })
@@ -163,32 +176,58 @@ class JsonCadenceBuilder {
     fun enum(value: CompositeValue): EnumField = EnumField(value)
     fun enum(block: JsonCadenceBuilder.() -> CompositeValue): EnumField = EnumField(block())
     fun enum(id: String, value: Field<*>): EnumField = EnumField(compositeOfPairs(id) { listOf("rawValue" to value) })
-    fun number(type: String, value: String): NumberField = NumberField(type, value)
-    fun number(type: String, value: Number): NumberField = NumberField(type, value.toString())
-    fun int(value: Number): IntNumberField = IntNumberField(value.toString())
-    fun uint(value: Number): UIntNumberField = UIntNumberField(value.toString())
-    fun int8(value: Number): Int8NumberField = Int8NumberField(value.toString())
-    fun uint8(value: Number): UInt8NumberField = UInt8NumberField(value.toString())
+    fun number(type: String, value: String): NumberField = when (type) {
+        TYPE_INT -> int(value)
+        TYPE_UINT -> uint(value)
+        TYPE_INT8 -> int8(value)
+        TYPE_UINT8 -> uint8(value)
+        TYPE_INT16 -> int16(value)
+        TYPE_UINT16 -> uint16(value)
+        TYPE_INT32 -> int32(value)
+        TYPE_UINT32 -> uint32(value)
+        TYPE_INT64 -> int64(value)
+        TYPE_UINT64 -> uint64(value)
+        TYPE_INT128 -> int128(value)
+        TYPE_UINT128 -> uint128(value)
+        TYPE_INT256 -> int256(value)
+        TYPE_UINT256 -> uint256(value)
+        TYPE_WORD8 -> word8(value)
+        TYPE_WORD16 -> word16(value)
+        TYPE_WORD32 -> word32(value)
+        TYPE_WORD64 -> word64(value)
+        TYPE_FIX64 -> Fix64NumberField(value)
+        TYPE_UFIX64 -> UFix64NumberField(value)
+        else -> NumberField(type, value)
+    }
+    fun number(type: String, value: Number): NumberField = when (type) {
+        TYPE_FIX64 -> fix64(value)
+        TYPE_UFIX64 -> ufix64(value)
+        else -> number(type, value.toString()).primed(value)
+    }
+    fun int(value: Number): IntNumberField = IntNumberField(value.toString()).primed(value)
+    fun uint(value: Number): UIntNumberField = UIntNumberField(value.toString()).primed(value)
+    fun int8(value: Number): Int8NumberField = Int8NumberField(value.toString()).primed(value)
+    fun uint8(value: Number): UInt8NumberField = UInt8NumberField(value.toString()).primed(value)
     fun uint8(value: UByte): UInt8NumberField = UInt8NumberField(value.toString())
-    fun int16(value: Number): Int16NumberField = Int16NumberField(value.toString())
-    fun uint16(value: Number): UInt16NumberField = UInt16NumberField(value.toString())
+    fun int16(value: Number): Int16NumberField = Int16NumberField(value.toString()).primed(value)
+    fun uint16(value: Number): UInt16NumberField = UInt16NumberField(value.toString()).primed(value)
     fun uint16(value: UShort): UInt16NumberField = UInt16NumberField(value.toString())
-    fun int32(value: Number): Int32NumberField = Int32NumberField(value.toString())
-    fun uint32(value: Number): UInt32NumberField = UInt32NumberField(value.toString())
+    fun int32(value: Number): Int32NumberField = Int32NumberField(value.toString()).primed(value)
+    fun uint32(value: Number): UInt32NumberField = UInt32NumberField(value.toString()).primed(value)
     fun uint32(value: UInt): UInt64NumberField = UInt64NumberField(value.toString())
-    fun int64(value: Number): Int64NumberField = Int64NumberField(value.toString())
-    fun uint64(value: Number): UInt64NumberField = UInt64NumberField(value.toString())
+    fun int64(value: Number): Int64NumberField = Int64NumberField(value.toString()).primed(value)
+    fun uint64(value: Number): UInt64NumberField = UInt64NumberField(value.toString()).primed(value)
     fun uint64(value: ULong): UInt64NumberField = UInt64NumberField(value.toString())
-    fun int128(value: Number): Int128NumberField = Int128NumberField(value.toString())
-    fun uint128(value: Number): UInt128NumberField = UInt128NumberField(value.toString())
-    fun int256(value: Number): Int256NumberField = Int256NumberField(value.toString())
-    fun uint256(value: Number): UInt256NumberField = UInt256NumberField(value.toString())
-    fun word8(value: Number): Word8NumberField = Word8NumberField(value.toString())
-    fun word16(value: Number): Word16NumberField = Word16NumberField(value.toString())
-    fun word32(value: Number): Word32NumberField = Word32NumberField(value.toString())
-    fun word64(value: Number): Word64NumberField = Word64NumberField(value.toString())
-    fun fix64(value: Number): Fix64NumberField = Fix64NumberField("%.8f".format(BigDecimal(value.toString())))
-    fun ufix64(value: Number): UFix64NumberField = UFix64NumberField("%.8f".format(BigDecimal(value.toString())))
+    fun int128(value: Number): Int128NumberField = Int128NumberField(value.toString()).primed(value)
+    fun uint128(value: Number): UInt128NumberField = UInt128NumberField(value.toString()).primed(value)
+    fun int256(value: Number): Int256NumberField = Int256NumberField(value.toString()).primed(value)
+    fun uint256(value: Number): UInt256NumberField = UInt256NumberField(value.toString()).primed(value)
+    fun word8(value: Number): Word8NumberField = Word8NumberField(value.toString()).primed(value)
+    fun word16(value: Number): Word16NumberField = Word16NumberField(value.toString()).primed(value)
+    fun word32(value: Number): Word32NumberField = Word32NumberField(value.toString()).primed(value)
+    fun word64(value: Number): Word64NumberField = Word64NumberField(value.toString()).primed(value)
+    fun fix64(value: Number): Fix64NumberField = fixedPoint(value) { Fix64NumberField(it) }
+    fun ufix64(value: Number): UFix64NumberField = fixedPoint(value) { UFix64NumberField(it) }
     fun fix64(value: String): Fix64NumberField = fix64(BigDecimal(value))
     fun ufix64(value: String): UFix64NumberField = ufix64(BigDecimal(value))
     fun int(value: String): IntNumberField = IntNumberField(value)
@@ -209,6 +248,29 @@ class JsonCadenceBuilder {
     fun word16(value: String): Word16NumberField = Word16NumberField(value)
     fun word32(value: String): Word32NumberField = Word32NumberField(value)
     fun word64(value: String): Word64NumberField = Word64NumberField(value)
+
+    private fun <T : NumberField> T.primed(value: Number): T {
+        if (value is Long || value is Int || value is Short || value is Byte) {
+            prime(value.toLong())
+        }
+        return this
+    }
+
+    private inline fun <T : NumberField> fixedPoint(value: Number, factory: (String) -> T): T {
+        if ((value is Long || value is Int || value is Short || value is Byte) &&
+            value.toLong() in (Long.MIN_VALUE / FIXED_POINT_FACTOR)..(Long.MAX_VALUE / FIXED_POINT_FACTOR)
+        ) {
+            val scaled = value.toLong() * FIXED_POINT_FACTOR
+            return factory(formatFixedPoint(scaled)).also { it.prime(scaled) }
+        }
+        val decimal = (value as? BigDecimal ?: BigDecimal(value.toString())).setScale(FIXED_POINT_SCALE, RoundingMode.HALF_UP)
+        val unscaled = decimal.unscaledValue()
+        if (unscaled.bitLength() < Long.SIZE_BITS) {
+            val scaled = unscaled.toLong()
+            return factory(formatFixedPoint(scaled)).also { it.prime(scaled) }
+        }
+        return factory(decimal.toPlainString())
+    }
 }
 
 fun <T> unmarshall(root: Field<*>, block: JsonCadenceParser.() -> T): T {
@@ -268,7 +330,11 @@ class JsonCadenceParser {
     fun bigDecimal(field: Field<*>): BigDecimal = (field as NumberField).toBigDecimal()!!
     fun <T> array(field: Field<*>, block: JsonCadenceParser.(field: ArrayField) -> T): T = block(field as ArrayField)
     fun <T> arrayValues(field: Field<*>, mapper: JsonCadenceParser.(field: Field<*>) -> T): List<T> = (field as ArrayField).value!!.map { mapper(it) }
-    fun byteArray(field: Field<*>): ByteArray = arrayValues(field) { (it as UInt8NumberField).toByte()!! }.toByteArray()
+    fun byteArray(field: Field<*>): ByteArray = if (field is ByteArrayField) {
+        field.bytes.copyOf()
+    } else {
+        arrayValues(field) { (it as UInt8NumberField).toByte()!! }.toByteArray()
+    }
     fun <T> dictionary(field: Field<*>, block: JsonCadenceParser.(field: DictionaryField) -> T): T = block(field as DictionaryField)
     fun <K, V> dictionaryPairs(field: Field<*>, mapper: JsonCadenceParser.(key: Field<*>, value: Field<*>) -> Pair<K, V>): List<Pair<K, V>> = (field as DictionaryField).value!!.map { mapper(it.key, it.value) }
     fun <K, V> dictionaryMap(field: Field<*>, mapper: JsonCadenceParser.(key: Field<*>, value: Field<*>) -> Pair<K, V>): Map<K, V> = dictionaryPairs(field, mapper).toMap()
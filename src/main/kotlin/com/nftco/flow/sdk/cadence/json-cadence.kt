@@ -6,18 +6,27 @@ import com.fasterxml.jackson.annotation.JsonIgnore
 import com.fasterxml.jackson.annotation.JsonSubTypes
 import com.fasterxml.jackson.annotation.JsonSubTypes.Type
 import com.fasterxml.jackson.annotation.JsonTypeInfo
+import com.fasterxml.jackson.core.JsonGenerator
 import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
 import com.fasterxml.jackson.databind.DeserializationContext
 import com.fasterxml.jackson.databind.JsonDeserializer
 import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.SerializerProvider
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize
+import com.fasterxml.jackson.databind.annotation.JsonSerialize
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer
 import com.fasterxml.jackson.databind.exc.MismatchedInputException
-import com.nftco.flow.sdk.Flow
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer
+import com.fasterxml.jackson.databind.ser.std.StdSerializer
+import com.fasterxml.jackson.databind.util.TokenBuffer
 import com.nftco.flow.sdk.bytesToHex
 import java.io.Serializable
 import java.math.BigDecimal
 import java.math.BigInteger
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
+import kotlin.math.abs
 
 // https://docs.onflow.org/cadence/json-cadence-spec/#types
 
@@ -142,19 +151,43 @@ const val TYPE_CONTRACT_INTERFACE = "ContractInterface"
 )
 abstract class Field<T> constructor(
     val type: String,
-    val value: T?
+    open val value: T?
 ) : Serializable {
+
+    @Transient
+    private var hash: Int = 0
+
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
         if (other !is Field<*>) return false
-        // TODO: something better than this
-        return String(Flow.encodeJsonCadence(this)) == String(Flow.encodeJsonCadence(other))
+        return type == other.type && valueEquals(other)
     }
+
     override fun hashCode(): Int {
-        var result = type.hashCode()
-        result = 31 * result + (value?.hashCode() ?: 0)
+        var result = hash
+        if (result == 0) {
+            result = 31 * type.hashCode() + valueHashCode()
+            hash = result
+        }
         return result
     }
+
+    protected open fun valueEquals(other: Field<*>): Boolean {
+        val value = this.value
+        val otherValue = other.value
+        if (value is Array<*> && otherValue is Array<*>) {
+            return value.contentEquals(otherValue)
+        }
+        return value == otherValue
+    }
+
+    protected open fun valueHashCode(): Int {
+        val value = this.value
+        if (value is Array<*>) {
+            return value.contentHashCode()
+        }
+        return value?.hashCode() ?: 0
+    }
 }
 
 open class VoidField : Field<Void>(TYPE_VOID, null)
@@ -165,19 +198,71 @@ open class BooleanField(value: Boolean) : Field<Boolean>(TYPE_BOOLEAN, value)
 
 open class StringField(value: String) : Field<String>(TYPE_STRING, value)
 
+/**
+ * A number is kept in its JSON-Cadence string form. The first conversion also remembers it as a long (the value
+ * times 10^8 for Fix64 and UFix64) when it fits, so repeated reads don't parse the string again.
+ */
 open class NumberField(type: String, value: String) : Field<String>(type, value) {
-    fun toUByte(): UByte? = value?.toInt()?.toUByte()
-    fun toByte(): Byte? = value?.toInt()?.toByte()
-    fun toUShort(): UShort? = value?.toUShort()
-    fun toShort(): Short? = value?.toShort()
-    fun toUInt(): UInt? = value?.toUInt()
-    fun toInt(): Int? = value?.toInt()
-    fun toULong(): ULong? = value?.toULong()
-    fun toLong(): Long? = value?.toLong()
-    fun toBigInteger(): BigInteger? = value?.toBigInteger()
-    fun toFloat(): Float? = value?.toFloat()
-    fun toDouble(): Double? = value?.toDouble()
-    fun toBigDecimal(): BigDecimal? = value?.toBigDecimal()
+
+    companion object {
+        private const val UNPARSED = 0
+        private const val INTEGER = 1
+        private const val FIXED_POINT = 2
+        private const val UNCACHED = 3
+    }
+
+    @Transient
+    private var bits: Long = 0
+
+    @Volatile
+    @Transient
+    private var state: Int = UNPARSED
+
+    private val isFixedPoint: Boolean get() = type == TYPE_FIX64 || type == TYPE_UFIX64
+
+    internal fun prime(bits: Long) {
+        this.bits = bits
+        this.state = if (isFixedPoint) FIXED_POINT else INTEGER
+    }
+
+    private fun parse(): Int {
+        var state = this.state
+        if (state == UNPARSED) {
+            val text = value
+            val parsed = when {
+                text == null -> null
+                isFixedPoint -> parseFixedPoint(text)
+                else -> text.toLongOrNull()
+            }
+            if (parsed != null) {
+                prime(parsed)
+                state = this.state
+            } else {
+                state = UNCACHED
+                this.state = state
+            }
+        }
+        return state
+    }
+
+    private fun isInteger(): Boolean = parse() == INTEGER
+
+    fun toUByte(): UByte? = toInt()?.toUByte()
+    fun toByte(): Byte? = toInt()?.toByte()
+    fun toUShort(): UShort? = if (isInteger() && bits >= 0 && bits <= 0xFFFF) bits.toInt().toUShort() else value?.toUShort()
+    fun toShort(): Short? = if (isInteger() && bits >= Short.MIN_VALUE && bits <= Short.MAX_VALUE) bits.toShort() else value?.toShort()
+    fun toUInt(): UInt? = if (isInteger() && bits >= 0 && bits <= 0xFFFFFFFFL) bits.toUInt() else value?.toUInt()
+    fun toInt(): Int? = if (isInteger() && bits >= Int.MIN_VALUE && bits <= Int.MAX_VALUE) bits.toInt() else value?.toInt()
+    fun toULong(): ULong? = if (isInteger() && bits >= 0) bits.toULong() else value?.toULong()
+    fun toLong(): Long? = if (isInteger()) bits else value?.toLong()
+    fun toBigInteger(): BigInteger? = if (isInteger()) BigInteger.valueOf(bits) else value?.toBigInteger()
+    fun toFloat(): Float? = if (isInteger()) bits.toFloat() else value?.toFloat()
+    fun toDouble(): Double? = if (isInteger()) bits.toDouble() else value?.toDouble()
+    fun toBigDecimal(): BigDecimal? = when (parse()) {
+        INTEGER -> BigDecimal.valueOf(bits)
+        FIXED_POINT -> BigDecimal.valueOf(bits, FIXED_POINT_SCALE)
+        else -> value?.toBigDecimal()
+    }
 }
 open class IntNumberField(value: String) : NumberField(TYPE_INT, value)
 open class UIntNumberField(value: String) : NumberField(TYPE_UINT, value)
@@ -200,8 +285,288 @@ open class Word64NumberField(value: String) : NumberField(TYPE_WORD64, value)
 open class Fix64NumberField(value: String) : NumberField(TYPE_FIX64, value)
 open class UFix64NumberField(value: String) : NumberField(TYPE_UFIX64, value)
 
+internal const val FIXED_POINT_SCALE = 8
+internal const val FIXED_POINT_FACTOR = 100_000_000L
+
+/**
+ * Parses the canonical Fix64/UFix64 form (exactly eight fraction digits) into a long scaled by 10^8, returns null
+ * for anything else or for values that don't fit.
+ */
+internal fun parseFixedPoint(text: String): Long? {
+    val dot = text.length - FIXED_POINT_SCALE - 1
+    if (dot < 1 || text[dot] != '.') {
+        return null
+    }
+    val negative = text[0] == '-'
+    var ret = 0L
+    for (i in (if (negative) 1 else 0) until text.length) {
+        if (i == dot) {
+            continue
+        }
+        val digit = text[i] - '0'
+        if (digit < 0 || digit > 9 || ret > (Long.MAX_VALUE - digit) / 10) {
+            return null
+        }
+        ret = ret * 10 + digit
+    }
+    return if (negative) -ret else ret
+}
+
+/**
+ * Formats a long scaled by 10^8 the way Fix64/UFix64 values are written, with exactly eight fraction digits.
+ */
+internal fun formatFixedPoint(scaled: Long): String {
+    val integral = scaled / FIXED_POINT_FACTOR
+    val fraction = abs(scaled % FIXED_POINT_FACTOR)
+    val ret = StringBuilder(28)
+    if (scaled < 0) {
+        ret.append('-')
+    }
+    ret.append(abs(integral)).append('.')
+    var pad = FIXED_POINT_FACTOR / 10
+    while (pad > fraction && pad > 1) {
+        ret.append('0')
+        pad /= 10
+    }
+    return ret.append(fraction).toString()
+}
+
+@JsonDeserialize(using = ArrayFieldDeserializer::class)
 open class ArrayField(value: Array<Field<*>>) : Field<Array<Field<*>>>(TYPE_ARRAY, value) {
     constructor(value: Iterable<Field<*>>) : this(value.toList().toTypedArray())
+
+    override fun valueEquals(other: Field<*>): Boolean {
+        if (other is ByteArrayField) {
+            return other.sameContent(this)
+        }
+        return super.valueEquals(other)
+    }
+}
+
+/**
+ * A `[UInt8]` array backed by a single byte array. It serializes straight to (and is produced straight from) the
+ * JSON-Cadence array form, the `UInt8NumberField` elements are only created if [value] is read.
+ */
+@JsonSerialize(using = ByteArrayFieldSerializer::class)
+open class ByteArrayField(val bytes: ByteArray) : ArrayField(emptyArray()) {
+
+    companion object {
+        internal val UINT8_VALUES: Array<String> = Array(256) { it.toString() }
+        private val UINT8_HASHES: IntArray = IntArray(256) { UInt8NumberField(UINT8_VALUES[it]).hashCode() }
+
+        /**
+         * Returns the byte for a canonical `UInt8` value ("0" to "255"), or -1.
+         */
+        internal fun parseUInt8(value: String): Int {
+            if (value.isEmpty() || value.length > 3 || (value.length > 1 && value[0] == '0')) {
+                return -1
+            }
+            var ret = 0
+            for (c in value) {
+                if (c < '0' || c > '9') {
+                    return -1
+                }
+                ret = ret * 10 + (c - '0')
+            }
+            return if (ret <= 255) ret else -1
+        }
+    }
+
+    @Volatile
+    @Transient
+    private var fields: Array<Field<*>>? = null
+
+    override val value: Array<Field<*>>?
+        get() {
+            var ret = fields
+            if (ret == null) {
+                ret = Array(bytes.size) { UInt8NumberField(UINT8_VALUES[bytes[it].toInt() and 0xFF]) }
+                fields = ret
+            }
+            return ret
+        }
+
+    internal fun sameContent(other: ArrayField): Boolean {
+        if (other is ByteArrayField) {
+            return bytes.contentEquals(other.bytes)
+        }
+        val values = other.value ?: return false
+        if (values.size != bytes.size) {
+            return false
+        }
+        for (i in values.indices) {
+            val element = values[i]
+            if (element.type != TYPE_UINT8 || element.value != UINT8_VALUES[bytes[i].toInt() and 0xFF]) {
+                return false
+            }
+        }
+        return true
+    }
+
+    override fun valueEquals(other: Field<*>): Boolean = other is ArrayField && sameContent(other)
+
+    override fun valueHashCode(): Int {
+        var ret = 1
+        for (b in bytes) {
+            ret = 31 * ret + UINT8_HASHES[b.toInt() and 0xFF]
+        }
+        return ret
+    }
+}
+
+class ByteArrayFieldSerializer : StdSerializer<ByteArrayField>(ByteArrayField::class.java) {
+
+    override fun serialize(value: ByteArrayField, gen: JsonGenerator, provider: SerializerProvider) {
+        gen.writeStartObject()
+        gen.writeStringField("type", TYPE_ARRAY)
+        gen.writeFieldName("value")
+        gen.writeStartArray()
+        for (b in value.bytes) {
+            gen.writeStartObject()
+            gen.writeStringField("type", TYPE_UINT8)
+            gen.writeStringField("value", ByteArrayField.UINT8_VALUES[b.toInt() and 0xFF])
+            gen.writeEndObject()
+        }
+        gen.writeEndArray()
+        gen.writeEndObject()
+    }
+
+    // the type id is an existing property, which serialize already writes
+    override fun serializeWithType(value: ByteArrayField, gen: JsonGenerator, serializers: SerializerProvider, typeSer: TypeSerializer) {
+        serialize(value, gen, serializers)
+    }
+}
+
+/**
+ * Reads arrays element by element, collecting canonical `UInt8` elements into a byte array and only building
+ * fields once an element of another type shows up. Arrays made only of bytes become a [ByteArrayField].
+ */
+class ArrayFieldDeserializer : StdDeserializer<ArrayField>(ArrayField::class.java) {
+
+    override fun deserialize(p: JsonParser, ctxt: DeserializationContext): ArrayField {
+        var token = p.currentToken
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken()
+        }
+        var ret: ArrayField? = null
+        while (token == JsonToken.FIELD_NAME) {
+            val name = p.currentName
+            p.nextToken()
+            if (name == "value") {
+                ret = readValues(p, ctxt)
+            } else {
+                p.skipChildren()
+            }
+            token = p.nextToken()
+        }
+        return ret ?: throw MismatchedInputException.from(p, ArrayField::class.java, "value not specified for Array")
+    }
+
+    private fun readValues(p: JsonParser, ctxt: DeserializationContext): ArrayField {
+        if (p.currentToken != JsonToken.START_ARRAY) {
+            throw MismatchedInputException.from(p, ArrayField::class.java, "Expected array for Array value, found ${p.currentToken}")
+        }
+        var bytes = ByteArray(16)
+        var size = 0
+        var fields: MutableList<Field<*>>? = null
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            // once an element isn't a byte the others go straight through the polymorphic deserialization
+            if (fields != null) {
+                fields.add(ctxt.readValue(p, Field::class.java))
+                continue
+            }
+
+            var type: String? = null
+            var value: String? = null
+            var element: Field<*>? = null
+            if (p.currentToken == JsonToken.START_OBJECT) {
+                var token = p.nextToken()
+                while (token == JsonToken.FIELD_NAME) {
+                    val name = p.currentName
+                    token = p.nextToken()
+                    if (token != JsonToken.VALUE_STRING || (name != "type" && name != "value")) {
+                        element = readRemainder(p, ctxt, type, value, name)
+                        break
+                    }
+                    if (name == "type") {
+                        type = p.text
+                        if (type != TYPE_UINT8) {
+                            element = readRemainder(p, ctxt, type, value, null)
+                            break
+                        }
+                    } else {
+                        value = p.text
+                    }
+                    token = p.nextToken()
+                }
+            } else {
+                element = ctxt.readValue(p, Field::class.java)
+            }
+
+            if (element == null && type == TYPE_UINT8 && value != null) {
+                val b = ByteArrayField.parseUInt8(value)
+                if (b >= 0) {
+                    if (size == bytes.size) {
+                        bytes = bytes.copyOf(size * 2)
+                    }
+                    bytes[size++] = b.toByte()
+                    continue
+                }
+            }
+            fields = ArrayList(size + 16)
+            for (i in 0 until size) {
+                fields.add(UInt8NumberField(ByteArrayField.UINT8_VALUES[bytes[i].toInt() and 0xFF]))
+            }
+            fields.add(element ?: replay(p, ctxt, type, value))
+        }
+        return when {
+            fields != null -> ArrayField(fields.toTypedArray())
+            size == 0 -> ArrayField(emptyArray())
+            else -> ByteArrayField(bytes.copyOf(size))
+        }
+    }
+
+    /**
+     * Reads the first element that isn't a byte through the regular polymorphic [Field] deserialization, replaying
+     * the scalar properties already read from it, then [current] whose value is the current token when given, then
+     * the rest of the element.
+     */
+    private fun readRemainder(p: JsonParser, ctxt: DeserializationContext, type: String?, value: String?, current: String?): Field<*> {
+        val buffer = start(p, ctxt, type, value)
+        if (current != null) {
+            buffer.writeFieldName(current)
+            buffer.copyCurrentStructure(p)
+        }
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            buffer.copyCurrentStructure(p)
+        }
+        return finish(p, ctxt, buffer)
+    }
+
+    /**
+     * Reads an element made only of the scalar properties already read from it.
+     */
+    private fun replay(p: JsonParser, ctxt: DeserializationContext, type: String?, value: String?): Field<*> =
+        finish(p, ctxt, start(p, ctxt, type, value))
+
+    private fun start(p: JsonParser, ctxt: DeserializationContext, type: String?, value: String?): TokenBuffer {
+        val buffer = TokenBuffer(p, ctxt)
+        buffer.writeStartObject()
+        if (type != null) {
+            buffer.writeStringField("type", type)
+        }
+        if (value != null) {
+            buffer.writeStringField("value", value)
+        }
+        return buffer
+    }
+
+    private fun finish(p: JsonParser, ctxt: DeserializationContext, buffer: TokenBuffer): Field<*> {
+        buffer.writeEndObject()
+        val parser = buffer.asParser(p)
+        parser.nextToken()
+        return ctxt.readValue(parser, Field::class.java)
+    }
 }
 
 open class DictionaryField(value: Array<DictionaryFieldEntry>) : Field<Array<DictionaryFieldEntry>>(TYPE_DICTIONARY, value) {
@@ -217,16 +582,39 @@ open class DictionaryField(value: Array<DictionaryFieldEntry>) : Field<Array<Dic
 }
 open class DictionaryFieldEntry(val key: Field<*>, val value: Field<*>) : Serializable {
     constructor(pair: Pair<Field<*>, Field<*>>) : this(pair.first, pair.second)
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+        other as DictionaryFieldEntry
+        return key == other.key && value == other.value
+    }
+    override fun hashCode(): Int = 31 * key.hashCode() + value.hashCode()
 }
 
-open class AddressField(value: String) : Field<String>(TYPE_ADDRESS, if (!value.lowercase().startsWith("0x")) { "0x$value" } else { value }) {
+open class AddressField(value: String) : Field<String>(TYPE_ADDRESS, if (!value.startsWith("0x", ignoreCase = true)) { "0x$value" } else { value }) {
     constructor(bytes: ByteArray) : this(bytes.bytesToHex())
 }
 
-open class PathValue(val domain: String, val identifier: String) : Serializable
+open class PathValue(val domain: String, val identifier: String) : Serializable {
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+        other as PathValue
+        return domain == other.domain && identifier == other.identifier
+    }
+    override fun hashCode(): Int = 31 * domain.hashCode() + identifier.hashCode()
+}
 open class PathField(value: PathValue) : Field<PathValue>(TYPE_PATH, value)
 
-open class CapabilityValue(val path: String, val address: String, val borrowType: String) : Serializable
+open class CapabilityValue(val path: String, val address: String, val borrowType: String) : Serializable {
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+        other as CapabilityValue
+        return path == other.path && address == other.address && borrowType == other.borrowType
+    }
+    override fun hashCode(): Int = 31 * (31 * path.hashCode() + address.hashCode()) + borrowType.hashCode()
+}
 open class CapabilityField(value: CapabilityValue) : Field<CapabilityValue>(TYPE_CAPABILITY, value)
 
 open class CompositeField(type: String, value: CompositeValue) : Field<CompositeValue>(type, value) {
@@ -234,37 +622,156 @@ open class CompositeField(type: String, value: CompositeValue) : Field<Composite
     operator fun <T : Field<*>> get(name: String): T? = value?.getField(name)
     operator fun contains(name: String): Boolean = value?.getField<Field<*>>(name) != null
 }
-open class CompositeAttribute(val name: String, val value: Field<*>) : Serializable
+open class CompositeAttribute(val name: String, val value: Field<*>) : Serializable {
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+        other as CompositeAttribute
+        return name == other.name && value == other.value
+    }
+    override fun hashCode(): Int = 31 * name.hashCode() + value.hashCode()
+}
 open class CompositeValue(val id: String, val fields: Array<CompositeAttribute>) : Serializable {
+    companion object {
+        private const val LINEAR_SCAN_MAX_FIELDS = 8
+    }
+
+    @Transient
+    private var layout: CompositeLayout? = null
+
+    fun indexOf(name: String): Int {
+        if (fields.size <= LINEAR_SCAN_MAX_FIELDS) {
+            for (i in fields.indices) {
+                if (fields[i].name == name) {
+                    return i
+                }
+            }
+            return -1
+        }
+        val layout = this.layout ?: CompositeLayout.of(id, fields).also { this.layout = it }
+        return layout.indexOf(name)
+    }
+
     @Suppress("UNCHECKED_CAST")
-    fun <T : Field<*>> getField(name: String): T? = fields.find { it.name == name }?.value as T?
+    fun <T : Field<*>> getField(name: String): T? {
+        val index = indexOf(name)
+        return if (index < 0) {
+            null
+        } else {
+            fields[index].value as T?
+        }
+    }
     fun <T : Field<*>> getRequiredField(name: String): T = getField(name) ?: throw IllegalStateException("Value for $name not found")
     @Suppress("UNCHECKED_CAST")
     operator fun <T> get(name: String): T? = getField<Field<*>>(name)?.value as T?
-    operator fun contains(name: String): Boolean = fields.find { it.name == name } != null
+    operator fun contains(name: String): Boolean = indexOf(name) >= 0
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+        other as CompositeValue
+        return id == other.id && fields.contentEquals(other.fields)
+    }
+    override fun hashCode(): Int = 31 * id.hashCode() + fields.contentHashCode()
+}
+
+/**
+ * Maps field names to positions for composites. Composites of the same type id almost always list their fields in
+ * the same order, so a layout is shared between them and only rebuilt when the field names don't line up.
+ */
+internal class CompositeLayout private constructor(
+    private val names: Array<String>
+) {
+    companion object {
+        private const val MAX_CACHED_LAYOUTS = 4096
+        private val LAYOUTS: ConcurrentMap<String, CompositeLayout> = ConcurrentHashMap()
+
+        fun of(id: String, fields: Array<CompositeAttribute>): CompositeLayout {
+            val cached = LAYOUTS[id]
+            if (cached != null && cached.matches(fields)) {
+                return cached
+            }
+            val ret = CompositeLayout(Array(fields.size) { fields[it].name })
+            if (LAYOUTS.size >= MAX_CACHED_LAYOUTS) {
+                LAYOUTS.clear()
+            }
+            LAYOUTS[id] = ret
+            return ret
+        }
+    }
+
+    private val indices: Map<String, Int> = HashMap<String, Int>(names.size * 2).also { indices ->
+        names.forEachIndexed { i, name -> indices.putIfAbsent(name, i) }
+    }
+
+    fun indexOf(name: String): Int = indices[name] ?: -1
+
+    fun matches(fields: Array<CompositeAttribute>): Boolean {
+        if (fields.size != names.size) {
+            return false
+        }
+        for (i in fields.indices) {
+            if (fields[i].name != names[i]) {
+                return false
+            }
+        }
+        return true
+    }
 }
 open class StructField(value: CompositeValue) : CompositeField(TYPE_STRUCT, value)
 open class ResourceField(value: CompositeValue) : CompositeField(TYPE_RESOURCE, value)
 open class EventField(value: CompositeValue) : CompositeField(TYPE_EVENT, value)
 open class ContractField(value: CompositeValue) : CompositeField(TYPE_CONTRACT, value)
 open class EnumField(value: CompositeValue) : CompositeField(TYPE_ENUM, value)
-open class TypeValue(val staticType: CadenceType) : Serializable
+open class TypeValue(val staticType: CadenceType) : Serializable {
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+        other as TypeValue
+        return staticType == other.staticType
+    }
+    override fun hashCode(): Int = staticType.hashCode()
+}
 open class TypeField(value: TypeValue) : Field<TypeValue>(TYPE_TYPE, value)
 
 open class InitializerType(
     val label: String,
     val id: String,
     val type: CadenceType
-) : Serializable
+) : Serializable {
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+        other as InitializerType
+        return label == other.label && id == other.id && type == other.type
+    }
+    override fun hashCode(): Int = 31 * (31 * label.hashCode() + id.hashCode()) + type.hashCode()
+}
 open class FieldType(
     val id: String,
     val type: CadenceType
-) : Serializable
+) : Serializable {
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+        other as FieldType
+        return id == other.id && type == other.type
+    }
+    override fun hashCode(): Int = 31 * id.hashCode() + type.hashCode()
+}
 open class ParameterType(
     val label: String,
     val id: String,
     val type: CadenceType
-) : Serializable
+) : Serializable {
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+        other as ParameterType
+        return label == other.label && id == other.id && type == other.type
+    }
+    override fun hashCode(): Int = 31 * (31 * label.hashCode() + id.hashCode()) + type.hashCode()
+}
 
 // TODO: this JsonDeserializer.None::class is lame, but
 // it's the only way I could figure out how to deserialize
@@ -273,25 +780,52 @@ open class ParameterType(
 // https://docs.onflow.org/cadence/json-cadence-spec/#repeated-types
 
 @JsonDeserialize(using = CadenceTypeDeserializer::class)
-abstract class CadenceType(val kind: String) : Serializable
+abstract class CadenceType(val kind: String) : Serializable {
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (javaClass != other?.javaClass) return false
+        other as CadenceType
+        return kind == other.kind
+    }
+    override fun hashCode(): Int = kind.hashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
-open class PartialCadenceType(kind: String, val type: String) : CadenceType(kind)
+open class PartialCadenceType(kind: String, val type: String) : CadenceType(kind) {
+    override fun equals(other: Any?): Boolean = super.equals(other) && type == (other as PartialCadenceType).type
+    override fun hashCode(): Int = 31 * super.hashCode() + type.hashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
 open class SimpleType(kind: String) : CadenceType(kind)
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
-open class OptionalType(val type: CadenceType) : CadenceType(TYPE_OPTIONAL)
+open class OptionalType(val type: CadenceType) : CadenceType(TYPE_OPTIONAL) {
+    override fun equals(other: Any?): Boolean = super.equals(other) && type == (other as OptionalType).type
+    override fun hashCode(): Int = 31 * super.hashCode() + type.hashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
-open class VariableSizedArrayType(val type: CadenceType) : CadenceType(TYPE_VARIABLE_SIZED_ARRAY)
+open class VariableSizedArrayType(val type: CadenceType) : CadenceType(TYPE_VARIABLE_SIZED_ARRAY) {
+    override fun equals(other: Any?): Boolean = super.equals(other) && type == (other as VariableSizedArrayType).type
+    override fun hashCode(): Int = 31 * super.hashCode() + type.hashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
-open class ConstantSizedArrayType(val type: CadenceType) : CadenceType(TYPE_CONSTANT_SIZED_ARRAY)
+open class ConstantSizedArrayType(val type: CadenceType) : CadenceType(TYPE_CONSTANT_SIZED_ARRAY) {
+    override fun equals(other: Any?): Boolean = super.equals(other) && type == (other as ConstantSizedArrayType).type
+    override fun hashCode(): Int = 31 * super.hashCode() + type.hashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
-open class DictionaryType(val key: CadenceType, val value: CadenceType) : CadenceType(TYPE_DICTIONARY)
+open class DictionaryType(val key: CadenceType, val value: CadenceType) : CadenceType(TYPE_DICTIONARY) {
+    override fun equals(other: Any?): Boolean {
+        if (!super.equals(other)) return false
+        other as DictionaryType
+        return key == other.key && value == other.value
+    }
+    override fun hashCode(): Int = 31 * (31 * super.hashCode() + key.hashCode()) + value.hashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
 open class CompositeType(
@@ -300,33 +834,65 @@ open class CompositeType(
     val typeID: String,
     val initializers: Array<InitializerType>,
     val fields: Array<FieldType>
-) : CadenceType(kind)
+) : CadenceType(kind) {
+    override fun equals(other: Any?): Boolean {
+        if (!super.equals(other)) return false
+        other as CompositeType
+        return type == other.type && typeID == other.typeID &&
+            initializers.contentEquals(other.initializers) && fields.contentEquals(other.fields)
+    }
+    override fun hashCode(): Int = 31 * (31 * super.hashCode() + typeID.hashCode()) + fields.contentHashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
 open class FunctionType(
     val typeID: String,
     val parameters: Array<ParameterType>,
     val `return`: CadenceType
-) : CadenceType(TYPE_FUNCTION)
+) : CadenceType(TYPE_FUNCTION) {
+    override fun equals(other: Any?): Boolean {
+        if (!super.equals(other)) return false
+        other as FunctionType
+        return typeID == other.typeID && parameters.contentEquals(other.parameters) && `return` == other.`return`
+    }
+    override fun hashCode(): Int = 31 * (31 * super.hashCode() + typeID.hashCode()) + `return`.hashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
 open class ReferenceType(
     val typeID: String,
     val authorized: Boolean,
     val type: CadenceType
-) : CadenceType(TYPE_REFERENCE)
+) : CadenceType(TYPE_REFERENCE) {
+    override fun equals(other: Any?): Boolean {
+        if (!super.equals(other)) return false
+        other as ReferenceType
+        return typeID == other.typeID && authorized == other.authorized && type == other.type
+    }
+    override fun hashCode(): Int = 31 * (31 * super.hashCode() + typeID.hashCode()) + type.hashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
 open class RestrictionType(
     val typeID: String,
     val type: CadenceType,
     val restrictions: Array<CadenceType>
-) : CadenceType(TYPE_RESTRICTION)
+) : CadenceType(TYPE_RESTRICTION) {
+    override fun equals(other: Any?): Boolean {
+        if (!super.equals(other)) return false
+        other as RestrictionType
+        return typeID == other.typeID && type == other.type && restrictions.contentEquals(other.restrictions)
+    }
+    override fun hashCode(): Int = 31 * (31 * super.hashCode() + typeID.hashCode()) + type.hashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
 open class CapabilityType(
     val type: CadenceType
-) : CadenceType(TYPE_CAPABILITY)
+) : CadenceType(TYPE_CAPABILITY) {
+    override fun equals(other: Any?): Boolean = super.equals(other) && type == (other as CapabilityType).type
+    override fun hashCode(): Int = 31 * super.hashCode() + type.hashCode()
+}
 
 @JsonDeserialize(using = JsonDeserializer.None::class)
 open class EnumType(
@@ -334,7 +900,15 @@ open class EnumType(
     val typeID: String,
     val initializers: Array<InitializerType>,
     val fields: Array<FieldType>
-) : CadenceType(TYPE_ENUM)
+) : CadenceType(TYPE_ENUM) {
+    override fun equals(other: Any?): Boolean {
+        if (!super.equals(other)) return false
+        other as EnumType
+        return typeID == other.typeID && type == other.type &&
+            initializers.contentEquals(other.initializers) && fields.contentEquals(other.fields)
+    }
+    override fun hashCode(): Int = 31 * (31 * super.hashCode() + typeID.hashCode()) + fields.contentHashCode()
+}
 
 class CadenceTypeDeserializer(vc: Class<*>?) : StdDeserializer<CadenceType>(vc) {
     constructor() : this(null)
@@ -2,6 +2,9 @@ package com.nftco.flow.sdk.crypto
 
 import com.nftco.flow.sdk.*
 import com.nftco.flow.sdk.Signer
+import com.nftco.flow.sdk.jfr.FlowJfr
+import com.nftco.flow.sdk.metrics.FlowInstrumentation
+import com.nftco.flow.sdk.metrics.FlowStage
 import org.bouncycastle.jce.ECNamedCurveTable
 import org.bouncycastle.jce.ECPointUtil
 import org.bouncycastle.jce.interfaces.ECPrivateKey
@@ -161,9 +164,9 @@ internal class HasherImpl(
     private val hashAlgo: HashAlgorithm
 ) : Hasher {
 
-    override fun hash(bytes: ByteArray): ByteArray {
+    override fun hash(bytes: ByteArray): ByteArray = FlowInstrumentation.measure(FlowStage.HASH) {
         val digest = MessageDigest.getInstance(hashAlgo.algorithm)
-        return digest.digest(bytes)
+        digest.digest(bytes)
     }
 }
 
@@ -174,16 +177,26 @@ internal class SignerImpl(
 ) : Signer {
 
     override fun sign(bytes: ByteArray): ByteArray {
+        val event = FlowJfr.beginSign()
+        var ret: ByteArray? = null
+        try {
+            ret = FlowInstrumentation.measure(FlowStage.SIGN) { signMessage(bytes) }
+            return ret
+        } finally {
+            FlowJfr.commitSign(event, bytes.size.toLong(), ret == null)
+        }
+    }
 
+    private fun signMessage(bytes: ByteArray): ByteArray {
         val ecdsaSign = Signature.getInstance(hashAlgo.id)
         ecdsaSign.initSign(privateKey.key)
         ecdsaSign.update(bytes)
 
         val signature = ecdsaSign.sign()
-        if (privateKey.ecCoupleComponentSize <= 0) {
-            return signature
+        return if (privateKey.ecCoupleComponentSize <= 0) {
+            signature
+        } else {
+            Crypto.normalizeSignature(signature, privateKey.ecCoupleComponentSize)
         }
-
-        return Crypto.normalizeSignature(signature, privateKey.ecCoupleComponentSize)
     }
 }
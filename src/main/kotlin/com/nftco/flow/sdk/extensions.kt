@@ -1,20 +1,77 @@
 package com.nftco.flow.sdk
 
-import com.google.common.io.BaseEncoding
 import com.google.protobuf.Timestamp
+import java.nio.ByteBuffer
 import java.security.MessageDigest
 import java.time.LocalDateTime
 import java.time.ZoneOffset
 
-fun ByteArray.bytesToHex(): String = BaseEncoding.base16().lowerCase().encode(this)
+internal val HEX_DIGITS = "0123456789abcdef".toCharArray()
 
-fun String.hexToBytes(): ByteArray = BaseEncoding.base16().lowerCase().decode(
-    if (this.lowercase().startsWith("0x")) {
-        this.substring(2)
-    } else {
-        this
+private val HEX_VALUES = ByteArray(128) { -1 }.also {
+    for (i in 0 until 16) {
+        it[HEX_DIGITS[i].code] = i.toByte()
+        it[HEX_DIGITS[i].uppercaseChar().code] = i.toByte()
+    }
+}
+
+fun ByteArray.bytesToHex(): String = String(encodeHex(this, 0, size, CharArray(size * 2), 0))
+
+/**
+ * Writes [length] bytes of [src] from [offset] as lowercase hex into [dst] at [dstOffset] and returns [dst].
+ */
+fun encodeHex(src: ByteArray, offset: Int, length: Int, dst: CharArray, dstOffset: Int): CharArray {
+    require(offset >= 0 && length >= 0 && offset + length <= src.size) { "invalid source range" }
+    require(dstOffset >= 0 && dstOffset + length * 2 <= dst.size) { "destination too small" }
+    var j = dstOffset
+    for (i in offset until offset + length) {
+        val b = src[i].toInt()
+        dst[j++] = HEX_DIGITS[(b shr 4) and 0xf]
+        dst[j++] = HEX_DIGITS[b and 0xf]
+    }
+    return dst
+}
+
+fun String.hexToBytes(): ByteArray {
+    val start = hexPrefixLength(this)
+    require((length - start) % 2 == 0) { "hex string must have an even number of digits" }
+    val ret = ByteArray((length - start) / 2)
+    decodeHex(this, start, length, ret, 0)
+    return ret
+}
+
+/**
+ * Returns 2 when [hex] starts with `0x` or `0X`, 0 otherwise.
+ */
+fun hexPrefixLength(hex: CharSequence): Int =
+    if (hex.length >= 2 && hex[0] == '0' && (hex[1] == 'x' || hex[1] == 'X')) 2 else 0
+
+/**
+ * Reads the hex digits of [src] between [start] and [end], in either case, into [dst] at [dstOffset] and returns the
+ * number of bytes written. A prefix must be skipped by the caller, see [hexPrefixLength].
+ */
+fun decodeHex(src: CharSequence, start: Int, end: Int, dst: ByteArray, dstOffset: Int): Int {
+    require(start >= 0 && start <= end && end <= src.length) { "invalid source range" }
+    require((end - start) % 2 == 0) { "hex string must have an even number of digits" }
+    val length = (end - start) / 2
+    require(dstOffset >= 0 && dstOffset + length <= dst.size) { "destination too small" }
+    var j = dstOffset
+    var i = start
+    while (i < end) {
+        dst[j++] = ((hexValue(src, i) shl 4) or hexValue(src, i + 1)).toByte()
+        i += 2
     }
-)
+    return length
+}
+
+private fun hexValue(src: CharSequence, index: Int): Int {
+    val c = src[index].code
+    val ret = if (c < 128) HEX_VALUES[c].toInt() else -1
+    if (ret < 0) {
+        throw IllegalArgumentException("invalid hex digit '${src[index]}' at index $index")
+    }
+    return ret
+}
 
 fun Timestamp.asLocalDateTime(): LocalDateTime = LocalDateTime.ofEpochSecond(this.seconds, this.nanos, ZoneOffset.UTC)
 
@@ -37,3 +94,20 @@ fun fixedSize(bytes: ByteArray, size: Int): ByteArray {
         bytes
     }
 }
+
+/**
+ * Reads the remaining bytes of [buffer] left padded to [size], without moving its position. A heap buffer that
+ * wraps exactly [size] bytes gives back its backing array rather than a copy.
+ */
+fun fixedSize(buffer: ByteBuffer, size: Int): ByteArray {
+    val length = buffer.remaining()
+    if (length > size) {
+        throw IllegalArgumentException("must have no more than $size bytes long")
+    }
+    if (length == size && buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0 && buffer.array().size == size) {
+        return buffer.array()
+    }
+    val ret = ByteArray(size)
+    buffer.duplicate().get(ret, size - length, length)
+    return ret
+}
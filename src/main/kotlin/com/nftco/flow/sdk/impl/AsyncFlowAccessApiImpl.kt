@@ -6,10 +6,12 @@ import com.google.common.util.concurrent.ListenableFuture
 import com.google.common.util.concurrent.MoreExecutors
 import com.google.protobuf.ByteString
 import com.nftco.flow.sdk.*
+import com.nftco.flow.sdk.jfr.FlowJfr
 import io.grpc.ManagedChannel
 import org.onflow.protobuf.access.Access
 import org.onflow.protobuf.access.AccessAPIGrpc
 import java.io.Closeable
+import java.util.concurrent.CancellationException
 import java.util.concurrent.CompletableFuture
 
 class AsyncFlowAccessApiImpl(
@@ -29,7 +31,7 @@ class AsyncFlowAccessApiImpl(
                 Access.PingRequest.newBuilder()
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             Unit
         }
     }
@@ -40,7 +42,7 @@ class AsyncFlowAccessApiImpl(
                 Access.GetLatestBlockHeaderRequest.newBuilder()
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             FlowBlockHeader.of(it.block)
         }
     }
@@ -52,7 +54,7 @@ class AsyncFlowAccessApiImpl(
                     .setId(id.byteStringValue)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             if (it.hasBlock()) {
                 FlowBlockHeader.of(it.block)
             } else {
@@ -68,7 +70,7 @@ class AsyncFlowAccessApiImpl(
                     .setHeight(height)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             if (it.hasBlock()) {
                 FlowBlockHeader.of(it.block)
             } else {
@@ -84,7 +86,7 @@ class AsyncFlowAccessApiImpl(
                     .setIsSealed(sealed)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             FlowBlock.of(it.block)
         }
     }
@@ -96,7 +98,7 @@ class AsyncFlowAccessApiImpl(
                     .setId(id.byteStringValue)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             if (it.hasBlock()) {
                 FlowBlock.of(it.block)
             } else {
@@ -112,7 +114,7 @@ class AsyncFlowAccessApiImpl(
                     .setHeight(height)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             if (it.hasBlock()) {
                 FlowBlock.of(it.block)
             } else {
@@ -128,7 +130,7 @@ class AsyncFlowAccessApiImpl(
                     .setId(id.byteStringValue)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             if (it.hasCollection()) {
                 FlowCollection.of(it.collection)
             } else {
@@ -138,13 +140,16 @@ class AsyncFlowAccessApiImpl(
     }
 
     override fun sendTransaction(transaction: FlowTransaction): CompletableFuture<FlowId> {
-        return completableFuture(
-            api.sendTransaction(
-                Access.SendTransactionRequest.newBuilder()
-                    .setTransaction(transaction.builder().build())
-                    .build()
-            )
-        ).thenApply {
+        val event = FlowJfr.beginTransactionSend()
+        val request = Access.SendTransactionRequest.newBuilder()
+            .setTransaction(transaction.builder().build())
+            .build()
+        val future = completableFuture(api.sendTransaction(request))
+        if (event != null) {
+            future.whenComplete { _, t -> if (t != null) FlowJfr.commitTransactionSend(event, request, null) }
+        }
+        return future.thenApplyCancellable {
+            FlowJfr.commitTransactionSend(event, request, it)
             FlowId.of(it.id.toByteArray())
         }
     }
@@ -156,7 +161,7 @@ class AsyncFlowAccessApiImpl(
                     .setId(id.byteStringValue)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             if (it.hasTransaction()) {
                 FlowTransaction.of(it.transaction)
             } else {
@@ -172,7 +177,7 @@ class AsyncFlowAccessApiImpl(
                     .setId(id.byteStringValue)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             FlowTransactionResult.of(it)
         }
     }
@@ -184,7 +189,7 @@ class AsyncFlowAccessApiImpl(
                     .setAddress(addresss.byteStringValue)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             if (it.hasAccount()) {
                 FlowAccount.of(it.account)
             } else {
@@ -200,7 +205,7 @@ class AsyncFlowAccessApiImpl(
                     .setAddress(addresss.byteStringValue)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             if (it.hasAccount()) {
                 FlowAccount.of(it.account)
             } else {
@@ -217,7 +222,7 @@ class AsyncFlowAccessApiImpl(
                     .setBlockHeight(height)
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             if (it.hasAccount()) {
                 FlowAccount.of(it.account)
             } else {
@@ -227,28 +232,34 @@ class AsyncFlowAccessApiImpl(
     }
 
     override fun executeScriptAtLatestBlock(script: FlowScript, arguments: Iterable<ByteString>): CompletableFuture<FlowScriptResponse> {
-        return completableFuture(
-            api.executeScriptAtLatestBlock(
-                Access.ExecuteScriptAtLatestBlockRequest.newBuilder()
-                    .setScript(script.byteStringValue)
-                    .addAllArguments(arguments)
-                    .build()
-            )
-        ).thenApply {
+        val event = FlowJfr.beginScriptExecution()
+        val request = Access.ExecuteScriptAtLatestBlockRequest.newBuilder()
+            .setScript(script.byteStringValue)
+            .addAllArguments(arguments)
+            .build()
+        val future = completableFuture(api.executeScriptAtLatestBlock(request))
+        if (event != null) {
+            future.whenComplete { _, t -> if (t != null) FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, null) }
+        }
+        return future.thenApplyCancellable {
+            FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, it)
             FlowScriptResponse(it.value.toByteArray())
         }
     }
 
     override fun executeScriptAtBlockId(script: FlowScript, blockId: FlowId, arguments: Iterable<ByteString>): CompletableFuture<FlowScriptResponse> {
-        return completableFuture(
-            api.executeScriptAtBlockID(
-                Access.ExecuteScriptAtBlockIDRequest.newBuilder()
-                    .setBlockId(blockId.byteStringValue)
-                    .setScript(script.byteStringValue)
-                    .addAllArguments(arguments)
-                    .build()
-            )
-        ).thenApply {
+        val event = FlowJfr.beginScriptExecution()
+        val request = Access.ExecuteScriptAtBlockIDRequest.newBuilder()
+            .setBlockId(blockId.byteStringValue)
+            .setScript(script.byteStringValue)
+            .addAllArguments(arguments)
+            .build()
+        val future = completableFuture(api.executeScriptAtBlockID(request))
+        if (event != null) {
+            future.whenComplete { _, t -> if (t != null) FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, null) }
+        }
+        return future.thenApplyCancellable {
+            FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, it)
             FlowScriptResponse(it.value.toByteArray())
         }
     }
@@ -258,15 +269,18 @@ class AsyncFlowAccessApiImpl(
         height: Long,
         arguments: Iterable<ByteString>
     ): CompletableFuture<FlowScriptResponse> {
-        return completableFuture(
-            api.executeScriptAtBlockHeight(
-                Access.ExecuteScriptAtBlockHeightRequest.newBuilder()
-                    .setBlockHeight(height)
-                    .setScript(script.byteStringValue)
-                    .addAllArguments(arguments)
-                    .build()
-            )
-        ).thenApply {
+        val event = FlowJfr.beginScriptExecution()
+        val request = Access.ExecuteScriptAtBlockHeightRequest.newBuilder()
+            .setBlockHeight(height)
+            .setScript(script.byteStringValue)
+            .addAllArguments(arguments)
+            .build()
+        val future = completableFuture(api.executeScriptAtBlockHeight(request))
+        if (event != null) {
+            future.whenComplete { _, t -> if (t != null) FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, null) }
+        }
+        return future.thenApplyCancellable {
+            FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, it)
             FlowScriptResponse(it.value.toByteArray())
         }
     }
@@ -275,15 +289,18 @@ class AsyncFlowAccessApiImpl(
         type: String,
         range: ClosedRange<Long>
     ): CompletableFuture<List<FlowEventResult>> {
-        return completableFuture(
-            api.getEventsForHeightRange(
-                Access.GetEventsForHeightRangeRequest.newBuilder()
-                    .setType(type)
-                    .setStartHeight(range.start)
-                    .setEndHeight(range.endInclusive)
-                    .build()
-            )
-        ).thenApply {
+        val event = FlowJfr.beginEventRangeFetch()
+        val request = Access.GetEventsForHeightRangeRequest.newBuilder()
+            .setType(type)
+            .setStartHeight(range.start)
+            .setEndHeight(range.endInclusive)
+            .build()
+        val future = completableFuture(api.getEventsForHeightRange(request))
+        if (event != null) {
+            future.whenComplete { _, t -> if (t != null) FlowJfr.commitEventRangeFetch(event, request, null) }
+        }
+        return future.thenApplyCancellable {
+            FlowJfr.commitEventRangeFetch(event, request, it)
             it.resultsList
                 .map { FlowEventResult.of(it) }
         }
@@ -297,7 +314,7 @@ class AsyncFlowAccessApiImpl(
                     .addAllBlockIds(ids.map { it.byteStringValue })
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             it.resultsList
                 .map { FlowEventResult.of(it) }
         }
@@ -309,7 +326,7 @@ class AsyncFlowAccessApiImpl(
                 Access.GetNetworkParametersRequest.newBuilder()
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             FlowChainId.of(it.chainId)
         }
     }
@@ -320,7 +337,7 @@ class AsyncFlowAccessApiImpl(
                 Access.GetLatestProtocolStateSnapshotRequest.newBuilder()
                     .build()
             )
-        ).thenApply {
+        ).thenApplyCancellable {
             FlowSnapshot(it.serializedSnapshot.toByteArray())
         }
     }
@@ -349,3 +366,17 @@ fun <T> completableFuture(future: ListenableFuture<T>): CompletableFuture<T> {
     )
     return completable
 }
+
+/**
+ * Like [CompletableFuture.thenApply], except that cancelling the returned future also cancels this one, so that
+ * cancellation reaches the underlying gRPC call.
+ */
+internal fun <T, R> CompletableFuture<T>.thenApplyCancellable(fn: (T) -> R): CompletableFuture<R> {
+    val ret = thenApply { fn(it) }
+    ret.whenComplete { _, t ->
+        if (t is CancellationException) {
+            cancel(true)
+        }
+    }
+    return ret
+}
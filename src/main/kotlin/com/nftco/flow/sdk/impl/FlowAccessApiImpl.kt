@@ -2,6 +2,7 @@ package com.nftco.flow.sdk.impl
 
 import com.google.protobuf.ByteString
 import com.nftco.flow.sdk.*
+import com.nftco.flow.sdk.jfr.FlowJfr
 import io.grpc.ManagedChannel
 import org.onflow.protobuf.access.Access
 import org.onflow.protobuf.access.AccessAPIGrpc
@@ -108,12 +109,17 @@ class FlowAccessApiImpl(
     }
 
     override fun sendTransaction(transaction: FlowTransaction): FlowId {
-        val ret = api.sendTransaction(
-            Access.SendTransactionRequest.newBuilder()
-                .setTransaction(transaction.builder().build())
-                .build()
-        )
-        return FlowId.of(ret.id.toByteArray())
+        val event = FlowJfr.beginTransactionSend()
+        val request = Access.SendTransactionRequest.newBuilder()
+            .setTransaction(transaction.builder().build())
+            .build()
+        var ret: Access.SendTransactionResponse? = null
+        try {
+            ret = api.sendTransaction(request)
+            return FlowId.of(ret.id.toByteArray())
+        } finally {
+            FlowJfr.commitTransactionSend(event, request, ret)
+        }
     }
 
     override fun getTransactionById(id: FlowId): FlowTransaction? {
@@ -179,47 +185,67 @@ class FlowAccessApiImpl(
     }
 
     override fun executeScriptAtLatestBlock(script: FlowScript, arguments: Iterable<ByteString>): FlowScriptResponse {
-        val ret = api.executeScriptAtLatestBlock(
-            Access.ExecuteScriptAtLatestBlockRequest.newBuilder()
-                .setScript(script.byteStringValue)
-                .addAllArguments(arguments)
-                .build()
-        )
-        return FlowScriptResponse(ret.value.toByteArray())
+        val event = FlowJfr.beginScriptExecution()
+        val request = Access.ExecuteScriptAtLatestBlockRequest.newBuilder()
+            .setScript(script.byteStringValue)
+            .addAllArguments(arguments)
+            .build()
+        var ret: Access.ExecuteScriptResponse? = null
+        try {
+            ret = api.executeScriptAtLatestBlock(request)
+            return FlowScriptResponse(ret.value.toByteArray())
+        } finally {
+            FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, ret)
+        }
     }
 
     override fun executeScriptAtBlockId(script: FlowScript, blockId: FlowId, arguments: Iterable<ByteString>): FlowScriptResponse {
-        val ret = api.executeScriptAtBlockID(
-            Access.ExecuteScriptAtBlockIDRequest.newBuilder()
-                .setBlockId(blockId.byteStringValue)
-                .setScript(script.byteStringValue)
-                .addAllArguments(arguments)
-                .build()
-        )
-        return FlowScriptResponse(ret.value.toByteArray())
+        val event = FlowJfr.beginScriptExecution()
+        val request = Access.ExecuteScriptAtBlockIDRequest.newBuilder()
+            .setBlockId(blockId.byteStringValue)
+            .setScript(script.byteStringValue)
+            .addAllArguments(arguments)
+            .build()
+        var ret: Access.ExecuteScriptResponse? = null
+        try {
+            ret = api.executeScriptAtBlockID(request)
+            return FlowScriptResponse(ret.value.toByteArray())
+        } finally {
+            FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, ret)
+        }
     }
 
     override fun executeScriptAtBlockHeight(script: FlowScript, height: Long, arguments: Iterable<ByteString>): FlowScriptResponse {
-        val ret = api.executeScriptAtBlockHeight(
-            Access.ExecuteScriptAtBlockHeightRequest.newBuilder()
-                .setBlockHeight(height)
-                .setScript(script.byteStringValue)
-                .addAllArguments(arguments)
-                .build()
-        )
-        return FlowScriptResponse(ret.value.toByteArray())
+        val event = FlowJfr.beginScriptExecution()
+        val request = Access.ExecuteScriptAtBlockHeightRequest.newBuilder()
+            .setBlockHeight(height)
+            .setScript(script.byteStringValue)
+            .addAllArguments(arguments)
+            .build()
+        var ret: Access.ExecuteScriptResponse? = null
+        try {
+            ret = api.executeScriptAtBlockHeight(request)
+            return FlowScriptResponse(ret.value.toByteArray())
+        } finally {
+            FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, ret)
+        }
     }
 
     override fun getEventsForHeightRange(type: String, range: ClosedRange<Long>): List<FlowEventResult> {
-        val ret = api.getEventsForHeightRange(
-            Access.GetEventsForHeightRangeRequest.newBuilder()
-                .setType(type)
-                .setStartHeight(range.start)
-                .setEndHeight(range.endInclusive)
-                .build()
-        )
-        return ret.resultsList
-            .map { FlowEventResult.of(it) }
+        val event = FlowJfr.beginEventRangeFetch()
+        val request = Access.GetEventsForHeightRangeRequest.newBuilder()
+            .setType(type)
+            .setStartHeight(range.start)
+            .setEndHeight(range.endInclusive)
+            .build()
+        var ret: Access.EventsResponse? = null
+        try {
+            ret = api.getEventsForHeightRange(request)
+            return ret.resultsList
+                .map { FlowEventResult.of(it) }
+        } finally {
+            FlowJfr.commitEventRangeFetch(event, request, ret)
+        }
     }
 
     override fun getEventsForBlockIds(type: String, ids: Set<FlowId>): List<FlowEventResult> {
@@ -0,0 +1,368 @@
+package com.nftco.flow.sdk.impl
+
+import com.google.protobuf.ByteString
+import com.nftco.flow.sdk.*
+import com.nftco.flow.sdk.jfr.FlowJfr
+import io.grpc.CallOptions
+import io.grpc.Channel
+import io.grpc.ClientCall
+import io.grpc.ManagedChannel
+import io.grpc.Metadata
+import io.grpc.MethodDescriptor
+import io.grpc.Status
+import kotlinx.coroutines.CancellableContinuation
+import kotlinx.coroutines.suspendCancellableCoroutine
+import org.onflow.protobuf.access.Access
+import org.onflow.protobuf.access.AccessAPIGrpc
+import java.io.Closeable
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+/**
+ * Issues unary calls on the channel directly, resuming the caller from the call listener instead of going through
+ * a future. Cancelling the calling coroutine cancels the call.
+ */
+class SuspendFlowAccessApiImpl @JvmOverloads constructor(
+    private val channel: Channel,
+    private val callOptions: CallOptions = CallOptions.DEFAULT
+) : SuspendFlowAccessApi, Closeable {
+
+    override fun close() {
+        if (channel is ManagedChannel) {
+            channel.shutdownNow()
+        }
+    }
+
+    private suspend fun <Req, Resp> call(method: MethodDescriptor<Req, Resp>, request: Req): Resp = suspendCancellableCoroutine { cont ->
+        val call = channel.newCall(method, callOptions)
+        call.start(UnaryListener(cont), Metadata())
+        cont.invokeOnCancellation { call.cancel("Cancelled by caller", it) }
+        try {
+            // one more than expected so that a misbehaving server is noticed
+            call.request(2)
+            call.sendMessage(request)
+            call.halfClose()
+        } catch (t: Throwable) {
+            // the listener is closed with the failure
+            call.cancel(null, t)
+        }
+    }
+
+    private class UnaryListener<Resp>(
+        private val cont: CancellableContinuation<Resp>
+    ) : ClientCall.Listener<Resp>() {
+        private var response: Resp? = null
+
+        override fun onMessage(message: Resp) {
+            if (response != null) {
+                throw Status.INTERNAL.withDescription("More than one value received for unary call").asRuntimeException()
+            }
+            response = message
+        }
+
+        override fun onClose(status: Status, trailers: Metadata) {
+            val value = response
+            when {
+                !status.isOk -> cont.resumeWithException(status.asRuntimeException(trailers))
+                value == null -> cont.resumeWithException(
+                    Status.INTERNAL.withDescription("No value received for unary call").asRuntimeException(trailers)
+                )
+                else -> cont.resume(value)
+            }
+        }
+    }
+
+    override suspend fun ping() {
+        call(
+            AccessAPIGrpc.getPingMethod(),
+            Access.PingRequest.newBuilder()
+                .build()
+        )
+    }
+
+    override suspend fun getLatestBlockHeader(): FlowBlockHeader {
+        return call(
+            AccessAPIGrpc.getGetLatestBlockHeaderMethod(),
+            Access.GetLatestBlockHeaderRequest.newBuilder()
+                .build()
+        ).let {
+            FlowBlockHeader.of(it.block)
+        }
+    }
+
+    override suspend fun getBlockHeaderById(id: FlowId): FlowBlockHeader? {
+        return call(
+            AccessAPIGrpc.getGetBlockHeaderByIDMethod(),
+            Access.GetBlockHeaderByIDRequest.newBuilder()
+                .setId(id.byteStringValue)
+                .build()
+        ).let {
+            if (it.hasBlock()) {
+                FlowBlockHeader.of(it.block)
+            } else {
+                null
+            }
+        }
+    }
+
+    override suspend fun getBlockHeaderByHeight(height: Long): FlowBlockHeader? {
+        return call(
+            AccessAPIGrpc.getGetBlockHeaderByHeightMethod(),
+            Access.GetBlockHeaderByHeightRequest.newBuilder()
+                .setHeight(height)
+                .build()
+        ).let {
+            if (it.hasBlock()) {
+                FlowBlockHeader.of(it.block)
+            } else {
+                null
+            }
+        }
+    }
+
+    override suspend fun getLatestBlock(sealed: Boolean): FlowBlock {
+        return call(
+            AccessAPIGrpc.getGetLatestBlockMethod(),
+            Access.GetLatestBlockRequest.newBuilder()
+                .setIsSealed(sealed)
+                .build()
+        ).let {
+            FlowBlock.of(it.block)
+        }
+    }
+
+    override suspend fun getBlockById(id: FlowId): FlowBlock? {
+        return call(
+            AccessAPIGrpc.getGetBlockByIDMethod(),
+            Access.GetBlockByIDRequest.newBuilder()
+                .setId(id.byteStringValue)
+                .build()
+        ).let {
+            if (it.hasBlock()) {
+                FlowBlock.of(it.block)
+            } else {
+                null
+            }
+        }
+    }
+
+    override suspend fun getBlockByHeight(height: Long): FlowBlock? {
+        return call(
+            AccessAPIGrpc.getGetBlockByHeightMethod(),
+            Access.GetBlockByHeightRequest.newBuilder()
+                .setHeight(height)
+                .build()
+        ).let {
+            if (it.hasBlock()) {
+                FlowBlock.of(it.block)
+            } else {
+                null
+            }
+        }
+    }
+
+    override suspend fun getCollectionById(id: FlowId): FlowCollection? {
+        return call(
+            AccessAPIGrpc.getGetCollectionByIDMethod(),
+            Access.GetCollectionByIDRequest.newBuilder()
+                .setId(id.byteStringValue)
+                .build()
+        ).let {
+            if (it.hasCollection()) {
+                FlowCollection.of(it.collection)
+            } else {
+                null
+            }
+        }
+    }
+
+    override suspend fun sendTransaction(transaction: FlowTransaction): FlowId {
+        val event = FlowJfr.beginTransactionSend()
+        val request = Access.SendTransactionRequest.newBuilder()
+            .setTransaction(transaction.builder().build())
+            .build()
+        var ret: Access.SendTransactionResponse? = null
+        try {
+            ret = call(AccessAPIGrpc.getSendTransactionMethod(), request)
+            return FlowId.of(ret.id.toByteArray())
+        } finally {
+            FlowJfr.commitTransactionSend(event, request, ret)
+        }
+    }
+
+    override suspend fun getTransactionById(id: FlowId): FlowTransaction? {
+        return call(
+            AccessAPIGrpc.getGetTransactionMethod(),
+            Access.GetTransactionRequest.newBuilder()
+                .setId(id.byteStringValue)
+                .build()
+        ).let {
+            if (it.hasTransaction()) {
+                FlowTransaction.of(it.transaction)
+            } else {
+                null
+            }
+        }
+    }
+
+    override suspend fun getTransactionResultById(id: FlowId): FlowTransactionResult? {
+        return call(
+            AccessAPIGrpc.getGetTransactionResultMethod(),
+            Access.GetTransactionRequest.newBuilder()
+                .setId(id.byteStringValue)
+                .build()
+        ).let {
+            FlowTransactionResult.of(it)
+        }
+    }
+
+    override suspend fun getAccountByAddress(addresss: FlowAddress): FlowAccount? {
+        return call(
+            AccessAPIGrpc.getGetAccountMethod(),
+            Access.GetAccountRequest.newBuilder()
+                .setAddress(addresss.byteStringValue)
+                .build()
+        ).let {
+            if (it.hasAccount()) {
+                FlowAccount.of(it.account)
+            } else {
+                null
+            }
+        }
+    }
+
+    override suspend fun getAccountAtLatestBlock(addresss: FlowAddress): FlowAccount? {
+        return call(
+            AccessAPIGrpc.getGetAccountAtLatestBlockMethod(),
+            Access.GetAccountAtLatestBlockRequest.newBuilder()
+                .setAddress(addresss.byteStringValue)
+                .build()
+        ).let {
+            if (it.hasAccount()) {
+                FlowAccount.of(it.account)
+            } else {
+                null
+            }
+        }
+    }
+
+    override suspend fun getAccountByBlockHeight(addresss: FlowAddress, height: Long): FlowAccount? {
+        return call(
+            AccessAPIGrpc.getGetAccountAtBlockHeightMethod(),
+            Access.GetAccountAtBlockHeightRequest.newBuilder()
+                .setAddress(addresss.byteStringValue)
+                .setBlockHeight(height)
+                .build()
+        ).let {
+            if (it.hasAccount()) {
+                FlowAccount.of(it.account)
+            } else {
+                null
+            }
+        }
+    }
+
+    override suspend fun executeScriptAtLatestBlock(script: FlowScript, arguments: Iterable<ByteString>): FlowScriptResponse {
+        val event = FlowJfr.beginScriptExecution()
+        val request = Access.ExecuteScriptAtLatestBlockRequest.newBuilder()
+            .setScript(script.byteStringValue)
+            .addAllArguments(arguments)
+            .build()
+        var ret: Access.ExecuteScriptResponse? = null
+        try {
+            ret = call(AccessAPIGrpc.getExecuteScriptAtLatestBlockMethod(), request)
+            return FlowScriptResponse(ret.value.toByteArray())
+        } finally {
+            FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, ret)
+        }
+    }
+
+    override suspend fun executeScriptAtBlockId(script: FlowScript, blockId: FlowId, arguments: Iterable<ByteString>): FlowScriptResponse {
+        val event = FlowJfr.beginScriptExecution()
+        val request = Access.ExecuteScriptAtBlockIDRequest.newBuilder()
+            .setBlockId(blockId.byteStringValue)
+            .setScript(script.byteStringValue)
+            .addAllArguments(arguments)
+            .build()
+        var ret: Access.ExecuteScriptResponse? = null
+        try {
+            ret = call(AccessAPIGrpc.getExecuteScriptAtBlockIDMethod(), request)
+            return FlowScriptResponse(ret.value.toByteArray())
+        } finally {
+            FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, ret)
+        }
+    }
+
+    override suspend fun executeScriptAtBlockHeight(
+        script: FlowScript,
+        height: Long,
+        arguments: Iterable<ByteString>
+    ): FlowScriptResponse {
+        val event = FlowJfr.beginScriptExecution()
+        val request = Access.ExecuteScriptAtBlockHeightRequest.newBuilder()
+            .setBlockHeight(height)
+            .setScript(script.byteStringValue)
+            .addAllArguments(arguments)
+            .build()
+        var ret: Access.ExecuteScriptResponse? = null
+        try {
+            ret = call(AccessAPIGrpc.getExecuteScriptAtBlockHeightMethod(), request)
+            return FlowScriptResponse(ret.value.toByteArray())
+        } finally {
+            FlowJfr.commitScriptExecution(event, request.script, request.argumentsCount, ret)
+        }
+    }
+
+    override suspend fun getEventsForHeightRange(
+        type: String,
+        range: ClosedRange<Long>
+    ): List<FlowEventResult> {
+        val event = FlowJfr.beginEventRangeFetch()
+        val request = Access.GetEventsForHeightRangeRequest.newBuilder()
+            .setType(type)
+            .setStartHeight(range.start)
+            .setEndHeight(range.endInclusive)
+            .build()
+        var ret: Access.EventsResponse? = null
+        try {
+            ret = call(AccessAPIGrpc.getGetEventsForHeightRangeMethod(), request)
+            return ret.resultsList
+                .map { FlowEventResult.of(it) }
+        } finally {
+            FlowJfr.commitEventRangeFetch(event, request, ret)
+        }
+    }
+
+    override suspend fun getEventsForBlockIds(type: String, ids: Set<FlowId>): List<FlowEventResult> {
+        return call(
+            AccessAPIGrpc.getGetEventsForBlockIDsMethod(),
+            Access.GetEventsForBlockIDsRequest.newBuilder()
+                .setType(type)
+                .addAllBlockIds(ids.map { it.byteStringValue })
+                .build()
+        ).let {
+            it.resultsList
+                .map { FlowEventResult.of(it) }
+        }
+    }
+
+    override suspend fun getNetworkParameters(): FlowChainId {
+        return call(
+            AccessAPIGrpc.getGetNetworkParametersMethod(),
+            Access.GetNetworkParametersRequest.newBuilder()
+                .build()
+        ).let {
+            FlowChainId.of(it.chainId)
+        }
+    }
+
+    override suspend fun getLatestProtocolStateSnapshot(): FlowSnapshot {
+        return call(
+            AccessAPIGrpc.getGetLatestProtocolStateSnapshotMethod(),
+            Access.GetLatestProtocolStateSnapshotRequest.newBuilder()
+                .build()
+        ).let {
+            FlowSnapshot(it.serializedSnapshot.toByteArray())
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.nftco.flow.sdk.jfr
+
+import com.google.protobuf.ByteString
+import com.nftco.flow.sdk.bytesToHex
+import org.onflow.protobuf.access.Access
+
+/**
+ * Emits Java Flight Recorder events for the SDK's operations: transaction send, seal wait, script execution, event
+ * range fetch, JSON-Cadence decode and signing, all in the "Flow SDK" category. The library still runs on Java 8,
+ * the events are only used when the running JVM has `jdk.jfr`. When no recording has them enabled an operation
+ * allocates a single short-lived event.
+ *
+ * The `begin*` functions return the started event, or null when it isn't recorded, to be passed to the matching
+ * `commit*` function.
+ */
+object FlowJfr {
+
+    // FlowJfr mustn't mention any jdk.jfr type, the verifier would need it to load this class
+    private val EVENTS: JfrEvents? = try {
+        Class.forName("jdk.jfr.Event")
+        JfrEvents()
+    } catch (e: ClassNotFoundException) {
+        null
+    } catch (e: LinkageError) {
+        null
+    }
+
+    @JvmStatic
+    val available: Boolean get() = EVENTS != null
+
+    internal fun beginTransactionSend(): Any? = EVENTS?.beginTransactionSend()
+
+    /**
+     * Commits a transaction send, [response] being null when the call failed.
+     */
+    internal fun commitTransactionSend(event: Any?, request: Access.SendTransactionRequest, response: Access.SendTransactionResponse?) {
+        if (event != null) {
+            val transaction = request.transaction
+            EVENTS?.commitTransactionSend(
+                event,
+                response?.id?.toByteArray()?.bytesToHex(),
+                request.serializedSize.toLong(),
+                transaction.payloadSignaturesCount + transaction.envelopeSignaturesCount,
+                response == null
+            )
+        }
+    }
+
+    internal fun beginSealWait(): Any? = EVENTS?.beginSealWait()
+
+    internal fun commitSealWait(event: Any?, transactionId: String?, status: String?, polls: Int) {
+        if (event != null) {
+            EVENTS?.commitSealWait(event, transactionId, status, polls)
+        }
+    }
+
+    internal fun beginScriptExecution(): Any? = EVENTS?.beginScriptExecution()
+
+    /**
+     * Commits a script execution, [response] being null when the call failed.
+     */
+    internal fun commitScriptExecution(event: Any?, script: ByteString, argumentCount: Int, response: Access.ExecuteScriptResponse?) {
+        if (event != null) {
+            EVENTS?.commitScriptExecution(event, script.size().toLong(), argumentCount, response?.value?.size()?.toLong() ?: 0, response == null)
+        }
+    }
+
+    internal fun beginEventRangeFetch(): Any? = EVENTS?.beginEventRangeFetch()
+
+    /**
+     * Commits an event range fetch, [response] being null when the call failed.
+     */
+    internal fun commitEventRangeFetch(event: Any?, request: Access.GetEventsForHeightRangeRequest, response: Access.EventsResponse?) {
+        if (event != null) {
+            EVENTS?.commitEventRangeFetch(
+                event,
+                request.type,
+                request.startHeight,
+                request.endHeight,
+                response?.resultsCount ?: 0,
+                response?.resultsList?.sumOf { it.eventsCount } ?: 0,
+                response?.serializedSize?.toLong() ?: 0,
+                response == null
+            )
+        }
+    }
+
+    internal fun beginJsonCadenceDecode(): Any? = EVENTS?.beginJsonCadenceDecode()
+
+    internal fun commitJsonCadenceDecode(event: Any?, bytes: Long, failed: Boolean) {
+        if (event != null) {
+            EVENTS?.commitJsonCadenceDecode(event, bytes, failed)
+        }
+    }
+
+    internal fun beginSign(): Any? = EVENTS?.beginSign()
+
+    internal fun commitSign(event: Any?, bytes: Long, failed: Boolean) {
+        if (event != null) {
+            EVENTS?.commitSign(event, bytes, failed)
+        }
+    }
+}
+
+/**
+ * Everything touching `jdk.jfr` types, kept out of [FlowJfr] so that it can be loaded on any JVM.
+ */
+internal class JfrEvents {
+
+    fun beginTransactionSend(): Any? = begin(TransactionSendEvent())
+
+    fun beginSealWait(): Any? = begin(SealWaitEvent())
+
+    fun beginScriptExecution(): Any? = begin(ScriptExecutionEvent())
+
+    fun beginEventRangeFetch(): Any? = begin(EventRangeFetchEvent())
+
+    fun beginJsonCadenceDecode(): Any? = begin(JsonCadenceDecodeEvent())
+
+    fun beginSign(): Any? = begin(SignEvent())
+
+    private fun begin(event: jdk.jfr.Event): Any? {
+        if (!event.isEnabled) {
+            return null
+        }
+        event.begin()
+        return event
+    }
+
+    fun commitTransactionSend(event: Any, transactionId: String?, transactionBytes: Long, signatureCount: Int, failed: Boolean) {
+        event as TransactionSendEvent
+        event.end()
+        if (event.shouldCommit()) {
+            event.transactionId = transactionId
+            event.transactionBytes = transactionBytes
+            event.signatureCount = signatureCount
+            event.failed = failed
+            event.commit()
+        }
+    }
+
+    fun commitSealWait(event: Any, transactionId: String?, status: String?, polls: Int) {
+        event as SealWaitEvent
+        event.end()
+        if (event.shouldCommit()) {
+            event.transactionId = transactionId
+            event.status = status
+            event.polls = polls
+            event.commit()
+        }
+    }
+
+    fun commitScriptExecution(event: Any, scriptBytes: Long, argumentCount: Int, responseBytes: Long, failed: Boolean) {
+        event as ScriptExecutionEvent
+        event.end()
+        if (event.shouldCommit()) {
+            event.scriptBytes = scriptBytes
+            event.argumentCount = argumentCount
+            event.responseBytes = responseBytes
+            event.failed = failed
+            event.commit()
+        }
+    }
+
+    fun commitEventRangeFetch(
+        event: Any,
+        eventType: String,
+        startHeight: Long,
+        endHeight: Long,
+        blockCount: Int,
+        eventCount: Int,
+        responseBytes: Long,
+        failed: Boolean
+    ) {
+        event as EventRangeFetchEvent
+        event.end()
+        if (event.shouldCommit()) {
+            event.eventType = eventType
+            event.startHeight = startHeight
+            event.endHeight = endHeight
+            event.blockCount = blockCount
+            event.eventCount = eventCount
+            event.responseBytes = responseBytes
+            event.failed = failed
+            event.commit()
+        }
+    }
+
+    fun commitJsonCadenceDecode(event: Any, bytes: Long, failed: Boolean) {
+        event as JsonCadenceDecodeEvent
+        event.end()
+        if (event.shouldCommit()) {
+            event.bytes = bytes
+            event.failed = failed
+            event.commit()
+        }
+    }
+
+    fun commitSign(event: Any, bytes: Long, failed: Boolean) {
+        event as SignEvent
+        event.end()
+        if (event.shouldCommit()) {
+            event.bytes = bytes
+            event.failed = failed
+            event.commit()
+        }
+    }
+}
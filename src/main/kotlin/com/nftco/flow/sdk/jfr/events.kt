@@ -0,0 +1,141 @@
+package com.nftco.flow.sdk.jfr
+
+import jdk.jfr.Category
+import jdk.jfr.DataAmount
+import jdk.jfr.Description
+import jdk.jfr.Event
+import jdk.jfr.Label
+import jdk.jfr.Name
+import jdk.jfr.StackTrace
+
+// only loaded once FlowJfr has found jdk.jfr on the running JVM
+
+@Name("com.nftco.flow.sdk.TransactionSend")
+@Label("Transaction Send")
+@Category("Flow SDK")
+@Description("Sending a transaction to an access node")
+internal class TransactionSendEvent : Event() {
+    @JvmField
+    @Label("Transaction Id")
+    var transactionId: String? = null
+
+    @JvmField
+    @Label("Transaction Size")
+    @DataAmount
+    var transactionBytes: Long = 0
+
+    @JvmField
+    @Label("Signatures")
+    var signatureCount: Int = 0
+
+    @JvmField
+    @Label("Failed")
+    var failed: Boolean = false
+}
+
+@Name("com.nftco.flow.sdk.SealWait")
+@Label("Seal Wait")
+@Category("Flow SDK")
+@Description("Polling a transaction result until the transaction is sealed")
+internal class SealWaitEvent : Event() {
+    @JvmField
+    @Label("Transaction Id")
+    var transactionId: String? = null
+
+    @JvmField
+    @Label("Final Status")
+    var status: String? = null
+
+    @JvmField
+    @Label("Polls")
+    var polls: Int = 0
+}
+
+@Name("com.nftco.flow.sdk.ScriptExecution")
+@Label("Script Execution")
+@Category("Flow SDK")
+@Description("Executing a script on an access node")
+internal class ScriptExecutionEvent : Event() {
+    @JvmField
+    @Label("Script Size")
+    @DataAmount
+    var scriptBytes: Long = 0
+
+    @JvmField
+    @Label("Arguments")
+    var argumentCount: Int = 0
+
+    @JvmField
+    @Label("Response Size")
+    @DataAmount
+    var responseBytes: Long = 0
+
+    @JvmField
+    @Label("Failed")
+    var failed: Boolean = false
+}
+
+@Name("com.nftco.flow.sdk.EventRangeFetch")
+@Label("Event Range Fetch")
+@Category("Flow SDK")
+@Description("Fetching the events of a type for a range of heights")
+internal class EventRangeFetchEvent : Event() {
+    @JvmField
+    @Label("Event Type")
+    var eventType: String? = null
+
+    @JvmField
+    @Label("Start Height")
+    var startHeight: Long = 0
+
+    @JvmField
+    @Label("End Height")
+    var endHeight: Long = 0
+
+    @JvmField
+    @Label("Blocks")
+    var blockCount: Int = 0
+
+    @JvmField
+    @Label("Events")
+    var eventCount: Int = 0
+
+    @JvmField
+    @Label("Response Size")
+    @DataAmount
+    var responseBytes: Long = 0
+
+    @JvmField
+    @Label("Failed")
+    var failed: Boolean = false
+}
+
+@Name("com.nftco.flow.sdk.JsonCadenceDecode")
+@Label("JSON-Cadence Decode")
+@Category("Flow SDK")
+@StackTrace(false)
+internal class JsonCadenceDecodeEvent : Event() {
+    @JvmField
+    @Label("Size")
+    @DataAmount
+    var bytes: Long = 0
+
+    @JvmField
+    @Label("Failed")
+    var failed: Boolean = false
+}
+
+@Name("com.nftco.flow.sdk.Sign")
+@Label("Sign")
+@Category("Flow SDK")
+@StackTrace(false)
+internal class SignEvent : Event() {
+    @JvmField
+    @Label("Message Size")
+    @DataAmount
+    var bytes: Long = 0
+
+    @JvmField
+    @Label("Failed")
+    var failed: Boolean = false
+}
@@ -0,0 +1,93 @@
+package com.nftco.flow.sdk.metrics
+
+import com.google.protobuf.MessageLite
+import io.grpc.CallOptions
+import io.grpc.Channel
+import io.grpc.ClientCall
+import io.grpc.ClientInterceptor
+import io.grpc.ForwardingClientCall
+import io.grpc.ForwardingClientCallListener
+import io.grpc.Metadata
+import io.grpc.MethodDescriptor
+import io.grpc.Status
+
+/**
+ * Measures latency, message counts and sizes, and the resulting status of every call made through the channel,
+ * see [com.nftco.flow.sdk.FlowChannelConfig.Builder.metrics].
+ */
+class FlowMetricsInterceptor @JvmOverloads constructor(
+    private val recorder: FlowMetricsRecorder,
+    private val tracer: FlowCallTracer? = null
+) : ClientInterceptor {
+
+    override fun <ReqT, RespT> interceptCall(
+        method: MethodDescriptor<ReqT, RespT>,
+        callOptions: CallOptions,
+        next: Channel
+    ): ClientCall<ReqT, RespT> = MeasuredCall(method.fullMethodName, next.authority(), next.newCall(method, callOptions))
+
+    private inner class MeasuredCall<ReqT, RespT>(
+        private val method: String,
+        private val target: String,
+        delegate: ClientCall<ReqT, RespT>
+    ) : ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(delegate) {
+
+        // written on the calling thread, read once the call is closed
+        @Volatile
+        private var startNanos = 0L
+        @Volatile
+        private var span: FlowCallSpan? = null
+        @Volatile
+        private var requestMessages = 0
+        @Volatile
+        private var requestBytes = 0L
+
+        override fun start(responseListener: ClientCall.Listener<RespT>, headers: Metadata) {
+            startNanos = System.nanoTime()
+            recorder.callStarted(method, target)
+            span = tracer?.start(method, target, headers)
+            super.start(MeasuredListener(responseListener), headers)
+        }
+
+        override fun sendMessage(message: ReqT) {
+            requestMessages++
+            requestBytes += sizeOf(message)
+            super.sendMessage(message)
+        }
+
+        private inner class MeasuredListener(
+            delegate: ClientCall.Listener<RespT>
+        ) : ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(delegate) {
+
+            private var responseMessages = 0
+            private var responseBytes = 0L
+
+            override fun onMessage(message: RespT) {
+                responseMessages++
+                responseBytes += sizeOf(message)
+                super.onMessage(message)
+            }
+
+            override fun onClose(status: Status, trailers: Metadata) {
+                val metrics = FlowCallMetrics(
+                    method = method,
+                    target = target,
+                    status = status,
+                    durationNanos = System.nanoTime() - startNanos,
+                    requestMessages = requestMessages,
+                    requestBytes = requestBytes,
+                    responseMessages = responseMessages,
+                    responseBytes = responseBytes
+                )
+                try {
+                    recorder.callCompleted(metrics)
+                    span?.end(metrics)
+                } finally {
+                    super.onClose(status, trailers)
+                }
+            }
+        }
+    }
+
+    private fun sizeOf(message: Any?): Int = if (message is MessageLite) message.serializedSize else 0
+}
@@ -0,0 +1,96 @@
+package com.nftco.flow.sdk.metrics
+
+import io.micrometer.core.instrument.DistributionSummary
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tags
+import io.micrometer.core.instrument.Timer
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Publishes call metrics to Micrometer, requires micrometer-core on the classpath.
+ *
+ * - `<prefix>.calls`: timer with a percentile histogram, tagged by method, target and status
+ * - `<prefix>.request.bytes`, `<prefix>.response.bytes`: distribution summaries tagged by method and target
+ * - `<prefix>.in.flight`: gauge of the calls currently running, tagged by method and target
+ *
+ * Installed with [FlowInstrumentation.install] it also publishes the SDK's own stages:
+ *
+ * - `<prefix>.stage`: timer tagged by stage
+ * - `<prefix>.stage.allocated.bytes`: distribution summary tagged by stage
+ */
+class MicrometerMetricsRecorder @JvmOverloads constructor(
+    private val registry: MeterRegistry,
+    private val prefix: String = "flow.client"
+) : FlowMetricsRecorder, FlowStageRecorder {
+
+    private data class CallKey(val method: String, val target: String, val status: String)
+    private data class MethodKey(val method: String, val target: String)
+
+    private class MethodMeters(
+        val inFlight: AtomicInteger,
+        val requestBytes: DistributionSummary,
+        val responseBytes: DistributionSummary
+    )
+
+    private val timers: ConcurrentMap<CallKey, Timer> = ConcurrentHashMap()
+    private val methods: ConcurrentMap<MethodKey, MethodMeters> = ConcurrentHashMap()
+
+    // registering again returns the same meter, so racing to fill these is harmless
+    private val stageTimers = arrayOfNulls<Timer>(FlowStage.values().size)
+    private val stageAllocations = arrayOfNulls<DistributionSummary>(FlowStage.values().size)
+
+    private fun meters(method: String, target: String): MethodMeters {
+        val key = MethodKey(method, target)
+        methods[key]?.let { return it }
+        val tags = Tags.of("method", method, "target", target)
+        // read through the map, so that it reports whichever counter wins a race to register
+        Gauge.builder("$prefix.in.flight", methods) { it[key]?.inFlight?.get()?.toDouble() ?: 0.0 }
+            .tags(tags)
+            .strongReference(true)
+            .register(registry)
+        val ret = MethodMeters(
+            inFlight = AtomicInteger(),
+            requestBytes = DistributionSummary.builder("$prefix.request.bytes").baseUnit("bytes").tags(tags).register(registry),
+            responseBytes = DistributionSummary.builder("$prefix.response.bytes").baseUnit("bytes").tags(tags).register(registry)
+        )
+        return methods.putIfAbsent(key, ret) ?: ret
+    }
+
+    override fun callStarted(method: String, target: String) {
+        meters(method, target).inFlight.incrementAndGet()
+    }
+
+    override fun callCompleted(metrics: FlowCallMetrics) {
+        val meters = meters(metrics.method, metrics.target)
+        meters.inFlight.decrementAndGet()
+        meters.requestBytes.record(metrics.requestBytes.toDouble())
+        meters.responseBytes.record(metrics.responseBytes.toDouble())
+
+        val key = CallKey(metrics.method, metrics.target, metrics.status.code.name)
+        val timer = timers[key] ?: Timer.builder("$prefix.calls")
+            .tags("method", key.method, "target", key.target, "status", key.status)
+            .publishPercentileHistogram()
+            .register(registry)
+            .let { timers.putIfAbsent(key, it) ?: it }
+        timer.record(metrics.durationNanos, TimeUnit.NANOSECONDS)
+    }
+
+    override fun stageCompleted(stage: FlowStage, durationNanos: Long, allocatedBytes: Long) {
+        val timer = stageTimers[stage.ordinal] ?: Timer.builder("$prefix.stage")
+            .tag("stage", stage.name)
+            .register(registry)
+            .also { stageTimers[stage.ordinal] = it }
+        timer.record(durationNanos, TimeUnit.NANOSECONDS)
+
+        val allocations = stageAllocations[stage.ordinal] ?: DistributionSummary.builder("$prefix.stage.allocated.bytes")
+            .baseUnit("bytes")
+            .tag("stage", stage.name)
+            .register(registry)
+            .also { stageAllocations[stage.ordinal] = it }
+        allocations.record(allocatedBytes.toDouble())
+    }
+}
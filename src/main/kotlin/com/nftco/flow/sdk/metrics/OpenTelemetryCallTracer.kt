@@ -0,0 +1,48 @@
+package com.nftco.flow.sdk.metrics
+
+import io.grpc.Metadata
+import io.opentelemetry.api.OpenTelemetry
+import io.opentelemetry.api.trace.SpanKind
+import io.opentelemetry.api.trace.StatusCode
+import io.opentelemetry.context.Context
+import io.opentelemetry.context.propagation.TextMapSetter
+
+/**
+ * Starts a client span for every call, following the OpenTelemetry RPC conventions, and propagates the trace
+ * context in the request headers. Requires opentelemetry-api on the classpath.
+ */
+class OpenTelemetryCallTracer @JvmOverloads constructor(
+    private val openTelemetry: OpenTelemetry,
+    instrumentationName: String = "com.nftco.flow.sdk"
+) : FlowCallTracer {
+
+    companion object {
+        private val SETTER = TextMapSetter<Metadata> { carrier, key, value ->
+            carrier?.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value)
+        }
+    }
+
+    private val tracer = openTelemetry.getTracer(instrumentationName)
+
+    override fun start(method: String, target: String, headers: Metadata): FlowCallSpan {
+        val span = tracer.spanBuilder(method)
+            .setSpanKind(SpanKind.CLIENT)
+            .setAttribute("rpc.system", "grpc")
+            .setAttribute("rpc.service", method.substringBeforeLast('/', ""))
+            .setAttribute("rpc.method", method.substringAfterLast('/'))
+            .setAttribute("net.peer.name", target)
+            .startSpan()
+        openTelemetry.propagators.textMapPropagator.inject(Context.current().with(span), headers, SETTER)
+
+        return FlowCallSpan { metrics ->
+            span.setAttribute("rpc.grpc.status_code", metrics.status.code.value().toLong())
+            span.setAttribute("rpc.request.bytes", metrics.requestBytes)
+            span.setAttribute("rpc.response.bytes", metrics.responseBytes)
+            if (!metrics.status.isOk) {
+                span.setStatus(StatusCode.ERROR, metrics.status.description ?: metrics.status.code.name)
+                metrics.status.cause?.let { span.recordException(it) }
+            }
+            span.end()
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.nftco.flow.sdk.metrics
+
+import java.lang.management.ManagementFactory
+
+/**
+ * The CPU-heavy steps inside the SDK that [FlowInstrumentation] can time.
+ */
+enum class FlowStage {
+    /** RLP encoding of a transaction, `FlowTransaction.canonical*` */
+    RLP_ENCODE,
+    /** hashing, such as computing a transaction id */
+    HASH,
+    /** signing with a `Signer` */
+    SIGN,
+    /** parsing JSON-Cadence */
+    JSON_CADENCE_DECODE,
+    /** writing JSON-Cadence */
+    JSON_CADENCE_ENCODE,
+    /** converting JSON-Cadence into objects */
+    UNMARSHALL,
+    /** converting objects into JSON-Cadence */
+    MARSHALL
+}
+
+/**
+ * Receives the measurements of [FlowInstrumentation]. It's called on the thread that did the work, so it should be
+ * quick and must not block. [allocatedBytes] is 0 when allocations aren't tracked.
+ */
+fun interface FlowStageRecorder {
+    fun stageCompleted(stage: FlowStage, durationNanos: Long, allocatedBytes: Long)
+}
+
+/**
+ * Times the [FlowStage]s of the SDK and counts the bytes they allocate. Nothing is measured until a recorder is
+ * installed, a disabled stage costs a single volatile read. When a stage runs inside itself, for instance when
+ * unmarshalling nested values, only the outermost run is recorded.
+ */
+object FlowInstrumentation {
+
+    @Volatile
+    private var recorder: FlowStageRecorder? = null
+
+    @Volatile
+    private var trackAllocations = false
+
+    private val THREADS = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+
+    private val DEPTHS = ThreadLocal.withInitial { IntArray(FlowStage.values().size) }
+
+    @JvmStatic
+    val enabled: Boolean get() = recorder != null
+
+    /**
+     * Starts recording every stage to [recorder], replacing any recorder installed before. Allocations are counted
+     * when [trackAllocations] is set and the JVM supports it.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun install(recorder: FlowStageRecorder, trackAllocations: Boolean = true) {
+        val threads = THREADS
+        this.trackAllocations = trackAllocations && threads != null && threads.isThreadAllocatedMemorySupported
+        if (this.trackAllocations && !threads!!.isThreadAllocatedMemoryEnabled) {
+            threads.isThreadAllocatedMemoryEnabled = true
+        }
+        this.recorder = recorder
+    }
+
+    @JvmStatic
+    fun uninstall() {
+        recorder = null
+    }
+
+    inline fun <T> measure(stage: FlowStage, block: () -> T): T {
+        val scope = begin(stage) ?: return block()
+        try {
+            return block()
+        } finally {
+            scope.end()
+        }
+    }
+
+    @PublishedApi
+    internal fun begin(stage: FlowStage): StageScope? {
+        val recorder = recorder ?: return null
+        val depths = DEPTHS.get()
+        if (depths[stage.ordinal]++ > 0) {
+            return StageScope(stage, null, depths, 0, 0)
+        }
+        val allocated = if (trackAllocations) allocatedBytes() else 0
+        return StageScope(stage, recorder, depths, System.nanoTime(), allocated)
+    }
+
+    private fun allocatedBytes(): Long = THREADS?.getThreadAllocatedBytes(Thread.currentThread().id) ?: 0
+
+    @PublishedApi
+    internal class StageScope(
+        private val stage: FlowStage,
+        private val recorder: FlowStageRecorder?,
+        private val depths: IntArray,
+        private val startNanos: Long,
+        private val startAllocated: Long
+    ) {
+        fun end() {
+            depths[stage.ordinal]--
+            if (recorder == null) {
+                return
+            }
+            val duration = System.nanoTime() - startNanos
+            val allocated = if (startAllocated > 0) allocatedBytes() - startAllocated else 0
+            recorder.stageCompleted(stage, duration, allocated)
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.nftco.flow.sdk.metrics
+
+import io.grpc.Metadata
+import io.grpc.Status
+
+/**
+ * What happened during one call to the access API. [method] is the full gRPC method name, [target] the authority
+ * of the channel (the access node), and the byte counts are the serialized sizes of the messages before
+ * compression.
+ */
+data class FlowCallMetrics(
+    val method: String,
+    val target: String,
+    val status: Status,
+    val durationNanos: Long,
+    val requestMessages: Int,
+    val requestBytes: Long,
+    val responseMessages: Int,
+    val responseBytes: Long
+) {
+    val methodName: String get() = method.substringAfterLast('/')
+    val serviceName: String get() = method.substringBeforeLast('/', "")
+}
+
+/**
+ * Receives the measurements of [FlowMetricsInterceptor]. Both callbacks run on the threads of the gRPC call, so
+ * they should be quick and must not block.
+ */
+interface FlowMetricsRecorder {
+
+    companion object {
+        @JvmField
+        val NOOP: FlowMetricsRecorder = object : FlowMetricsRecorder {
+            override fun callCompleted(metrics: FlowCallMetrics) = Unit
+        }
+    }
+
+    fun callStarted(method: String, target: String) = Unit
+
+    fun callCompleted(metrics: FlowCallMetrics)
+}
+
+/**
+ * Starts a span for every call, for example [OpenTelemetryCallTracer]. Trace context can be propagated by adding
+ * to the request [headers].
+ */
+fun interface FlowCallTracer {
+    fun start(method: String, target: String, headers: Metadata): FlowCallSpan
+}
+
+fun interface FlowCallSpan {
+    fun end(metrics: FlowCallMetrics)
+}
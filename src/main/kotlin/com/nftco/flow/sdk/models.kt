@@ -4,18 +4,56 @@ import com.google.protobuf.ByteString
 import com.google.protobuf.UnsafeByteOperations
 import com.nftco.flow.sdk.cadence.EventField
 import com.nftco.flow.sdk.cadence.Field
+import com.nftco.flow.sdk.metrics.FlowInstrumentation
+import com.nftco.flow.sdk.metrics.FlowStage
 import com.nftco.flow.sdk.rlp.RLP
 import com.nftco.flow.sdk.rlp.RLPCodec
 import org.onflow.protobuf.access.Access
 import org.onflow.protobuf.entities.*
+import java.io.InvalidObjectException
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.io.ObjectStreamField
 import java.io.Serializable
 import java.math.BigDecimal
 import java.math.BigInteger
+import java.nio.ByteBuffer
 import java.time.LocalDateTime
 
 private const val FLOW_ID_SIZE_BYTES = 32
 private const val FLOW_ADDRESS_SIZE_BYTES = 8
 
+private fun ByteArray.getLong(offset: Int): Long {
+    var ret = 0L
+    for (i in offset until offset + 8) {
+        ret = (ret shl 8) or (this[i].toLong() and 0xff)
+    }
+    return ret
+}
+
+private fun ByteArray.putLong(offset: Int, value: Long): ByteArray {
+    for (i in 0 until 8) {
+        this[offset + i] = (value ushr (56 - 8 * i)).toByte()
+    }
+    return this
+}
+
+private fun CharArray.putHex(offset: Int, value: Long): CharArray {
+    for (i in 0 until 16) {
+        this[offset + i] = HEX_DIGITS[((value ushr (60 - 4 * i)) and 0xf).toInt()]
+    }
+    return this
+}
+
+// reads a big-endian long at an absolute index, whatever the order of the buffer
+private fun ByteBuffer.getBigEndianLong(index: Int): Long {
+    var ret = 0L
+    for (i in index until index + 8) {
+        ret = (ret shl 8) or (get(i).toLong() and 0xff)
+    }
+    return ret
+}
+
 enum class FlowTransactionStatus(val num: Int) {
     UNKNOWN(0),
     PENDING(1),
@@ -151,8 +189,8 @@ data class FlowAccount(
         return this.keys
             .filter { !it.revoked }
             .find {
-                it.publicKey.base16Value.lowercase().endsWith(publicKey.lowercase())
-                    || publicKey.lowercase().endsWith(it.publicKey.base16Value.lowercase())
+                val key = it.publicKey.base16Value
+                key.endsWith(publicKey, ignoreCase = true) || publicKey.endsWith(key, ignoreCase = true)
             }
             ?.id
             ?: -1
@@ -227,6 +265,11 @@ data class FlowEventResult(
             .setBlockTimestamp(blockTimestamp.asTimestamp())
             .addAllEvents(events.map { it.builder().build() })
     }
+
+    /**
+     * Decodes the events selected by [decoder], with only the fields it asks for.
+     */
+    fun getEvents(decoder: EventDecoder): List<EventField> = decoder.decodeAll(events)
 }
 
 // https://github.com/onflow/flow-go-sdk/blob/878e5e586e0f060b88c6036cf4b0f6a7ab66d198/client/client.go#L515
@@ -309,6 +352,11 @@ data class FlowTransactionResult(
         check(expectedCount == null || ret.size == expectedCount) { "Expected $expectedCount events of type $type but there were ${ret.size}" }
         return ret
     }
+
+    /**
+     * Decodes the events selected by [decoder], with only the fields it asks for.
+     */
+    fun getEvents(decoder: EventDecoder): List<EventField> = decoder.decodeAll(events)
 }
 
 internal class Payload(
@@ -419,11 +467,14 @@ data class FlowTransaction(
             }
         )
 
-    val canonicalPayload: ByteArray get() = RLPCodec.encode(payload)
-    val canonicalAuthorizationEnvelope: ByteArray get() = RLPCodec.encode(authorization)
-    val canonicalPaymentEnvelope: ByteArray get() = RLPCodec.encode(payment)
-    val canonicalTransaction: ByteArray get() = RLPCodec.encode(transaction)
-    val id: FlowId get() = FlowId.of(canonicalTransaction.sha3256Hash())
+    val canonicalPayload: ByteArray get() = FlowInstrumentation.measure(FlowStage.RLP_ENCODE) { RLPCodec.encode(payload) }
+    val canonicalAuthorizationEnvelope: ByteArray get() = FlowInstrumentation.measure(FlowStage.RLP_ENCODE) { RLPCodec.encode(authorization) }
+    val canonicalPaymentEnvelope: ByteArray get() = FlowInstrumentation.measure(FlowStage.RLP_ENCODE) { RLPCodec.encode(payment) }
+    val canonicalTransaction: ByteArray get() = FlowInstrumentation.measure(FlowStage.RLP_ENCODE) { RLPCodec.encode(transaction) }
+    val id: FlowId get() {
+        val encoded = canonicalTransaction
+        return FlowId.of(FlowInstrumentation.measure(FlowStage.HASH) { encoded.sha3256Hash() })
+    }
 
     val signerList: List<FlowAddress> get() {
         val ret = mutableListOf<FlowAddress>()
@@ -746,28 +797,80 @@ interface BytesHolder {
     val base16Value: String get() = bytes.bytesToHex()
     val stringValue: String get() = String(bytes)
     val byteStringValue: ByteString get() = UnsafeByteOperations.unsafeWrap(bytes)
-    val integerValue: BigInteger get() = BigInteger(base16Value, 16)
+    val byteBufferValue: ByteBuffer get() = ByteBuffer.wrap(bytes).asReadOnlyBuffer()
+    val integerValue: BigInteger get() = BigInteger(1, bytes)
 }
 
-data class FlowAddress private constructor(override val bytes: ByteArray) : Serializable, BytesHolder {
+/**
+ * An account address, held as a long. It is serialized in the form of the former data class, with its
+ * serialVersionUID, so that each version reads what the other wrote.
+ */
+class FlowAddress private constructor(val longValue: Long) : Serializable, BytesHolder {
     companion object {
+        private const val serialVersionUID = 5239556442351763713L
+
+        // a private static field of the class, the form serialization expects
+        private val serialPersistentFields = arrayOf(
+            ObjectStreamField("bytes", ByteArray::class.java),
+            ObjectStreamField("formatted", String::class.java)
+        )
+
         @JvmStatic
         fun of(bytes: ByteArray): FlowAddress = FlowAddress(fixedSize(bytes, FLOW_ADDRESS_SIZE_BYTES))
+
+        @JvmStatic
+        fun of(buffer: ByteBuffer): FlowAddress = if (buffer.remaining() == FLOW_ADDRESS_SIZE_BYTES) {
+            FlowAddress(buffer.getBigEndianLong(buffer.position()))
+        } else {
+            FlowAddress(fixedSize(buffer, FLOW_ADDRESS_SIZE_BYTES))
+        }
+
+        @JvmStatic
+        fun of(longValue: Long): FlowAddress = FlowAddress(longValue)
     }
+
+    @Transient
+    private var hex: String? = null
+
+    override val bytes: ByteArray get() = ByteArray(FLOW_ADDRESS_SIZE_BYTES).putLong(0, longValue)
+
+    override val base16Value: String
+        get() = hex ?: String(CharArray(FLOW_ADDRESS_SIZE_BYTES * 2).putHex(0, longValue)).also { hex = it }
+
+    private constructor(bytes: ByteArray) : this(bytes.getLong(0))
+
     constructor(hex: String) : this(fixedSize(hex.hexToBytes(), FLOW_ADDRESS_SIZE_BYTES))
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
         if (javaClass != other?.javaClass) return false
         other as FlowAddress
-        if (!bytes.contentEquals(other.bytes)) return false
+        if (longValue != other.longValue) return false
         return true
     }
 
-    val formatted: String = "0x$base16Value"
+    val formatted: String get() = "0x$base16Value"
 
     override fun hashCode(): Int {
-        return bytes.contentHashCode()
+        return longValue.hashCode()
+    }
+
+    override fun toString(): String = formatted
+
+    @Transient
+    private var serialized: ByteArray? = null
+
+    private fun writeObject(out: ObjectOutputStream) {
+        val fields = out.putFields()
+        fields.put("bytes", bytes)
+        fields.put("formatted", formatted)
+        out.writeFields()
+    }
+
+    private fun readObject(input: ObjectInputStream) {
+        serialized = input.readFields().get("bytes", null) as ByteArray?
     }
+
+    private fun readResolve(): Any = of(serialized ?: throw InvalidObjectException("FlowAddress without bytes"))
 }
 
 data class FlowArgument(override val bytes: ByteArray) : Serializable, BytesHolder {
@@ -852,23 +955,90 @@ data class FlowSignature(override val bytes: ByteArray) : Serializable, BytesHol
     }
 }
 
-data class FlowId private constructor(override val bytes: ByteArray) : Serializable, BytesHolder {
+/**
+ * A block, collection or transaction id, held as four longs. It is serialized in the form of the former data class,
+ * with its serialVersionUID, so that each version reads what the other wrote.
+ */
+class FlowId private constructor(
+    private val word0: Long,
+    private val word1: Long,
+    private val word2: Long,
+    private val word3: Long
+) : Serializable, BytesHolder {
     companion object {
+        private const val serialVersionUID = 4249724212548329660L
+
+        // a private static field of the class, the form serialization expects
+        private val serialPersistentFields = arrayOf(ObjectStreamField("bytes", ByteArray::class.java))
+
         @JvmStatic
         fun of(bytes: ByteArray): FlowId = FlowId(fixedSize(bytes, FLOW_ID_SIZE_BYTES))
+
+        @JvmStatic
+        fun of(buffer: ByteBuffer): FlowId = if (buffer.remaining() == FLOW_ID_SIZE_BYTES) {
+            val position = buffer.position()
+            FlowId(
+                buffer.getBigEndianLong(position),
+                buffer.getBigEndianLong(position + 8),
+                buffer.getBigEndianLong(position + 16),
+                buffer.getBigEndianLong(position + 24)
+            )
+        } else {
+            FlowId(fixedSize(buffer, FLOW_ID_SIZE_BYTES))
+        }
     }
+
+    private val hash: Int = 31 * (31 * (31 * word0.hashCode() + word1.hashCode()) + word2.hashCode()) + word3.hashCode()
+
+    @Transient
+    private var hex: String? = null
+
+    override val bytes: ByteArray
+        get() = ByteArray(FLOW_ID_SIZE_BYTES)
+            .putLong(0, word0)
+            .putLong(8, word1)
+            .putLong(16, word2)
+            .putLong(24, word3)
+
+    override val base16Value: String
+        get() = hex ?: String(
+            CharArray(FLOW_ID_SIZE_BYTES * 2)
+                .putHex(0, word0)
+                .putHex(16, word1)
+                .putHex(32, word2)
+                .putHex(48, word3)
+        ).also { hex = it }
+
+    private constructor(bytes: ByteArray) : this(bytes.getLong(0), bytes.getLong(8), bytes.getLong(16), bytes.getLong(24))
+
     constructor(hex: String) : this(fixedSize(hex.hexToBytes(), FLOW_ID_SIZE_BYTES))
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
         if (javaClass != other?.javaClass) return false
         other as FlowId
-        if (!bytes.contentEquals(other.bytes)) return false
-        return true
+        if (hash != other.hash) return false
+        return word0 == other.word0 && word1 == other.word1 && word2 == other.word2 && word3 == other.word3
     }
 
     override fun hashCode(): Int {
-        return bytes.contentHashCode()
+        return hash
     }
+
+    override fun toString(): String = base16Value
+
+    @Transient
+    private var serialized: ByteArray? = null
+
+    private fun writeObject(out: ObjectOutputStream) {
+        out.putFields().put("bytes", bytes)
+        out.writeFields()
+    }
+
+    private fun readObject(input: ObjectInputStream) {
+        serialized = input.readFields().get("bytes", null) as ByteArray?
+    }
+
+    private fun readResolve(): Any = of(serialized ?: throw InvalidObjectException("FlowId without bytes"))
 }
 
 data class FlowCode(override val bytes: ByteArray) : Serializable, BytesHolder {
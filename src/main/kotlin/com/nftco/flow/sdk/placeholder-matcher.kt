@@ -0,0 +1,141 @@
+package com.nftco.flow.sdk
+
+/**
+ * Replaces placeholders in a script with a single pass over it (Aho–Corasick). Where placeholders overlap the
+ * leftmost one wins, and of those starting at the same position the longest.
+ */
+internal class PlaceholderMatcher(placeholders: Map<String, String>) {
+
+    private val replacements: Array<String>
+    private val lengths: IntArray
+
+    // characters are mapped to small classes, class 0 is any character not used by a placeholder
+    private val asciiClasses = IntArray(128)
+    private val otherClasses: Map<Char, Int>
+    private val alphabetSize: Int
+
+    private val transitions: IntArray
+    private val outputs: IntArray
+    private val outputLinks: IntArray
+
+    init {
+        val patterns = placeholders.entries.filter { it.key.isNotEmpty() }
+        replacements = Array(patterns.size) { patterns[it].value }
+        lengths = IntArray(patterns.size) { patterns[it].key.length }
+
+        var classes = 1
+        val others = HashMap<Char, Int>()
+        for (pattern in patterns) {
+            for (c in pattern.key) {
+                if (c.code < asciiClasses.size) {
+                    if (asciiClasses[c.code] == 0) {
+                        asciiClasses[c.code] = classes++
+                    }
+                } else if (c !in others) {
+                    others[c] = classes++
+                }
+            }
+        }
+        otherClasses = others
+        alphabetSize = classes
+
+        // trie
+        val children = ArrayList<IntArray>()
+        val terminals = ArrayList<Int>()
+        children.add(IntArray(alphabetSize) { -1 })
+        terminals.add(-1)
+        patterns.forEachIndexed { index, pattern ->
+            var node = 0
+            for (c in pattern.key) {
+                val cls = classOf(c)
+                var next = children[node][cls]
+                if (next < 0) {
+                    next = children.size
+                    children.add(IntArray(alphabetSize) { -1 })
+                    terminals.add(-1)
+                    children[node][cls] = next
+                }
+                node = next
+            }
+            terminals[node] = index
+        }
+
+        // failure links folded into a full transition table, breadth first
+        val count = children.size
+        transitions = IntArray(count * alphabetSize)
+        outputs = IntArray(count) { terminals[it] }
+        outputLinks = IntArray(count) { -1 }
+        val fail = IntArray(count)
+        val queue = IntArray(count)
+        var head = 0
+        var tail = 0
+        for (cls in 0 until alphabetSize) {
+            val child = children[0][cls]
+            if (child >= 0) {
+                transitions[cls] = child
+                queue[tail++] = child
+            }
+        }
+        while (head < tail) {
+            val node = queue[head++]
+            val failure = fail[node]
+            outputLinks[node] = if (outputs[failure] >= 0) failure else outputLinks[failure]
+            for (cls in 0 until alphabetSize) {
+                val child = children[node][cls]
+                if (child >= 0) {
+                    fail[child] = transitions[failure * alphabetSize + cls]
+                    transitions[node * alphabetSize + cls] = child
+                    queue[tail++] = child
+                } else {
+                    transitions[node * alphabetSize + cls] = transitions[failure * alphabetSize + cls]
+                }
+            }
+        }
+    }
+
+    private fun classOf(c: Char): Int = when {
+        c.code < asciiClasses.size -> asciiClasses[c.code]
+        otherClasses.isEmpty() -> 0
+        else -> otherClasses[c] ?: 0
+    }
+
+    fun replace(text: String): String {
+        if (replacements.isEmpty()) {
+            return text
+        }
+
+        // for each start position the longest placeholder found there (pattern index + 1)
+        var longest: IntArray? = null
+        var state = 0
+        for (i in text.indices) {
+            state = transitions[state * alphabetSize + classOf(text[i])]
+            var node = if (outputs[state] >= 0) state else outputLinks[state]
+            while (node >= 0) {
+                val pattern = outputs[node]
+                val start = i - lengths[pattern] + 1
+                val matches = longest ?: IntArray(text.length).also { longest = it }
+                val current = matches[start]
+                if (current == 0 || lengths[current - 1] < lengths[pattern]) {
+                    matches[start] = pattern + 1
+                }
+                node = outputLinks[node]
+            }
+        }
+        val matches = longest ?: return text
+
+        val ret = StringBuilder(text.length + 64)
+        var copied = 0
+        var i = 0
+        while (i < text.length) {
+            val match = matches[i]
+            if (match == 0) {
+                i++
+                continue
+            }
+            ret.append(text, copied, i).append(replacements[match - 1])
+            i += lengths[match - 1]
+            copied = i
+        }
+        return ret.append(text, copied, text.length).toString()
+    }
+}
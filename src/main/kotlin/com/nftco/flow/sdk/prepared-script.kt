@@ -0,0 +1,204 @@
+package com.nftco.flow.sdk
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder
+import com.google.protobuf.ByteString
+import com.google.protobuf.UnsafeByteOperations
+import com.nftco.flow.sdk.cadence.Field
+import com.nftco.flow.sdk.cadence.JsonCadenceBuilder
+import com.nftco.flow.sdk.cadence.TYPE_ADDRESS
+import com.nftco.flow.sdk.cadence.TYPE_ARRAY
+import com.nftco.flow.sdk.cadence.TYPE_BOOLEAN
+import com.nftco.flow.sdk.cadence.TYPE_FIX64
+import com.nftco.flow.sdk.cadence.TYPE_INT
+import com.nftco.flow.sdk.cadence.TYPE_INT32
+import com.nftco.flow.sdk.cadence.TYPE_INT64
+import com.nftco.flow.sdk.cadence.TYPE_OPTIONAL
+import com.nftco.flow.sdk.cadence.TYPE_STRING
+import com.nftco.flow.sdk.cadence.TYPE_UFIX64
+import com.nftco.flow.sdk.cadence.TYPE_UINT32
+import com.nftco.flow.sdk.cadence.TYPE_UINT64
+import com.nftco.flow.sdk.cadence.TYPE_UINT8
+import java.math.BigInteger
+
+/**
+ * Encodes a value straight into the JSON-Cadence bytes of a script argument.
+ */
+fun interface ArgumentBinder<T> {
+    fun bind(value: T): ByteString
+}
+
+object ArgumentBinders {
+
+    private val BUILDER = JsonCadenceBuilder()
+    private val VALUE_SUFFIX = "\"}".toByteArray(Charsets.UTF_8)
+
+    @JvmField
+    val FIELD: ArgumentBinder<Field<*>> = ArgumentBinder { UnsafeByteOperations.unsafeWrap(Flow.encodeJsonCadence(it)) }
+
+    @JvmField
+    val STRING: ArgumentBinder<String> = scalar(TYPE_STRING) { JsonStringEncoder.getInstance().quoteAsUTF8(it) }
+
+    @JvmField
+    val BOOLEAN: ArgumentBinder<Boolean> = run {
+        val yes = ByteString.copyFromUtf8("{\"type\":\"$TYPE_BOOLEAN\",\"value\":true}")
+        val no = ByteString.copyFromUtf8("{\"type\":\"$TYPE_BOOLEAN\",\"value\":false}")
+        ArgumentBinder { if (it) yes else no }
+    }
+
+    @JvmField
+    val ADDRESS: ArgumentBinder<FlowAddress> = scalar(TYPE_ADDRESS) { ascii(it.formatted) }
+
+    @JvmField
+    val UINT8: ArgumentBinder<Int> = scalar(TYPE_UINT8) {
+        require(it in 0..0xFF) { "$it is out of the UInt8 range" }
+        ascii(it.toString())
+    }
+
+    @JvmField
+    val INT32: ArgumentBinder<Int> = scalar(TYPE_INT32) { ascii(it.toString()) }
+
+    @JvmField
+    val UINT32: ArgumentBinder<Long> = scalar(TYPE_UINT32) {
+        require(it in 0..0xFFFFFFFFL) { "$it is out of the UInt32 range" }
+        ascii(it.toString())
+    }
+
+    @JvmField
+    val INT64: ArgumentBinder<Long> = scalar(TYPE_INT64) { ascii(it.toString()) }
+
+    /**
+     * Binds the bits of a long read as unsigned, like [java.lang.Long.toUnsignedString], so that negative values
+     * stand for 2^63 and over.
+     */
+    @JvmField
+    val UINT64: ArgumentBinder<Long> = scalar(TYPE_UINT64) { ascii(java.lang.Long.toUnsignedString(it)) }
+
+    @JvmField
+    val INT: ArgumentBinder<BigInteger> = scalar(TYPE_INT) { ascii(it.toString()) }
+
+    @JvmField
+    val FIX64: ArgumentBinder<Number> = scalar(TYPE_FIX64) { ascii(BUILDER.fix64(it).value!!) }
+
+    @JvmField
+    val UFIX64: ArgumentBinder<Number> = scalar(TYPE_UFIX64) { ascii(BUILDER.ufix64(it).value!!) }
+
+    /**
+     * A binder for values written as `{"type":"<type>","value":"<text>"}`, [text] has to return the quoted
+     * content already escaped.
+     */
+    @JvmStatic
+    fun <T> scalar(type: String, text: (T) -> ByteArray): ArgumentBinder<T> {
+        val prefix = "{\"type\":\"$type\",\"value\":\"".toByteArray(Charsets.UTF_8)
+        return ArgumentBinder { value ->
+            val content = text(value)
+            val ret = ByteArray(prefix.size + content.size + VALUE_SUFFIX.size)
+            System.arraycopy(prefix, 0, ret, 0, prefix.size)
+            System.arraycopy(content, 0, ret, prefix.size, content.size)
+            System.arraycopy(VALUE_SUFFIX, 0, ret, prefix.size + content.size, VALUE_SUFFIX.size)
+            UnsafeByteOperations.unsafeWrap(ret)
+        }
+    }
+
+    @JvmStatic
+    fun <T> optional(binder: ArgumentBinder<T>): ArgumentBinder<T?> {
+        val none = ByteString.copyFromUtf8("{\"type\":\"$TYPE_OPTIONAL\",\"value\":null}")
+        val prefix = ByteString.copyFromUtf8("{\"type\":\"$TYPE_OPTIONAL\",\"value\":")
+        val suffix = ByteString.copyFromUtf8("}")
+        return ArgumentBinder { value ->
+            if (value == null) {
+                none
+            } else {
+                prefix.concat(binder.bind(value)).concat(suffix)
+            }
+        }
+    }
+
+    @JvmStatic
+    fun <T> array(binder: ArgumentBinder<T>): ArgumentBinder<Iterable<T>> {
+        val prefix = ByteString.copyFromUtf8("{\"type\":\"$TYPE_ARRAY\",\"value\":[")
+        val separator = ByteString.copyFromUtf8(",")
+        val suffix = ByteString.copyFromUtf8("]}")
+        return ArgumentBinder { values ->
+            val ret = ByteString.newOutput()
+            prefix.writeTo(ret)
+            values.forEachIndexed { i, value ->
+                if (i > 0) {
+                    separator.writeTo(ret)
+                }
+                binder.bind(value).writeTo(ret)
+            }
+            suffix.writeTo(ret)
+            ret.toByteString()
+        }
+    }
+
+    private fun ascii(value: String): ByteArray = value.toByteArray(Charsets.US_ASCII)
+}
+
+/**
+ * A script that has had its address placeholders replaced once, and can be executed any number of times with only
+ * the arguments being encoded on each call.
+ */
+class PreparedScript(
+    val script: FlowScript
+) {
+
+    companion object {
+        @JvmStatic
+        @JvmOverloads
+        fun of(
+            code: String,
+            chainId: FlowChainId = Flow.DEFAULT_CHAIN_ID,
+            addresses: Map<String, FlowAddress> = mapOf(),
+            addressRegistry: AddressRegistry = Flow.DEFAULT_ADDRESS_REGISTRY
+        ): PreparedScript = PreparedScript(addressRegistry.resolveScript(code, chainId, addresses))
+    }
+
+    class Arguments internal constructor() {
+        internal val values: MutableList<ByteString> = ArrayList(4)
+
+        fun <T> arg(binder: ArgumentBinder<T>, value: T) {
+            values.add(binder.bind(value))
+        }
+        fun arg(argument: ByteString) {
+            values.add(argument)
+        }
+        fun arg(argument: Field<*>) = arg(ArgumentBinders.FIELD, argument)
+    }
+
+    fun arguments(block: Arguments.() -> Unit): List<ByteString> {
+        val ret = Arguments()
+        block(ret)
+        return ret.values
+    }
+
+    @JvmOverloads
+    fun execute(api: FlowAccessApi, block: Arguments.() -> Unit = {}): FlowScriptResponse {
+        val arguments = arguments(block)
+        return try {
+            api.executeScriptAtLatestBlock(script, arguments)
+        } catch (t: Throwable) {
+            throw FlowException("Error while running script", t)
+        }
+    }
+
+    @JvmOverloads
+    fun executeAtBlockHeight(api: FlowAccessApi, height: Long, block: Arguments.() -> Unit = {}): FlowScriptResponse {
+        val arguments = arguments(block)
+        return try {
+            api.executeScriptAtBlockHeight(script, height, arguments)
+        } catch (t: Throwable) {
+            throw FlowException("Error while running script", t)
+        }
+    }
+
+    @JvmOverloads
+    fun executeAtBlockId(api: FlowAccessApi, blockId: FlowId, block: Arguments.() -> Unit = {}): FlowScriptResponse {
+        val arguments = arguments(block)
+        return try {
+            api.executeScriptAtBlockId(script, blockId, arguments)
+        } catch (t: Throwable) {
+            throw FlowException("Error while running script", t)
+        }
+    }
+}
@@ -38,12 +38,10 @@ class ScriptBuilder {
         this.script = script
     }
     fun script(script: String, chainId: FlowChainId = _chainId, addresses: Map<String, FlowAddress> = mapOf()) = script(
-        FlowScript(
-            addressRegistry.processScript(
-                script = script,
-                chainId = chainId,
-                addresses = addresses
-            )
+        addressRegistry.resolveScript(
+            script = script,
+            chainId = chainId,
+            addresses = addresses
         )
     )
     fun script(code: ByteArray, chainId: FlowChainId = _chainId, addresses: Map<String, FlowAddress> = mapOf()) = script(String(code), chainId, addresses)
@@ -0,0 +1,133 @@
+@file:JvmName("AsyncStreams")
+
+package com.nftco.flow.sdk.streams
+
+import com.nftco.flow.sdk.AsyncFlowAccessApi
+import com.nftco.flow.sdk.EventTypeIndex
+import com.nftco.flow.sdk.FlowBlock
+import com.nftco.flow.sdk.FlowEvent
+import com.nftco.flow.sdk.FlowEventResult
+import com.nftco.flow.sdk.FlowException
+import com.nftco.flow.sdk.FlowId
+import com.nftco.flow.sdk.FlowTransactionResult
+import com.nftco.flow.sdk.FlowTransactionStatus
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.mapNotNull
+import kotlinx.coroutines.future.await
+import java.util.ArrayDeque
+import java.util.concurrent.CompletableFuture
+
+/**
+ * Streams blocks from [startHeight] up to and including [endHeight], waiting for new blocks once the latest one has
+ * been reached. At most [prefetch] blocks are requested ahead of the collector, and cancelling the collection
+ * cancels the outstanding calls.
+ */
+fun AsyncFlowAccessApi.blocks(
+    startHeight: Long,
+    endHeight: Long = Long.MAX_VALUE,
+    prefetch: Int = 8,
+    pollIntervalMs: Long = 1000
+): Flow<FlowBlock> = flow {
+    require(prefetch > 0) { "prefetch must be positive" }
+    val window = ArrayDeque<CompletableFuture<FlowBlock?>>(prefetch)
+    try {
+        var latest = getLatestBlockHeader().await().height
+        var requested = startHeight
+        var height = startHeight
+        while (height <= endHeight) {
+            while (window.size < prefetch && requested <= endHeight && requested <= latest) {
+                window.add(getBlockByHeight(requested++))
+            }
+            if (window.isEmpty()) {
+                delay(pollIntervalMs)
+                latest = getLatestBlockHeader().await().height
+                continue
+            }
+            val block = window.poll().await()
+                ?: throw FlowException("Block at height $height not found")
+            emit(block)
+            height++
+        }
+    } finally {
+        window.forEach { it.cancel(true) }
+    }
+}
+
+/**
+ * Streams the events of [type] from [startHeight] up to and including [endHeight] in block order, fetching
+ * [batchSize] sealed heights per call with at most [prefetch] calls in flight.
+ */
+fun AsyncFlowAccessApi.events(
+    type: String,
+    startHeight: Long,
+    endHeight: Long = Long.MAX_VALUE,
+    batchSize: Int = 250,
+    prefetch: Int = 4,
+    pollIntervalMs: Long = 1000
+): Flow<FlowEventResult> = flow {
+    require(batchSize > 0) { "batchSize must be positive" }
+    require(prefetch > 0) { "prefetch must be positive" }
+    val window = ArrayDeque<CompletableFuture<List<FlowEventResult>>>(prefetch)
+    try {
+        var sealed = getLatestBlock(true).await().height
+        var requested = startHeight
+        while (requested <= endHeight || window.isNotEmpty()) {
+            while (window.size < prefetch && requested <= endHeight && requested <= sealed) {
+                val last = minOf(requested + (batchSize - 1), endHeight, sealed)
+                window.add(getEventsForHeightRange(type, requested..last))
+                requested = last + 1
+            }
+            if (window.isEmpty()) {
+                delay(pollIntervalMs)
+                sealed = getLatestBlock(true).await().height
+                continue
+            }
+            window.poll().await().forEach { emit(it) }
+        }
+    } finally {
+        window.forEach { it.cancel(true) }
+    }
+}
+
+/**
+ * Keeps the events of the stream that have handlers in [index], dropping the blocks left without any.
+ */
+fun Flow<FlowEventResult>.matching(index: EventTypeIndex<*>): Flow<FlowEventResult> =
+    mapNotNull { result -> index.filter(result).takeIf { it.events.isNotEmpty() } }
+
+/**
+ * Collects the stream, calling [action] with every event and each of its handlers in [index], in block and event order.
+ */
+suspend fun <H> Flow<FlowEventResult>.dispatch(index: EventTypeIndex<H>, action: suspend (H, FlowEventResult, FlowEvent) -> Unit) =
+    collect { result ->
+        for (event in result.events) {
+            for (handler in index.handlersOf(event.type)) {
+                action(handler, result, event)
+            }
+        }
+    }
+
+/**
+ * Polls the result of a transaction and emits it every time its status changes, completing once it is sealed or
+ * expired.
+ */
+fun AsyncFlowAccessApi.transactionStatus(
+    id: FlowId,
+    pollIntervalMs: Long = 500
+): Flow<FlowTransactionResult> = flow {
+    var status: FlowTransactionStatus? = null
+    while (true) {
+        val result = getTransactionResultById(id).await()
+        if (result != null && result.status != status) {
+            status = result.status
+            emit(result)
+            if (status == FlowTransactionStatus.SEALED || status == FlowTransactionStatus.EXPIRED) {
+                return@flow
+            }
+        }
+        delay(pollIntervalMs)
+    }
+}
@@ -0,0 +1,38 @@
+@file:JvmName("ReactiveStreams")
+
+package com.nftco.flow.sdk.streams
+
+import com.nftco.flow.sdk.AsyncFlowAccessApi
+import com.nftco.flow.sdk.FlowBlock
+import com.nftco.flow.sdk.FlowEventResult
+import com.nftco.flow.sdk.FlowId
+import com.nftco.flow.sdk.FlowTransactionResult
+import kotlinx.coroutines.reactive.asPublisher
+import org.reactivestreams.Publisher
+
+/**
+ * Reactive Streams variants of the streams in `AsyncStreams`, calls are only made as the subscriber requests items.
+ */
+@JvmOverloads
+fun AsyncFlowAccessApi.blocksPublisher(
+    startHeight: Long,
+    endHeight: Long = Long.MAX_VALUE,
+    prefetch: Int = 8,
+    pollIntervalMs: Long = 1000
+): Publisher<FlowBlock> = blocks(startHeight, endHeight, prefetch, pollIntervalMs).asPublisher()
+
+@JvmOverloads
+fun AsyncFlowAccessApi.eventsPublisher(
+    type: String,
+    startHeight: Long,
+    endHeight: Long = Long.MAX_VALUE,
+    batchSize: Int = 250,
+    prefetch: Int = 4,
+    pollIntervalMs: Long = 1000
+): Publisher<FlowEventResult> = events(type, startHeight, endHeight, batchSize, prefetch, pollIntervalMs).asPublisher()
+
+@JvmOverloads
+fun AsyncFlowAccessApi.transactionStatusPublisher(
+    id: FlowId,
+    pollIntervalMs: Long = 500
+): Publisher<FlowTransactionResult> = transactionStatus(id, pollIntervalMs).asPublisher()
@@ -2,22 +2,32 @@ package com.nftco.flow.sdk
 
 import com.nftco.flow.sdk.cadence.Field
 import com.nftco.flow.sdk.cadence.JsonCadenceBuilder
+import com.nftco.flow.sdk.jfr.FlowJfr
 import java.util.concurrent.TimeoutException
 import java.util.logging.Logger
 
 @Throws(TimeoutException::class)
 fun waitForSeal(api: FlowAccessApi, transactionId: FlowId, pauseMs: Number = 500L, timeoutMs: Number = 10_000L): FlowTransactionResult {
     check(pauseMs.toLong() < timeoutMs.toLong()) { "pause must be less than timeout" }
+    val event = FlowJfr.beginSealWait()
     val start = System.currentTimeMillis()
-    var ret: FlowTransactionResult
-    while (true) {
-        ret = checkNotNull(api.getTransactionResultById(transactionId)) { "Transaction with that id not found" }
-        if (ret.status == FlowTransactionStatus.SEALED) {
-            return ret
+    var ret: FlowTransactionResult? = null
+    var polls = 0
+    try {
+        while (true) {
+            polls++
+            ret = checkNotNull(api.getTransactionResultById(transactionId)) { "Transaction with that id not found" }
+            if (ret.status == FlowTransactionStatus.SEALED) {
+                return ret
+            }
+            Thread.sleep(pauseMs.toLong())
+            if (System.currentTimeMillis() - start > timeoutMs.toLong()) {
+                throw TimeoutException("Timeout waiting for seal")
+            }
         }
-        Thread.sleep(pauseMs.toLong())
-        if (System.currentTimeMillis() - start > timeoutMs.toLong()) {
-            throw TimeoutException("Timeout waiting for seal")
+    } finally {
+        if (event != null) {
+            FlowJfr.commitSealWait(event, transactionId.base16Value, ret?.status?.name, polls)
         }
     }
 }
@@ -146,7 +156,7 @@ class TransactionBuilder(
     fun script(script: FlowScript) {
         this.script = script
     }
-    fun script(code: String, chain: FlowChainId = _chainId, addresses: Map<String, FlowAddress> = mapOf()) = script(FlowScript(addressRegistry.processScript(code, chain, addresses)))
+    fun script(code: String, chain: FlowChainId = _chainId, addresses: Map<String, FlowAddress> = mapOf()) = script(addressRegistry.resolveScript(code, chain, addresses))
     fun script(code: ByteArray, chain: FlowChainId = _chainId, addresses: Map<String, FlowAddress> = mapOf()) = script(String(code), chain, addresses)
     fun script(chain: FlowChainId = _chainId, addresses: Map<String, FlowAddress> = mapOf(), code: () -> String) = this.script(code(), chain, addresses)
 
@@ -0,0 +1,73 @@
+package com.nftco.flow.sdk
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class AddressCollectionsTest {
+
+    @Test
+    fun `Pool hands out one instance per address`() {
+        val pool = FlowAddressPool(maxSize = 2)
+        val a = pool.of("0x01")
+        assertThat(pool.of(1L)).isSameAs(a)
+        assertThat(pool.intern(FlowAddress.of(byteArrayOf(1)))).isSameAs(a)
+        assertThat(pool.of("0x02")).isSameAs(pool.of(2L))
+
+        val full = FlowAddress("0x03")
+        assertThat(pool.intern(full)).isSameAs(full)
+        assertThat(pool.size).isEqualTo(2)
+    }
+
+    @Test
+    fun `Map behaves like a HashMap`() {
+        val random = Random(42)
+        val map = FlowAddressMap<String>()
+        val expected = HashMap<FlowAddress, String>()
+        // few distinct keys, including the zero address, so that removals and collisions are frequent
+        val keys = (0 until 200).map { FlowAddress.of(if (it == 0) 0L else random.nextLong()) }
+
+        repeat(20_000) {
+            val key = keys[random.nextInt(keys.size)]
+            when (random.nextInt(3)) {
+                0 -> assertThat(map.put(key, "v$it")).isEqualTo(expected.put(key, "v$it"))
+                1 -> assertThat(map.remove(key)).isEqualTo(expected.remove(key))
+                else -> assertThat(map[key]).isEqualTo(expected[key])
+            }
+            assertThat(map.size).isEqualTo(expected.size)
+        }
+
+        val entries = HashMap<FlowAddress, String>()
+        map.forEach { address, value -> entries[address] = value }
+        assertThat(entries).isEqualTo(expected)
+        assertThat(map.keys()).containsExactlyInAnyOrderElementsOf(expected.keys)
+
+        map.clear()
+        assertThat(map.isEmpty()).isTrue
+        assertThat(map[keys[0]]).isNull()
+    }
+
+    @Test
+    fun `Long map keeps primitive values`() {
+        val map = FlowAddressLongMap(defaultValue = -1)
+        val a = FlowAddress("0x01")
+        val b = FlowAddress("0xf8d6e0586b0a20c7")
+
+        assertThat(map[a]).isEqualTo(-1)
+        assertThat(map.addTo(a, 11)).isEqualTo(10)
+        assertThat(map.addTo(a, 5)).isEqualTo(15)
+        assertThat(map.put(b, 7)).isEqualTo(-1)
+        (1L..1000L).forEach { map.addTo(it + 1000, it) }
+
+        assertThat(map.size).isEqualTo(1002)
+        assertThat(map[a]).isEqualTo(15)
+        assertThat(map[b]).isEqualTo(7)
+        assertThat(map[1500L]).isEqualTo(499)
+        assertThat(map.remove(a)).isEqualTo(15)
+        assertThat(map.containsKey(a)).isFalse
+
+        var total = 0L
+        map.forEach { _, value -> total += value }
+        assertThat(total).isEqualTo(7 + (1000L * 1001 / 2) - 1000)
+    }
+}
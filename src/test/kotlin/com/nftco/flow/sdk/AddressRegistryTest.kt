@@ -94,4 +94,73 @@ internal class AddressRegistryTest {
             )
         )
     }
+
+    @Test
+    fun `Can process a script with overlapping placeholders and overrides`() {
+        registry.register("0xTOKEN", FlowAddress("0x01"), FlowChainId.EMULATOR)
+        registry.register("0xTOKENS", FlowAddress("0x02"), FlowChainId.EMULATOR)
+
+        assertEquals(
+            "0x0000000000000001 0x0000000000000002 0x0ae53cb6e3f42a79 0xee82856bf20e2aa6",
+            registry.processScript("0xTOKEN 0xTOKENS 0xFLOWTOKEN 0xFUNGIBLETOKEN", FlowChainId.EMULATOR)
+        )
+        assertEquals(
+            "0x0000000000000003 0x0000000000000002 0x0000000000000004",
+            registry.processScript(
+                "0xTOKEN 0xTOKENS 0xOTHER",
+                FlowChainId.EMULATOR,
+                mapOf("0xTOKEN" to FlowAddress("0x03"), "0xOTHER" to FlowAddress("0x04"))
+            )
+        )
+        assertEquals("no placeholders", registry.processScript("no placeholders", FlowChainId.EMULATOR))
+    }
+
+    @Test
+    fun `Resolved scripts are cached until the registry changes`() {
+        val script = "import FungibleToken from 0xFUNGIBLETOKEN"
+        val first = registry.resolveScript(script, FlowChainId.EMULATOR)
+        assertEquals(FlowScript("import FungibleToken from 0xee82856bf20e2aa6"), first)
+        assertSame(first, registry.resolveScript(script, FlowChainId.EMULATOR))
+
+        registry.register(AddressRegistry.FUNGIBLE_TOKEN, FlowAddress("0x05"), FlowChainId.EMULATOR)
+        assertEquals(
+            FlowScript("import FungibleToken from 0x0000000000000005"),
+            registry.resolveScript(script, FlowChainId.EMULATOR)
+        )
+    }
+
+    @Test
+    fun `Concurrent registrations are not lost`() {
+        val version = registry.version
+        val threads = (0 until 8).map { t ->
+            Thread {
+                repeat(50) { i ->
+                    registry.register("0xCONTRACT_${t}_$i", FlowAddress.of(byteArrayOf(t.toByte(), i.toByte())), FlowChainId.TESTNET)
+                }
+            }
+        }
+        threads.forEach { it.start() }
+        threads.forEach { it.join() }
+
+        assertEquals(version + 400, registry.version)
+        for (t in 0 until 8) {
+            for (i in 0 until 50) {
+                assertEquals(
+                    FlowAddress.of(byteArrayOf(t.toByte(), i.toByte())),
+                    registry.addressOf("0xCONTRACT_${t}_$i", FlowChainId.TESTNET)
+                )
+            }
+        }
+    }
+
+    @Test
+    fun `Can register addresses in bulk`() {
+        val version = registry.version
+        registry.registerAll(
+            mapOf("0xA" to FlowAddress("0x0a"), "0xB" to FlowAddress("0x0b")),
+            FlowChainId.EMULATOR
+        )
+        assertEquals(version + 1, registry.version)
+        assertEquals("0x000000000000000a 0x000000000000000b", registry.processScript("0xA 0xB", FlowChainId.EMULATOR))
+    }
 }
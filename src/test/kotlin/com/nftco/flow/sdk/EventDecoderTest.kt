@@ -0,0 +1,100 @@
+package com.nftco.flow.sdk
+
+import com.nftco.flow.sdk.cadence.*
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+
+class EventDecoderTest {
+
+    private val depositType = "A.0b2a3299cc857e29.TopShot.Deposit"
+    private val withdrawType = "A.0b2a3299cc857e29.TopShot.Withdraw"
+
+    private fun deposit(id: Long): EventField = marshall {
+        event {
+            compositeOfPairs(depositType) {
+                listOf("id" to uint64(id), "to" to optional(address("0x0b2a3299cc857e29"))) +
+                    (0 until 16).map { "extra$it" to array(listOf(string("a$it"), string("b$it"))) } +
+                    listOf("serial" to uint32(id * 2))
+            }
+        }
+    }
+
+    private fun event(type: String, payload: ByteArray, index: Int = 0) = FlowEvent(
+        type = type,
+        transactionId = FlowId.of(ByteArray(32) { 1 }),
+        transactionIndex = 0,
+        eventIndex = index,
+        payload = FlowEventPayload(payload)
+    )
+
+    @Test
+    fun `Decodes only the selected fields`() {
+        val full = deposit(42)
+        val decoder = EventDecoder.builder().select(depositType, "serial", "id").build()
+
+        val decoded = decoder.decode(event(depositType, Flow.encodeJsonCadence(full)))!!
+
+        assertThat(decoded.id).isEqualTo(depositType)
+        assertThat(decoded.value!!.fields.map { it.name }).containsExactly("id", "serial")
+        assertThat(decoded.get<Field<*>>("id")).isEqualTo(full["id"])
+        assertThat(decoded.get<Field<*>>("serial")).isEqualTo(full["serial"])
+        assertThat("to" in decoded).isFalse
+    }
+
+    @Test
+    fun `Skips other types without reading their payload`() {
+        val decoder = EventDecoder.builder().select(depositType, "id").build()
+        val events = listOf(
+            event(withdrawType, "not json".toByteArray(), 0),
+            event(depositType, Flow.encodeJsonCadence(deposit(1)), 1),
+            event(depositType, Flow.encodeJsonCadence(deposit(2)), 2)
+        )
+
+        assertThat(decoder.decode(events[0])).isNull()
+        assertThat(decoder.decodeAll(events).map { it.get<Field<*>>("id")!!.value }).containsExactly("1", "2")
+        assertThat(FlowTransactionResult(FlowTransactionStatus.SEALED, 0, "", events).getEvents(decoder)).hasSize(2)
+    }
+
+    @Test
+    fun `Stops reading once the selected fields are found`() {
+        val decoder = EventDecoder.builder().select(depositType, "id").build()
+        val json = String(Flow.encodeJsonCadence(deposit(7)))
+        val truncated = json.substring(0, json.indexOf("extra0"))
+
+        assertThat(decoder.decode(event(depositType, truncated.toByteArray()))!!.get<Field<*>>("id")!!.value).isEqualTo("7")
+    }
+
+    @Test
+    fun `Handles any property order`() {
+        val json = """
+            {"value": {"fields": [
+                {"value": {"value": "5", "type": "UInt64"}, "name": "id"},
+                {"name": "other", "value": {"type": "String", "value": "x"}}
+            ], "id": "$depositType"}, "type": "Event"}
+        """
+        val decoder = EventDecoder.builder().select(depositType, "id", "missing").build()
+
+        val decoded = decoder.decode(event(depositType, json.toByteArray()))!!
+
+        assertThat(decoded.id).isEqualTo(depositType)
+        assertThat(decoded.get<Field<*>>("id")).isEqualTo(UInt64NumberField("5"))
+        assertThat(decoded.value!!.fields).hasSize(1)
+    }
+
+    @Test
+    fun `Decodes every field with selectAll`() {
+        val full = deposit(3)
+        val decoder = EventDecoder.builder().selectAll(depositType).build()
+
+        assertThat(decoder.decode(event(depositType, Flow.encodeJsonCadence(full)))).isEqualTo(full)
+    }
+
+    @Test
+    fun `Rejects payloads that are not events`() {
+        val decoder = EventDecoder.builder().select(depositType, "id").build()
+        val payload = Flow.encodeJsonCadence(StringField("x"))
+
+        assertThatThrownBy { decoder.decode(event(depositType, payload)) }.hasMessageContaining("Expected an Event")
+    }
+}
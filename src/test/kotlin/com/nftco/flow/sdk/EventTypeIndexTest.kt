@@ -0,0 +1,96 @@
+package com.nftco.flow.sdk
+
+import com.nftco.flow.sdk.streams.dispatch
+import com.nftco.flow.sdk.streams.matching
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.runBlocking
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+import java.time.LocalDateTime
+
+class EventTypeIndexTest {
+
+    private val topShotDeposit = "A.0b2a3299cc857e29.TopShot.Deposit"
+    private val otherDeposit = "A.1d7e57aa55817448.TopShot.Deposit"
+    private val withdraw = "A.0b2a3299cc857e29.TopShot.Withdraw"
+
+    private val index = EventTypeIndex.builder<String>()
+        .add(topShotDeposit, "exact")
+        .add("A.*.TopShot.Deposit", "any address")
+        .add("*.Withdraw", "suffix")
+        .add("*Deposit", "suffix deposit")
+        .add(topShotDeposit, "exact")
+        .build()
+
+    private fun event(type: String, index: Int) = FlowEvent(type, FlowId.of(ByteArray(32)), 0, index, FlowEventPayload(ByteArray(0)))
+
+    private fun block(height: Long, vararg types: String) = FlowEventResult(
+        FlowId.of(ByteArray(32) { height.toByte() }),
+        height,
+        LocalDateTime.MIN,
+        types.mapIndexed { i, type -> event(type, i) }
+    )
+
+    @Test
+    fun `Matches exact types, any address and suffixes in the order they were added`() {
+        assertThat(index.size).isEqualTo(5)
+        assertThat(index.handlersOf(topShotDeposit)).containsExactly("exact", "any address", "suffix deposit")
+        assertThat(index.handlersOf(otherDeposit)).containsExactly("any address", "suffix deposit")
+        assertThat(index.handlersOf(withdraw)).containsExactly("suffix")
+        assertThat(index.handlersOf("A.0b2a3299cc857e29.Market.Deposit")).containsExactly("suffix deposit")
+        assertThat(index.handlersOf("flow.AccountCreated")).isEmpty()
+        assertThat(index.matches("A.0b2a3299cc857e29.TopShot.Minted")).isFalse
+    }
+
+    @Test
+    fun `Resolves the same way with or without the cache`() {
+        val uncached = EventTypeIndex.builder<Int>().maxCachedTypes(0)
+        val cached = EventTypeIndex.builder<Int>()
+        for (i in 0 until 1000) {
+            val type = "A.%016x.Collection$i.Deposit".format(i)
+            uncached.add(type, i)
+            cached.add(type, i)
+        }
+        uncached.add("A.*.Collection7.Deposit", -1).suffix("", -2)
+        cached.add("A.*.Collection7.Deposit", -1).suffix("", -2)
+        val first = uncached.build()
+        val second = cached.build()
+
+        for (i in 0 until 1000) {
+            val type = "A.%016x.Collection$i.Deposit".format(i)
+            assertThat(first.handlersOf(type)).isEqualTo(second.handlersOf(type)).isEqualTo(second.handlersOf(type))
+        }
+        assertThat(first.handlersOf("A.%016x.Collection7.Deposit".format(7))).containsExactly(7, -1, -2)
+        assertThat(first.handlersOf("anything")).containsExactly(-2)
+    }
+
+    @Test
+    fun `Rejects invalid patterns`() {
+        assertThatThrownBy { EventTypeIndex.builder<String>().add("", "h") }.isInstanceOf(IllegalArgumentException::class.java)
+        assertThatThrownBy { EventTypeIndex.builder<String>().add("A.*.*", "h") }.isInstanceOf(IllegalArgumentException::class.java)
+    }
+
+    @Test
+    fun `Filters and dispatches event results`() = runBlocking<Unit> {
+        val blocks = listOf(
+            block(1, topShotDeposit, "flow.AccountCreated", withdraw),
+            block(2, "flow.AccountCreated"),
+            block(3, otherDeposit)
+        )
+
+        assertThat(index.filter(blocks[0]).events.map { it.type }).containsExactly(topShotDeposit, withdraw)
+        assertThat(index.filter(blocks[2])).isSameAs(blocks[2])
+        assertThat(flowOf(*blocks.toTypedArray()).matching(index).toList().map { it.blockHeight }).containsExactly(1, 3)
+
+        val dispatched = mutableListOf<String>()
+        flowOf(*blocks.toTypedArray()).dispatch(index) { handler, result, event ->
+            dispatched.add("${result.blockHeight}:${event.eventIndex}:$handler")
+        }
+        assertThat(dispatched).containsExactly(
+            "1:0:exact", "1:0:any address", "1:0:suffix deposit", "1:2:suffix",
+            "3:0:any address", "3:0:suffix deposit"
+        )
+    }
+}
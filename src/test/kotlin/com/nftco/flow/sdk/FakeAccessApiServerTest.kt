@@ -0,0 +1,83 @@
+package com.nftco.flow.sdk
+
+import com.nftco.flow.sdk.test.FakeAccessApiConfig
+import com.nftco.flow.sdk.test.FakeAccessApiServer
+import io.grpc.Status
+import io.grpc.StatusRuntimeException
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Test
+
+class FakeAccessApiServerTest {
+
+    private val config = FakeAccessApiConfig(
+        initialHeight = 20,
+        sealingLag = 2,
+        collectionsPerBlock = 2,
+        transactionsPerCollection = 3,
+        eventsPerTransaction = 2,
+        eventTypes = listOf("A.01.Fake.Deposit", "A.01.Fake.Withdraw")
+    )
+    private val server = FakeAccessApiServer(config)
+    private val api = server.newAccessApi()
+
+    @AfterEach
+    fun tearDown() {
+        api.close()
+        server.close()
+    }
+
+    @Test
+    fun `Serves the same chain for the same seed`() {
+        FakeAccessApiServer(config).use { other ->
+            other.newAccessApi().use { otherApi ->
+                assertThat(otherApi.getBlockByHeight(5)).isEqualTo(api.getBlockByHeight(5))
+            }
+        }
+        val block = api.getBlockByHeight(5)!!
+        assertThat(api.getBlockById(block.id)).isEqualTo(block)
+        assertThat(api.getBlockByHeight(4)!!.id).isEqualTo(block.parentId)
+    }
+
+    @Test
+    fun `Links blocks, collections, transactions and events`() {
+        val block = api.getBlockByHeight(7)!!
+        assertThat(block.collectionGuarantees).hasSize(2)
+
+        val collection = api.getCollectionById(block.collectionGuarantees[1].id)!!
+        assertThat(collection.transactionIds).hasSize(3)
+
+        val transactionId = collection.transactionIds[0]
+        assertThat(api.getTransactionById(transactionId)).isNotNull
+        val result = api.getTransactionResultById(transactionId)!!
+        assertThat(result.status).isEqualTo(FlowTransactionStatus.SEALED)
+        assertThat(result.events.map { it.type }).containsExactly("A.01.Fake.Deposit", "A.01.Fake.Withdraw")
+        assertThat(result.events[0].event.id).isEqualTo("A.01.Fake.Deposit")
+    }
+
+    @Test
+    fun `Serves events up to the sealed height`() {
+        assertThat(api.getLatestBlockHeader().height).isEqualTo(20)
+        val results = api.getEventsForHeightRange("A.01.Fake.Deposit", 10L..18L)
+        assertThat(results.map { it.blockHeight }).isEqualTo((10L..18L).toList())
+        assertThat(results.map { it.events.size }.distinct()).containsExactly(6)
+
+        assertThrows(StatusRuntimeException::class.java) {
+            api.getEventsForHeightRange("A.01.Fake.Deposit", 10L..19L)
+        }
+        server.advance(1)
+        assertThat(api.getEventsForHeightRange("A.01.Fake.Deposit", 19L..19L)).hasSize(1)
+    }
+
+    @Test
+    fun `Injects failures`() {
+        server.failNext(2, Status.RESOURCE_EXHAUSTED)
+        repeat(2) {
+            val e = assertThrows(StatusRuntimeException::class.java) { api.ping() }
+            assertThat(e.status.code).isEqualTo(Status.Code.RESOURCE_EXHAUSTED)
+        }
+        api.ping()
+        assertThat(server.calls).isEqualTo(3)
+    }
+}
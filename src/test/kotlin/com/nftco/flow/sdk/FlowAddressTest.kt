@@ -2,6 +2,14 @@ package com.nftco.flow.sdk
 
 import org.assertj.core.api.Assertions
 import org.junit.jupiter.api.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.io.ObjectStreamClass
+import java.math.BigInteger
+import java.nio.ByteBuffer
+import java.util.Base64
 
 class FlowAddressTest {
 
@@ -43,4 +51,50 @@ class FlowAddressTest {
         Assertions.assertThatThrownBy { FlowAddress("0").base16Value }
         Assertions.assertThatThrownBy { FlowAddress("18eb4ee6b3c026d31").bytes }
     }
+
+    @Test
+    fun `Can create FlowAddress from a ByteBuffer`() {
+        val address = FlowAddress.of(ByteBuffer.wrap("18eb4ee6b3c026d2".hexToBytes()).asReadOnlyBuffer())
+        Assertions.assertThat(address).isEqualTo(FlowAddress("0x18eb4ee6b3c026d2"))
+        Assertions.assertThat(address.formatted).isEqualTo("0x18eb4ee6b3c026d2")
+        Assertions.assertThat(address.integerValue).isEqualTo(BigInteger("18eb4ee6b3c026d2", 16))
+        Assertions.assertThatThrownBy { FlowAddress.of(ByteBuffer.wrap("18eb4ee6b3c026d231".hexToBytes())) }
+    }
+
+    @Test
+    fun `FlowAddress is backed by a long`() {
+        val address = FlowAddress("0xf8d6e0586b0a20c7")
+        Assertions.assertThat(address.longValue).isEqualTo(0xf8d6e0586b0a20c7uL.toLong())
+        Assertions.assertThat(FlowAddress.of(address.longValue)).isEqualTo(address)
+        Assertions.assertThat(FlowAddress.of(address.longValue).hashCode()).isEqualTo(address.hashCode())
+        Assertions.assertThat(address.bytes).isEqualTo("f8d6e0586b0a20c7".hexToBytes())
+        Assertions.assertThat(address.bytes).isNotSameAs(address.bytes)
+        Assertions.assertThat(FlowAddress.of(0).formatted).isEqualTo("0x0000000000000000")
+    }
+
+    @Test
+    fun `FlowAddresses print as hex and are serialized as their bytes`() {
+        val address = FlowAddress("0xf8d6e0586b0a20c7")
+        Assertions.assertThat(address.toString()).isEqualTo("0xf8d6e0586b0a20c7")
+
+        val out = ByteArrayOutputStream()
+        ObjectOutputStream(out).use { it.writeObject(listOf(address, address)) }
+        val copy = ObjectInputStream(ByteArrayInputStream(out.toByteArray())).use { it.readObject() } as List<*>
+        Assertions.assertThat(copy).containsExactly(address, address)
+        Assertions.assertThat(copy[0]).isSameAs(copy[1])
+    }
+
+    @Test
+    fun `Reads FlowAddresses serialized by the data class`() {
+        // an ObjectOutputStream of FlowAddress("0xf8d6e0586b0a20c7") as a data class holding its bytes
+        val serialized = Base64.getDecoder().decode(
+            "rO0ABXNyAB5jb20ubmZ0Y28uZmxvdy5zZGsuRmxvd0FkZHJlc3NItqTS7vyBAQIAAlsABWJ5dGVzdAACW0JMAAlmb3JtYXR0ZWR0ABJM" +
+                "amF2YS9sYW5nL1N0cmluZzt4cHVyAAJbQqzzF/gGCFTgAgAAeHAAAAAI+NbgWGsKIMd0ABIweGY4ZDZlMDU4NmIwYTIwYzc="
+        )
+        val address = ObjectInputStream(ByteArrayInputStream(serialized)).use { it.readObject() }
+        Assertions.assertThat(address).isEqualTo(FlowAddress("0xf8d6e0586b0a20c7"))
+
+        val descriptor = ObjectStreamClass.lookup(FlowAddress::class.java)
+        Assertions.assertThat(descriptor.fields.map { it.name }).containsExactly("bytes", "formatted")
+    }
 }
@@ -0,0 +1,105 @@
+package com.nftco.flow.sdk
+
+import com.nftco.flow.sdk.test.FakeAccessApiServer
+import io.grpc.ManagedChannelBuilder
+import io.grpc.inprocess.InProcessChannelBuilder
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Test
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class FlowChannelConfigTest {
+
+    @Test
+    fun `Rejects conflicting options`() {
+        assertThrows(IllegalArgumentException::class.java) {
+            FlowChannelConfig(executor = Executor { it.run() }, directExecutor = true)
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            FlowChannelConfig(eventLoopGroup = Any())
+        }
+    }
+
+    @Test
+    fun `Applies executors and the customizer`() {
+        val pool = Executors.newSingleThreadExecutor()
+        val callbacks = AtomicInteger()
+        val executor = Executor {
+            callbacks.incrementAndGet()
+            pool.execute(it)
+        }
+        val customized = mutableListOf<ManagedChannelBuilder<*>>()
+        val config = FlowChannelConfig(executor = executor, customizer = { customized.add(it) })
+
+        val builder = InProcessChannelBuilder.forName("config-test")
+        assertThat(config.apply(builder)).isSameAs(builder)
+        assertThat(customized).containsExactly(builder)
+
+        // the blocking API runs its callbacks on the calling thread, the async one on the channel executor
+        FakeAccessApiServer().use { server ->
+            val api = server.newAsyncAccessApi(config)
+            try {
+                api.ping().get(10, TimeUnit.SECONDS)
+                assertThat(api.getLatestBlockHeader().get(10, TimeUnit.SECONDS)).isNotNull
+            } finally {
+                api.close()
+                pool.shutdown()
+            }
+        }
+        assertThat(callbacks.get()).isGreaterThanOrEqualTo(2)
+        assertThat(customized).hasSize(2)
+    }
+
+    @Test
+    fun `Reports transports without event loop groups`() {
+        val config = FlowChannelConfig(eventLoopGroup = Any(), channelType = Any::class.java)
+        assertThrows(IllegalArgumentException::class.java) {
+            config.apply(InProcessChannelBuilder.forName("config-test"))
+        }
+    }
+
+    @Test
+    fun `Virtual threads are only offered where supported`() {
+        if (FlowChannelConfig.virtualThreadsSupported) {
+            val executor = FlowChannelConfig.newVirtualThreadExecutor()
+            try {
+                assertThat(executor.submit<Any> { Thread::class.java.getMethod("isVirtual").invoke(Thread.currentThread()) }.get()).isEqualTo(true)
+            } finally {
+                executor.shutdown()
+            }
+        } else {
+            assertThrows(UnsupportedOperationException::class.java) { FlowChannelConfig.newVirtualThreadExecutor() }
+        }
+    }
+
+    @Test
+    fun `Builder collects tuning options`() {
+        val config = FlowChannelConfig.builder()
+            .keepAlive(30, 5, TimeUnit.SECONDS)
+            .idleTimeout(10, TimeUnit.MINUTES)
+            .flowControlWindow(1 shl 20)
+            .gzip()
+            .build()
+
+        assertThat(config.keepAliveTimeMs).isEqualTo(30_000L)
+        assertThat(config.keepAliveTimeoutMs).isEqualTo(5_000L)
+        assertThat(config.idleTimeoutMs).isEqualTo(600_000L)
+        assertThat(config.flowControlWindow).isEqualTo(1 shl 20)
+        assertThat(config.callOptions.compressor).isEqualTo("gzip")
+        assertThat(config.toBuilder().compression(null).build().callOptions.compressor).isNull()
+    }
+
+    @Test
+    fun `Rejects a flow-control window on transports without one`() {
+        val config = FlowChannelConfig.builder().flowControlWindow(1 shl 20).build()
+        assertThrows(IllegalArgumentException::class.java) {
+            config.apply(InProcessChannelBuilder.forName("config-test"))
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            FlowChannelConfig.builder().flowControlWindow(0)
+        }
+    }
+}
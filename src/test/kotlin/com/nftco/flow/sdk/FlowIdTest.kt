@@ -2,6 +2,15 @@ package com.nftco.flow.sdk
 
 import org.assertj.core.api.Assertions
 import org.junit.jupiter.api.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.io.ObjectStreamClass
+import java.math.BigInteger
+import java.nio.ByteBuffer
+import java.time.LocalDateTime
+import java.util.Base64
 
 class FlowIdTest {
 
@@ -40,4 +49,57 @@ class FlowIdTest {
         Assertions.assertThatThrownBy { FlowId("0").base16Value }
         Assertions.assertThatThrownBy { FlowId("0000000000000000000000000000000000000000000000000000000000000001234").bytes }
     }
+
+    @Test
+    fun `Can create FlowId from a ByteBuffer slice`() {
+        val hex = "5e6ef76c524dd131bbab5f9965493b7830bb784561ca6391b320ec60fa5c395e"
+        val buffer = ByteBuffer.wrap(("ffff" + hex + "ff").hexToBytes())
+        buffer.position(2).limit(34)
+        Assertions.assertThat(FlowId.of(buffer).base16Value).isEqualTo(hex)
+        Assertions.assertThat(buffer.position()).isEqualTo(2)
+        Assertions.assertThat(FlowId.of(ByteBuffer.wrap("01".hexToBytes())).integerValue).isEqualTo(BigInteger.ONE)
+
+        val bytes = hex.hexToBytes()
+        Assertions.assertThat(FlowId.of(bytes).byteBufferValue.isReadOnly).isTrue
+        Assertions.assertThat(FlowId.of(bytes).byteBufferValue.remaining()).isEqualTo(32)
+    }
+
+    @Test
+    fun `FlowIds with the same bytes are equal`() {
+        val hex = "5e6ef76c524dd131bbab5f9965493b7830bb784561ca6391b320ec60fa5c395e"
+        val id = FlowId(hex)
+        Assertions.assertThat(FlowId.of(hex.hexToBytes())).isEqualTo(id).hasSameHashCodeAs(id)
+        Assertions.assertThat(FlowId.of(id.bytes)).isEqualTo(id)
+        Assertions.assertThat(id).isNotEqualTo(FlowId(hex.replaceFirst('5', '6')))
+        Assertions.assertThat(id).isNotEqualTo(FlowId(hex.substring(0, 63) + "f"))
+    }
+
+    @Test
+    fun `FlowIds print as hex and are serialized as their bytes`() {
+        val hex = "5e6ef76c524dd131bbab5f9965493b7830bb784561ca6391b320ec60fa5c395e"
+        val result = FlowEventResult(FlowId(hex), 10, LocalDateTime.of(2021, 1, 1, 0, 0), emptyList())
+        Assertions.assertThat(FlowId(hex).toString()).isEqualTo(hex)
+
+        val out = ByteArrayOutputStream()
+        ObjectOutputStream(out).use { it.writeObject(result) }
+        val copy = ObjectInputStream(ByteArrayInputStream(out.toByteArray())).use { it.readObject() } as FlowEventResult
+        Assertions.assertThat(copy).isEqualTo(result)
+        Assertions.assertThat(copy.blockId.base16Value).isEqualTo(hex)
+        Assertions.assertThat(copy.blockId.hashCode()).isEqualTo(FlowId(hex).hashCode())
+    }
+
+    @Test
+    fun `Reads FlowIds serialized by the data class`() {
+        val hex = "5e6ef76c524dd131bbab5f9965493b7830bb784561ca6391b320ec60fa5c395e"
+        // an ObjectOutputStream of FlowId(hex) as a data class holding its bytes
+        val serialized = Base64.getDecoder().decode(
+            "rO0ABXNyABljb20ubmZ0Y28uZmxvdy5zZGsuRmxvd0lkOvoNp8JR4LwCAAFbAAVieXRlc3QAAltCeHB1cgACW0Ks8xf4BghU4AIAAHhw" +
+                "AAAAIF5u92xSTdExu6tfmWVJO3gwu3hFYcpjkbMg7GD6XDle"
+        )
+        val id = ObjectInputStream(ByteArrayInputStream(serialized)).use { it.readObject() }
+        Assertions.assertThat(id).isEqualTo(FlowId(hex))
+
+        val descriptor = ObjectStreamClass.lookup(FlowId::class.java)
+        Assertions.assertThat(descriptor.fields.map { it.name }).containsExactly("bytes")
+    }
 }
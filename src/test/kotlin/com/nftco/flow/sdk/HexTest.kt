@@ -0,0 +1,42 @@
+package com.nftco.flow.sdk
+
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+
+class HexTest {
+
+    @Test
+    fun `Encodes bytes as lowercase hex`() {
+        assertThat(byteArrayOf().bytesToHex()).isEmpty()
+        assertThat(byteArrayOf(0, 1, 0x7f, -1, -0x80).bytesToHex()).isEqualTo("00017fff80")
+
+        val dst = CharArray(6) { '-' }
+        encodeHex(byteArrayOf(0x12, 0xab.toByte(), 0x34), 1, 1, dst, 2)
+        assertThat(String(dst)).isEqualTo("--ab--")
+    }
+
+    @Test
+    fun `Decodes hex in either case with an optional prefix`() {
+        val expected = byteArrayOf(0xf8.toByte(), 0xd6.toByte(), 0xe0.toByte(), 0x58)
+        assertThat("f8d6e058".hexToBytes()).isEqualTo(expected)
+        assertThat("F8D6e058".hexToBytes()).isEqualTo(expected)
+        assertThat("0xf8d6E058".hexToBytes()).isEqualTo(expected)
+        assertThat("0Xf8d6e058".hexToBytes()).isEqualTo(expected)
+        assertThat("0x".hexToBytes()).isEmpty()
+
+        val dst = ByteArray(4)
+        val hex = StringBuilder("key: 0xABCD")
+        assertThat(decodeHex(hex, 7, hex.length, dst, 1)).isEqualTo(2)
+        assertThat(dst).containsExactly(0, 0xab.toByte(), 0xcd.toByte(), 0)
+        assertThat(hexPrefixLength(hex.substring(5))).isEqualTo(2)
+    }
+
+    @Test
+    fun `Rejects invalid hex`() {
+        assertThatThrownBy { "0x1".hexToBytes() }.isInstanceOf(IllegalArgumentException::class.java)
+        assertThatThrownBy { "0k".hexToBytes() }.isInstanceOf(IllegalArgumentException::class.java)
+        assertThatThrownBy { "é0".hexToBytes() }.isInstanceOf(IllegalArgumentException::class.java)
+        assertThatThrownBy { decodeHex("abcd", 0, 4, ByteArray(1), 0) }.isInstanceOf(IllegalArgumentException::class.java)
+    }
+}
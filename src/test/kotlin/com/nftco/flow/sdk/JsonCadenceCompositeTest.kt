@@ -0,0 +1,117 @@
+package com.nftco.flow.sdk
+
+import com.nftco.flow.sdk.cadence.*
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.Test
+import java.math.BigDecimal
+
+internal class JsonCadenceCompositeTest {
+
+    enum class Rarity { COMMON, RARE }
+
+    @JsonCadenceComposite(typeName = "Moment")
+    data class Moment(
+        val id: Long,
+        val name: String,
+        @JsonCadenceField(name = "price", type = TYPE_UFIX64)
+        val amount: BigDecimal,
+        val owner: FlowAddress,
+        val rarity: Rarity,
+        val tags: List<String>,
+        val description: String? = null
+    )
+
+    @JsonCadenceComposite(kind = TYPE_EVENT, typeName = "Minted")
+    data class Minted(
+        val moment: Moment,
+        val count: Int = 1
+    )
+
+    private val moment = Moment(
+        id = 42,
+        name = "dunk",
+        amount = BigDecimal("12.50000000"),
+        owner = FlowAddress("0x1a1f2e458a098135"),
+        rarity = Rarity.RARE,
+        tags = listOf("a", "b")
+    )
+
+    @Test
+    fun `Can marshall and unmarshall an annotated data class`() {
+        val namespace = CadenceNamespace.ns(FlowAddress("0x01"), "Contract")
+        val field = Flow.marshall(moment, namespace)
+
+        assertTrue(field is StructField)
+        val struct = field as StructField
+        assertEquals("A.0000000000000001.Contract.Moment", struct.id)
+        assertEquals(TYPE_UFIX64, struct.get<Field<*>>("price")!!.type)
+        assertEquals(moment, Flow.unmarshall(Moment::class, field, namespace))
+
+        val decoded = Flow.decodeJsonCadence(Flow.encodeJsonCadence(field))
+        assertEquals(moment, Flow.unmarshall(Moment::class, decoded, namespace))
+    }
+
+    @Test
+    fun `Can unmarshall fields in any order and fall back to defaults`() {
+        val field = marshall {
+            event {
+                compositeOfPairs("Minted") {
+                    listOf("moment" to Flow.marshall(moment))
+                }
+            }
+        }
+        assertEquals(Minted(moment, 1), Flow.unmarshall(Minted::class, field))
+
+        val reordered = marshall {
+            struct {
+                compositeOfPairs("Moment") {
+                    listOf(
+                        "tags" to array(listOf(string("c"))),
+                        "rarity" to enum(Rarity.COMMON),
+                        "owner" to address(moment.owner),
+                        "price" to ufix64(1),
+                        "name" to string("x"),
+                        "id" to int64(7),
+                        "description" to optional(string("desc"))
+                    )
+                }
+            }
+        }
+        assertEquals(
+            Moment(7, "x", BigDecimal("1.00000000"), moment.owner, Rarity.COMMON, listOf("c"), "desc"),
+            Flow.unmarshall(Moment::class, reordered)
+        )
+    }
+
+    @Test
+    fun `Missing required fields are reported`() {
+        val field = marshall {
+            struct {
+                compositeOfPairs("Moment") {
+                    listOf("id" to int64(7))
+                }
+            }
+        }
+        assertThrows(IllegalStateException::class.java) {
+            Flow.unmarshall(Moment::class, field)
+        }
+    }
+
+    @Test
+    fun `Can look up fields of wide composites sharing a type id`() {
+        val names = (0 until 20).map { "field$it" }
+        val forward = CompositeValue("A.01.Wide", names.map { CompositeAttribute(it, StringField(it)) }.toTypedArray())
+        val backward = CompositeValue("A.01.Wide", names.reversed().map { CompositeAttribute(it, StringField(it)) }.toTypedArray())
+
+        for (value in listOf(forward, backward, forward)) {
+            names.forEach {
+                assertTrue(it in value)
+                assertEquals(it, value.get<String>(it))
+            }
+            assertFalse("missing" in value)
+            assertNull(value.getField<Field<*>>("missing"))
+        }
+        assertEquals(0, forward.indexOf("field0"))
+        assertEquals(19, backward.indexOf("field0"))
+    }
+}
@@ -1,7 +1,9 @@
 package com.nftco.flow.sdk
 
+import com.nftco.flow.sdk.cadence.*
 import org.assertj.core.api.Assertions
 import org.junit.jupiter.api.Test
+import java.math.BigDecimal
 
 class JsonCadenceTest {
 
@@ -12,4 +14,100 @@ class JsonCadenceTest {
         val events = tx.events.map { it.payload.jsonCadence }
         Assertions.assertThat(events).hasSize(4)
     }
+
+    @Test
+    fun `Fields are compared structurally`() {
+        val event = {
+            marshall {
+                event {
+                    compositeOfPairs("A.0b2a3299cc857e29.TopShot.Deposit") {
+                        listOf(
+                            "id" to uint64(1234),
+                            "to" to optional(address("0x0b2a3299cc857e29")),
+                            "tags" to array(listOf(string("a"), string("b"))),
+                            "attributes" to dictionaryOfNamedMap { mapOf("rarity" to uint8(2)) },
+                            "path" to path("storage", "moments")
+                        )
+                    }
+                }
+            }
+        }
+        val first = event()
+        val second = event()
+        val decoded = Flow.decodeJsonCadence<Field<*>>(Flow.encodeJsonCadence(first))
+
+        Assertions.assertThat(first).isEqualTo(second).isEqualTo(decoded)
+        Assertions.assertThat(first.hashCode()).isEqualTo(second.hashCode()).isEqualTo(decoded.hashCode())
+        Assertions.assertThat(hashSetOf<Field<*>>(first, second, decoded)).hasSize(1)
+
+        Assertions.assertThat(ArrayField(listOf(StringField("a"))) as Field<*>).isNotEqualTo(ArrayField(listOf(StringField("b"))))
+        Assertions.assertThat(UInt8NumberField("1") as Field<*>).isNotEqualTo(UInt16NumberField("1"))
+        Assertions.assertThat(OptionalField(null) as Field<*>).isNotEqualTo(OptionalField(StringField("")))
+    }
+
+    @Test
+    fun `Numbers keep their JSON Cadence representation`() {
+        val builder = JsonCadenceBuilder()
+        Assertions.assertThat(builder.ufix64(12).value).isEqualTo("12.00000000")
+        Assertions.assertThat(builder.ufix64(0.5).value).isEqualTo("0.50000000")
+        Assertions.assertThat(builder.fix64(-0.000000015).value).isEqualTo("-0.00000002")
+        Assertions.assertThat(builder.fix64("-1234.5").value).isEqualTo("-1234.50000000")
+        Assertions.assertThat(builder.ufix64(BigDecimal("184467440737.09551615")).value).isEqualTo("184467440737.09551615")
+        Assertions.assertThat(builder.ufix64(12)).isEqualTo(UFix64NumberField("12.00000000"))
+
+        Assertions.assertThat(builder.ufix64(1.25).toBigDecimal()).isEqualTo(BigDecimal("1.25000000"))
+        Assertions.assertThat(UFix64NumberField("1.5").toBigDecimal()).isEqualTo(BigDecimal("1.5"))
+        Assertions.assertThat(builder.int64(Long.MAX_VALUE).toLong()).isEqualTo(Long.MAX_VALUE)
+        Assertions.assertThat(UInt64NumberField("18446744073709551615").toULong()).isEqualTo(ULong.MAX_VALUE)
+        Assertions.assertThat(Int32NumberField("-7").toInt()).isEqualTo(-7)
+        Assertions.assertThatThrownBy { Int64NumberField("4294967296").toInt() }
+            .isInstanceOf(NumberFormatException::class.java)
+
+        val decoded = Flow.decodeJsonCadence<UFix64NumberField>(Flow.encodeJsonCadence(builder.ufix64(3)))
+        Assertions.assertThat(decoded.value).isEqualTo("3.00000000")
+        Assertions.assertThat(decoded.toBigDecimal()).isEqualTo(BigDecimal("3.00000000"))
+    }
+
+    @Test
+    fun `Byte arrays are encoded as arrays of UInt8`() {
+        val bytes = ByteArray(300) { it.toByte() }
+        val field = JsonCadenceBuilder().byteArray(bytes)
+        val boxed = ArrayField(bytes.map { UInt8NumberField((it.toInt() and 0xFF).toString()) })
+
+        Assertions.assertThat(String(Flow.encodeJsonCadence(field))).isEqualTo(String(Flow.encodeJsonCadence(boxed)))
+        Assertions.assertThat(field as Field<*>).isEqualTo(boxed)
+        Assertions.assertThat(boxed as Field<*>).isEqualTo(field)
+        Assertions.assertThat(field.hashCode()).isEqualTo(boxed.hashCode())
+
+        val decoded = Flow.decodeJsonCadence<ArrayField>(Flow.encodeJsonCadence(boxed))
+        Assertions.assertThat(decoded).isInstanceOf(ByteArrayField::class.java)
+        Assertions.assertThat(decoded as Field<*>).isEqualTo(field)
+        Assertions.assertThat(JsonCadenceParser().byteArray(decoded)).isEqualTo(bytes)
+        Assertions.assertThat(decoded.value!![255].value).isEqualTo("255")
+
+        val mixed = Flow.decodeJsonCadence<ArrayField>(
+            """{"type":"Array","value":[{"type":"UInt8","value":"1"},{"value":"a","type":"String"},{"type":"Optional","value":null}]}"""
+        )
+        Assertions.assertThat(mixed).isNotInstanceOf(ByteArrayField::class.java)
+        Assertions.assertThat(mixed.value!!.toList()).containsExactly(UInt8NumberField("1"), StringField("a"), OptionalField(null))
+    }
+
+    @Test
+    fun `Decodes arrays of other types`() {
+        val array = ArrayField(
+            listOf(
+                StringField("a"),
+                AddressField("0x0b2a3299cc857e29"),
+                ArrayField(listOf(UInt8NumberField("1"), UInt8NumberField("2"))),
+                OptionalField(UInt8NumberField("3")),
+                UInt8NumberField("4")
+            )
+        )
+        Assertions.assertThat(Flow.decodeJsonCadence<ArrayField>(Flow.encodeJsonCadence(array)) as Field<*>).isEqualTo(array)
+
+        val reordered = Flow.decodeJsonCadence<ArrayField>(
+            """{"type":"Array","value":[{"value":"a","type":"String"},{"type":"UInt8","value":"01"},{"value":{"type":"UInt8","value":"2"},"type":"Optional"}]}"""
+        )
+        Assertions.assertThat(reordered.value!!.toList()).containsExactly(StringField("a"), UInt8NumberField("01"), OptionalField(UInt8NumberField("2")))
+    }
 }
@@ -0,0 +1,63 @@
+package com.nftco.flow.sdk
+
+import com.google.protobuf.ByteString
+import com.nftco.flow.sdk.cadence.*
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+import java.math.BigDecimal
+import java.math.BigInteger
+
+class PreparedScriptTest {
+
+    private fun decode(bytes: ByteString): Field<*> = Flow.decodeJsonCadence(bytes.toByteArray())
+
+    @Test
+    fun `Binders produce the same JSON Cadence as the builder`() {
+        val builder = JsonCadenceBuilder()
+        val address = FlowAddress("0x1654653399040a61")
+
+        assertThat(decode(ArgumentBinders.STRING.bind("quote \" and é"))).isEqualTo(builder.string("quote \" and é"))
+        assertThat(decode(ArgumentBinders.BOOLEAN.bind(true))).isEqualTo(builder.boolean(true))
+        assertThat(decode(ArgumentBinders.ADDRESS.bind(address))).isEqualTo(builder.address(address))
+        assertThat(decode(ArgumentBinders.INT64.bind(-5L))).isEqualTo(builder.int64(-5L))
+        assertThat(decode(ArgumentBinders.UINT64.bind(-1L))).isEqualTo(builder.uint64("18446744073709551615"))
+        assertThat(decode(ArgumentBinders.INT.bind(BigInteger.TEN.pow(30)))).isEqualTo(builder.int(BigInteger.TEN.pow(30)))
+        assertThat(decode(ArgumentBinders.UFIX64.bind(BigDecimal("1.5")))).isEqualTo(builder.ufix64("1.50000000"))
+        assertThat(decode(ArgumentBinders.optional(ArgumentBinders.UINT8).bind(null))).isEqualTo(builder.optional(null as Field<*>?))
+        assertThat(decode(ArgumentBinders.optional(ArgumentBinders.UINT8).bind(7))).isEqualTo(builder.optional(builder.uint8(7)))
+        assertThat(decode(ArgumentBinders.array(ArgumentBinders.STRING).bind(listOf("a", "b"))))
+            .isEqualTo(builder.array(listOf(builder.string("a"), builder.string("b"))))
+    }
+
+    @Test
+    fun `Binders reject values out of range`() {
+        val builder = JsonCadenceBuilder()
+        assertThat(decode(ArgumentBinders.UINT8.bind(0))).isEqualTo(builder.uint8(0))
+        assertThat(decode(ArgumentBinders.UINT8.bind(255))).isEqualTo(builder.uint8(255))
+        assertThat(decode(ArgumentBinders.UINT32.bind(0xFFFFFFFFL))).isEqualTo(builder.uint32(0xFFFFFFFFL))
+        assertThat(decode(ArgumentBinders.UINT64.bind(Long.MIN_VALUE))).isEqualTo(builder.uint64("9223372036854775808"))
+
+        listOf(-1, 256, 300).forEach { value ->
+            assertThatThrownBy { ArgumentBinders.UINT8.bind(value) }.isInstanceOf(IllegalArgumentException::class.java)
+        }
+        listOf(-1L, 1L shl 32, 1L shl 40).forEach { value ->
+            assertThatThrownBy { ArgumentBinders.UINT32.bind(value) }.isInstanceOf(IllegalArgumentException::class.java)
+        }
+    }
+
+    @Test
+    fun `Prepared scripts resolve addresses once`() {
+        val prepared = PreparedScript.of("import FlowToken from 0xFLOWTOKEN", FlowChainId.MAINNET)
+        assertThat(prepared.script).isEqualTo(FlowScript("import FlowToken from 0x1654653399040a61"))
+
+        val arguments = prepared.arguments {
+            arg(ArgumentBinders.ADDRESS, FlowAddress("0x01"))
+            arg(builderField())
+        }
+        assertThat(arguments).hasSize(2)
+        assertThat(decode(arguments[1])).isEqualTo(builderField())
+    }
+
+    private fun builderField(): Field<*> = JsonCadenceBuilder().ufix64(2)
+}
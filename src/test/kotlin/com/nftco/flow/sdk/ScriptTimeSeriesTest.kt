@@ -0,0 +1,66 @@
+package com.nftco.flow.sdk
+
+import com.nftco.flow.sdk.cadence.UInt64NumberField
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.lang.reflect.Proxy
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.atomic.AtomicInteger
+
+class ScriptTimeSeriesTest {
+
+    private val started = AtomicInteger()
+
+    // answers executeScriptAtBlockHeight with height / 10
+    private val api = Proxy.newProxyInstance(javaClass.classLoader, arrayOf(AsyncFlowAccessApi::class.java)) { _, method, args ->
+        check(method.name == "executeScriptAtBlockHeight") { "unexpected call to ${method.name}" }
+        started.incrementAndGet()
+        CompletableFuture.completedFuture(FlowScriptResponse(UInt64NumberField(((args[1] as Long) / 10).toString())))
+    } as AsyncFlowAccessApi
+
+    private val series = ScriptTimeSeries(api, FlowScript("pub fun main(): UInt64 { return 0 }"), concurrency = 4)
+
+    @Test
+    fun `Returns results in height order with bounded concurrency`() {
+        var consumed = 0
+        val points = series.query(0L..29L, 1).asSequence()
+            .onEach {
+                consumed++
+                assertThat(started.get() - consumed).isLessThanOrEqualTo(4)
+            }
+            .toList()
+        assertThat(points.map { it.height }).isEqualTo((0L..29L).toList())
+        assertThat(points.map { it.value.value }).isEqualTo((0L..29L).map { (it / 10).toString() })
+    }
+
+    @Test
+    fun `Can collapse identical results`() {
+        val points = series.query(0L..29L, 1, collapse = true).asSequence().toList()
+        assertThat(points.map { it.height to it.endHeight }).containsExactly(0L to 9L, 10L to 19L, 20L to 29L)
+        assertThat(series.query(0L..29L, 10).asSequence().map { it.height }.toList()).containsExactly(0L, 10L, 20L)
+    }
+
+    @Test
+    fun `Closing a query cancels the calls in flight`() {
+        val futures = mutableListOf<CompletableFuture<FlowScriptResponse>>()
+        // only the first two heights answer, the others stay in flight
+        val slowApi = Proxy.newProxyInstance(javaClass.classLoader, arrayOf(AsyncFlowAccessApi::class.java)) { _, _, args ->
+            val future = CompletableFuture<FlowScriptResponse>()
+            if ((args[1] as Long) < 2) {
+                future.complete(FlowScriptResponse(UInt64NumberField("0")))
+            }
+            futures.add(future)
+            future
+        } as AsyncFlowAccessApi
+        val series = ScriptTimeSeries(slowApi, FlowScript("pub fun main(): UInt64 { return 0 }"), concurrency = 4)
+
+        val points = series.query(0L..99L, 1).use { query -> query.asSequence().take(2).toList() }
+        assertThat(points.map { it.height }).containsExactly(0L, 1L)
+        assertThat(futures).hasSizeLessThanOrEqualTo(6)
+        assertThat(futures.drop(2)).isNotEmpty.allMatch { it.isCancelled }
+
+        futures.clear()
+        series.query(0L..99L, 1).stream().use { stream -> assertThat(stream.limit(1).count()).isEqualTo(1) }
+        assertThat(futures.drop(2)).isNotEmpty.allMatch { it.isCancelled }
+    }
+}
@@ -0,0 +1,140 @@
+package com.nftco.flow.sdk.archive
+
+import com.nftco.flow.sdk.AsyncFlowAccessApi
+import com.nftco.flow.sdk.FlowEventResult
+import com.nftco.flow.sdk.FlowException
+import com.nftco.flow.sdk.test.FakeAccessApiConfig
+import com.nftco.flow.sdk.test.FakeAccessApiServer
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.ByteArrayOutputStream
+import java.lang.reflect.Proxy
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+
+class EventArchiveTest {
+
+    private val deposit = "A.0000000000000001.Token.Deposit"
+    private val withdraw = "A.0000000000000001.Token.Withdraw"
+
+    private val server = FakeAccessApiServer(FakeAccessApiConfig(eventTypes = listOf(deposit, withdraw, withdraw)))
+
+    @TempDir
+    lateinit var dir: Path
+
+    @AfterEach
+    fun tearDown() {
+        server.close()
+    }
+
+    private fun expected(): List<FlowEventResult> {
+        val api = server.newAccessApi()
+        val deposits = api.getEventsForHeightRange(deposit, 1L..100L)
+        val withdrawals = api.getEventsForHeightRange(withdraw, 1L..100L)
+        api.close()
+        return deposits.zip(withdrawals) { d, w ->
+            d.copy(events = (d.events + w.events).sortedWith(compareBy({ it.transactionIndex }, { it.eventIndex })))
+        }
+    }
+
+    @Test
+    fun `Exports a height range to row groups and reads it back`() {
+        val path = dir.resolve("events")
+        val api = server.newAsyncAccessApi()
+        val events = EventArchiveWriter.open(path, rowGroupEvents = 100).use { writer ->
+            EventArchiveExporter(api, listOf(deposit, withdraw), batchSize = 7, concurrency = 3).export(1L..100L, writer)
+        }
+        api.close()
+
+        val expected = expected()
+        assertThat(events).isEqualTo(expected.sumOf { it.events.size }.toLong())
+
+        EventArchiveReader.open(path).use { reader ->
+            assertThat(reader.rowGroups.size).isGreaterThan(1)
+            assertThat(reader.blockCount).isEqualTo(100)
+            assertThat(reader.eventCount).isEqualTo(events)
+            assertThat(reader.rowGroups.first().minHeight).isEqualTo(1)
+            assertThat(reader.rowGroups.last().maxHeight).isEqualTo(100)
+
+            val read = mutableListOf<FlowEventResult>()
+            reader.forEach { read.add(it) }
+            assertThat(read).isEqualTo(expected)
+        }
+    }
+
+    @Test
+    fun `Filters by event type`() {
+        val path = dir.resolve("events")
+        EventArchiveWriter.open(path, rowGroupEvents = 50).use { writer ->
+            writer.writeAll(expected())
+        }
+
+        EventArchiveReader.open(path).use { reader ->
+            val read = reader.rowGroups.flatMap { reader.read(it, setOf(deposit)) }
+            assertThat(read).hasSize(100)
+            assertThat(read.flatMap { it.events }.map { it.type }.distinct()).containsExactly(deposit)
+            assertThat(read.flatMap { it.events }).isEqualTo(expected().flatMap { it.events }.filter { it.type == deposit })
+            assertThat(reader.read(reader.rowGroups[0], setOf("A.0000000000000001.Token.Mint")).flatMap { it.events }).isEmpty()
+        }
+    }
+
+    @Test
+    fun `Caps the blocks of a row group`() {
+        val path = dir.resolve("events")
+        val blocks = expected().map { it.copy(events = emptyList()) }
+        EventArchiveWriter.open(path, rowGroupBlocks = 10).use { writer ->
+            writer.writeAll(blocks)
+        }
+
+        EventArchiveReader.open(path).use { reader ->
+            assertThat(reader.rowGroups).hasSize(10)
+            assertThat(reader.rowGroups.map { it.blockCount }).containsOnly(10)
+            val read = mutableListOf<FlowEventResult>()
+            reader.forEach { read.add(it) }
+            assertThat(read).isEqualTo(blocks)
+        }
+    }
+
+    @Test
+    fun `Reads payloads spanning several pages`() {
+        val path = dir.resolve("events")
+        val expected = expected()
+        assertThat(expected.flatMap { it.events }.sumOf { it.payload.bytes.size }).isGreaterThan(2 * PAYLOAD_PAGE_SIZE)
+        EventArchiveWriter.open(path).use { writer ->
+            writer.writeAll(expected)
+        }
+
+        EventArchiveReader.open(path).use { reader ->
+            assertThat(reader.rowGroups).hasSize(1)
+            assertThat(reader.read(reader.rowGroups[0])).isEqualTo(expected)
+            assertThat(reader.read(reader.rowGroups[0], setOf(withdraw)).flatMap { it.events })
+                .isEqualTo(expected.flatMap { it.events }.filter { it.type == withdraw })
+        }
+    }
+
+    @Test
+    fun `Cancels the calls in flight when an export fails`() {
+        val calls = mutableListOf<CompletableFuture<List<FlowEventResult>>>()
+        val api = Proxy.newProxyInstance(javaClass.classLoader, arrayOf(AsyncFlowAccessApi::class.java)) { _, method, _ ->
+            check(method.name == "getEventsForHeightRange")
+            val call = CompletableFuture<List<FlowEventResult>>()
+            // the first call fails while the others stay in flight
+            if (calls.isEmpty()) {
+                call.completeExceptionally(IllegalStateException("unavailable"))
+            }
+            calls.add(call)
+            call
+        } as AsyncFlowAccessApi
+
+        EventArchiveWriter(ByteArrayOutputStream()).use { writer ->
+            assertThatThrownBy { EventArchiveExporter(api, listOf(deposit, withdraw), batchSize = 10, concurrency = 3).export(1L..100L, writer) }
+                .isInstanceOf(FlowException::class.java)
+                .hasRootCauseInstanceOf(IllegalStateException::class.java)
+        }
+        assertThat(calls).hasSize(6)
+        assertThat(calls.filter { it.isCancelled }).hasSize(5)
+    }
+}
@@ -0,0 +1,98 @@
+package com.nftco.flow.sdk.archive
+
+import com.nftco.flow.sdk.FlowAddress
+import com.nftco.flow.sdk.FlowArgument
+import com.nftco.flow.sdk.FlowId
+import com.nftco.flow.sdk.FlowScript
+import com.nftco.flow.sdk.FlowTransaction
+import com.nftco.flow.sdk.FlowTransactionProposalKey
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+class TransactionArchiveTest {
+
+    @TempDir
+    lateinit var dir: Path
+
+    private fun transaction(n: Int) = FlowTransaction(
+        script = FlowScript("transaction { execute { log($n) } }"),
+        arguments = listOf(FlowArgument(ByteArray(n % 100))),
+        referenceBlockId = FlowId.of(byteArrayOf(n.toByte())),
+        gasLimit = n.toLong(),
+        proposalKey = FlowTransactionProposalKey(FlowAddress.of(n.toLong()), 0, n.toLong()),
+        payerAddress = FlowAddress.of(n.toLong()),
+        authorizers = listOf(FlowAddress.of(n.toLong()))
+    )
+
+    @Test
+    fun `Looks up and iterates archived transactions`() {
+        val path = dir.resolve("transactions")
+        val transactions = (0 until 2000).map { transaction(it) }
+        TransactionArchiveWriter.open(path).use { writer ->
+            transactions.forEach { writer.append(it) }
+        }
+
+        TransactionArchiveReader.open(path).use { reader ->
+            assertThat(reader.count).isEqualTo(2000)
+            val tx = transactions[1234]
+            assertThat(reader.bytes(tx.id)).isEqualTo(tx.canonicalTransaction)
+            assertThat(reader.transaction(tx.id)!!.gasLimit).isEqualTo(1234)
+            assertThat(reader.element(tx.id)!!.asRLPList()).hasSize(3)
+            assertThat(reader.buffer(FlowId("0x01"))).isNull()
+            assertThat(reader.contains(FlowId("0x01"))).isFalse
+
+            val ids = mutableListOf<FlowId>()
+            reader.forEach { id, buffer ->
+                ids.add(id)
+                assertThat(buffer.isReadOnly).isTrue
+            }
+            assertThat(ids).isEqualTo(transactions.map { it.id })
+            assertThat(reader.bufferAt(5).remaining()).isEqualTo(transactions[5].canonicalTransaction.size)
+        }
+    }
+
+    @Test
+    fun `Continues an archive after a crash`() {
+        val path = dir.resolve("transactions")
+        TransactionArchiveWriter.open(path).use { writer ->
+            (0 until 10).forEach { writer.append(transaction(it)) }
+        }
+        // an unindexed record, then a torn one
+        TransactionArchiveWriter.open(path).use { writer ->
+            writer.append(transaction(10))
+            writer.flush()
+        }
+        val index = Files.readAllBytes(indexPathOf(path))
+        Files.write(indexPathOf(path), index.copyOf(index.size - INDEX_ENTRY_SIZE - 3))
+        Files.write(path, byteArrayOf(0, 0, 1, 0, 7, 7), StandardOpenOption.APPEND)
+
+        TransactionArchiveReader.open(path).use { reader ->
+            assertThat(reader.count).isEqualTo(9)
+        }
+        TransactionArchiveWriter.open(path).use { writer ->
+            assertThat(writer.count).isEqualTo(11)
+            writer.append(transaction(11))
+        }
+        TransactionArchiveReader.open(path).use { reader ->
+            assertThat(reader.count).isEqualTo(12)
+            assertThat((0 until 12).map { reader.idAt(it) }).isEqualTo((0 until 12).map { transaction(it).id })
+        }
+    }
+
+    @Test
+    fun `Sizes the lookup table`() {
+        assertThat(TransactionArchiveReader.slotCount(0)).isEqualTo(16)
+        assertThat(TransactionArchiveReader.slotCount(12)).isEqualTo(16)
+        assertThat(TransactionArchiveReader.slotCount(13)).isEqualTo(32)
+        assertThat(TransactionArchiveReader.slotCount(TransactionArchiveReader.MAX_ENTRIES)).isEqualTo(1 shl 30)
+        assertThatThrownBy { TransactionArchiveReader.slotCount(TransactionArchiveReader.MAX_ENTRIES + 1) }
+            .isInstanceOf(IllegalArgumentException::class.java)
+            .hasMessageContaining("split it in segments")
+        assertThatThrownBy { TransactionArchiveReader.slotCount(Int.MAX_VALUE) }.isInstanceOf(IllegalArgumentException::class.java)
+    }
+}
@@ -0,0 +1,88 @@
+package com.nftco.flow.sdk.impl
+
+import io.grpc.ManagedChannel
+import io.grpc.Server
+import io.grpc.Status
+import io.grpc.StatusRuntimeException
+import io.grpc.inprocess.InProcessChannelBuilder
+import io.grpc.inprocess.InProcessServerBuilder
+import io.grpc.stub.ServerCallStreamObserver
+import io.grpc.stub.StreamObserver
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.async
+import kotlinx.coroutines.runBlocking
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.onflow.protobuf.access.Access
+import org.onflow.protobuf.access.AccessAPIGrpc
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class SuspendFlowAccessApiImplTest {
+
+    private val started = CountDownLatch(1)
+    private val cancelled = CountDownLatch(1)
+
+    private lateinit var server: Server
+    private lateinit var channel: ManagedChannel
+    private lateinit var api: SuspendFlowAccessApiImpl
+
+    @BeforeEach
+    fun setUp() {
+        val name = InProcessServerBuilder.generateName()
+        server = InProcessServerBuilder.forName(name)
+            .directExecutor()
+            .addService(object : AccessAPIGrpc.AccessAPIImplBase() {
+                override fun ping(request: Access.PingRequest, responseObserver: StreamObserver<Access.PingResponse>) {
+                    responseObserver.onNext(Access.PingResponse.getDefaultInstance())
+                    responseObserver.onCompleted()
+                }
+
+                override fun getLatestBlockHeader(request: Access.GetLatestBlockHeaderRequest, responseObserver: StreamObserver<Access.BlockHeaderResponse>) {
+                    responseObserver.onError(Status.UNAVAILABLE.withDescription("down").asRuntimeException())
+                }
+
+                // never answers
+                override fun getBlockByHeight(request: Access.GetBlockByHeightRequest, responseObserver: StreamObserver<Access.BlockResponse>) {
+                    (responseObserver as ServerCallStreamObserver<Access.BlockResponse>).setOnCancelHandler { cancelled.countDown() }
+                    started.countDown()
+                }
+            })
+            .build()
+            .start()
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build()
+        api = SuspendFlowAccessApiImpl(channel)
+    }
+
+    @AfterEach
+    fun tearDown() {
+        api.close()
+        server.shutdownNow()
+    }
+
+    @Test
+    fun `Resumes with the response`() = runBlocking<Unit> {
+        api.ping()
+    }
+
+    @Test
+    fun `Resumes with the status of failed calls`() {
+        val e = assertThrows(StatusRuntimeException::class.java) {
+            runBlocking { api.getLatestBlockHeader() }
+        }
+        assertThat(e.status.code).isEqualTo(Status.Code.UNAVAILABLE)
+        assertThat(e.status.description).isEqualTo("down")
+    }
+
+    @Test
+    fun `Cancelling the coroutine cancels the call`() = runBlocking<Unit> {
+        val block = async(start = CoroutineStart.UNDISPATCHED) { api.getBlockByHeight(1) }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue
+        block.cancel()
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue
+        assertThat(block.isCancelled).isTrue
+    }
+}
@@ -0,0 +1,189 @@
+package com.nftco.flow.sdk.jfr
+
+import com.nftco.flow.sdk.EventDecoder
+import com.nftco.flow.sdk.Flow
+import com.nftco.flow.sdk.FlowEvent
+import com.nftco.flow.sdk.FlowEventPayload
+import com.nftco.flow.sdk.FlowId
+import com.nftco.flow.sdk.FlowScript
+import com.nftco.flow.sdk.cadence.StringField
+import com.nftco.flow.sdk.crypto.Crypto
+import com.nftco.flow.sdk.crypto.PrivateKey
+import com.nftco.flow.sdk.test.FakeAccessApiServer
+import io.grpc.StatusRuntimeException
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordingFile
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Assumptions.assumeTrue
+import org.junit.jupiter.api.Test
+import java.nio.file.Files
+import java.security.KeyPairGenerator
+
+class FlowJfrTest {
+
+    /**
+     * Loads the classes of this package again, on a JVM that seemingly has no `jdk.jfr`.
+     */
+    private class NoJfrClassLoader(parent: ClassLoader) : ClassLoader(parent) {
+        override fun loadClass(name: String, resolve: Boolean): Class<*> {
+            if (name.startsWith("jdk.jfr.")) {
+                throw ClassNotFoundException(name)
+            }
+            if (!name.startsWith("com.nftco.flow.sdk.jfr.")) {
+                return super.loadClass(name, resolve)
+            }
+            findLoadedClass(name)?.let { return it }
+            val bytes = parent.getResourceAsStream(name.replace('.', '/') + ".class")!!.use { it.readBytes() }
+            return defineClass(name, bytes, 0, bytes.size)
+        }
+    }
+
+    @Test
+    fun `Loads and does nothing without jdk jfr`() {
+        val type = Class.forName(FlowJfr::class.java.name, true, NoJfrClassLoader(javaClass.classLoader))
+        val instance = type.getField("INSTANCE").get(null)
+
+        assertThat(type.getMethod("getAvailable").invoke(null)).isEqualTo(false)
+        val begins = type.declaredMethods.filter { it.name.startsWith("begin") }
+        assertThat(begins).hasSize(6)
+        begins.forEach { assertThat(it.invoke(instance)).isNull() }
+        type.declaredMethods.single { it.name.startsWith("commitSign") }.invoke(instance, null, 1L, false)
+    }
+
+    @Test
+    fun `Records nothing without a recording`() {
+        assumeTrue(FlowJfr.available)
+        assertThat(FlowJfr.beginSign()).isNull()
+        FlowJfr.commitSign(null, 1, false)
+    }
+
+    @Test
+    fun `Records the operations of the SDK`() {
+        assumeTrue(FlowJfr.available)
+        val file = Files.createTempFile("flow-sdk", ".jfr")
+        try {
+            Recording().use { recording ->
+                listOf("Sign", "JsonCadenceDecode", "ScriptExecution", "EventRangeFetch").forEach {
+                    recording.enable("com.nftco.flow.sdk.$it").withoutThreshold()
+                }
+                recording.start()
+
+                val encoded = Flow.encodeJsonCadence(StringField("a"))
+                Flow.decodeJsonCadence<StringField>(encoded)
+                Crypto.getSigner(Crypto.generateKeyPair().private).sign(encoded)
+                FakeAccessApiServer().use { server ->
+                    server.newAccessApi().use { api ->
+                        api.executeScriptAtLatestBlock(FlowScript("pub fun main(): Int { return 1 }"))
+                        api.getEventsForHeightRange("A.0000000000000001.Fake.Event", 1L..10L)
+                    }
+                }
+
+                recording.stop()
+                recording.dump(file)
+            }
+
+            val events = RecordingFile.readAllEvents(file).associateBy { it.eventType.name.removePrefix("com.nftco.flow.sdk.") }
+            assertThat(events.keys).containsExactlyInAnyOrder("Sign", "JsonCadenceDecode", "ScriptExecution", "EventRangeFetch")
+            assertThat(events.getValue("JsonCadenceDecode").getLong("bytes")).isEqualTo(Flow.encodeJsonCadence(StringField("a")).size.toLong())
+            assertThat(events.getValue("ScriptExecution").getLong("scriptBytes")).isPositive
+            with(events.getValue("EventRangeFetch")) {
+                assertThat(getString("eventType")).isEqualTo("A.0000000000000001.Fake.Event")
+                assertThat(getLong("startHeight")).isEqualTo(1)
+                assertThat(getLong("endHeight")).isEqualTo(10)
+                assertThat(getInt("blockCount")).isEqualTo(10)
+                assertThat(getLong("responseBytes")).isPositive
+            }
+        } finally {
+            Files.deleteIfExists(file)
+        }
+    }
+
+    @Test
+    fun `Records failed and asynchronous calls`() {
+        assumeTrue(FlowJfr.available)
+        val type = "A.0000000000000001.Fake.Event"
+        val file = Files.createTempFile("flow-sdk", ".jfr")
+        try {
+            Recording().use { recording ->
+                recording.enable("com.nftco.flow.sdk.EventRangeFetch").withoutThreshold()
+                recording.start()
+
+                FakeAccessApiServer().use { server ->
+                    server.newAccessApi().use { api ->
+                        assertThatThrownBy { api.getEventsForHeightRange(type, 1L..1000L) }.isInstanceOf(StatusRuntimeException::class.java)
+                    }
+                    server.newAsyncAccessApi().use { api ->
+                        api.getEventsForHeightRange(type, 1L..5L).join()
+                    }
+                }
+
+                recording.stop()
+                recording.dump(file)
+            }
+
+            val events = RecordingFile.readAllEvents(file).sortedBy { it.startTime }
+            assertThat(events.map { it.getBoolean("failed") }).containsExactly(true, false)
+            assertThat(events.map { it.getLong("endHeight") }).containsExactly(1000L, 5L)
+            assertThat(events[1].getInt("blockCount")).isEqualTo(5)
+        } finally {
+            Files.deleteIfExists(file)
+        }
+    }
+
+    @Test
+    fun `Records failed decodes and signs`() {
+        assumeTrue(FlowJfr.available)
+        val file = Files.createTempFile("flow-sdk", ".jfr")
+        try {
+            Recording().use { recording ->
+                listOf("Sign", "JsonCadenceDecode").forEach {
+                    recording.enable("com.nftco.flow.sdk.$it").withoutThreshold()
+                }
+                recording.start()
+
+                assertThatThrownBy { Flow.decodeJsonCadence<StringField>("{\"type\": ") }.isInstanceOf(Exception::class.java)
+                assertThatThrownBy { Flow.decodeJsonCadenceList<StringField>("[1]") }.isInstanceOf(Exception::class.java)
+                val rsaKey = KeyPairGenerator.getInstance("RSA").apply { initialize(1024) }.generateKeyPair().private
+                assertThatThrownBy { Crypto.getSigner(PrivateKey(rsaKey, 32, "")).sign(ByteArray(8)) }.isInstanceOf(Exception::class.java)
+
+                recording.stop()
+                recording.dump(file)
+            }
+
+            val events = RecordingFile.readAllEvents(file).sortedBy { it.startTime }
+            assertThat(events.map { it.eventType.name.removePrefix("com.nftco.flow.sdk.") })
+                .containsExactly("JsonCadenceDecode", "JsonCadenceDecode", "Sign")
+            assertThat(events.map { it.getBoolean("failed") }).containsOnly(true)
+            assertThat(events.last().getLong("bytes")).isEqualTo(8)
+        } finally {
+            Files.deleteIfExists(file)
+        }
+    }
+
+    @Test
+    fun `Records failed selective decodes`() {
+        assumeTrue(FlowJfr.available)
+        val type = "A.0000000000000001.Fake.Event"
+        val decoder = EventDecoder.builder().select(type, "id").build()
+        val file = Files.createTempFile("flow-sdk", ".jfr")
+        try {
+            Recording().use { recording ->
+                recording.enable("com.nftco.flow.sdk.JsonCadenceDecode").withoutThreshold()
+                recording.start()
+
+                val event = FlowEvent(type, FlowId.of(ByteArray(32)), 0, 0, FlowEventPayload("[]".toByteArray()))
+                assertThatThrownBy { decoder.decode(event) }.isInstanceOf(Exception::class.java)
+
+                recording.stop()
+                recording.dump(file)
+            }
+
+            val events = RecordingFile.readAllEvents(file)
+            assertThat(events.map { it.getBoolean("failed") }).containsExactly(true)
+            assertThat(events.map { it.getLong("bytes") }).containsExactly(2L)
+        } finally {
+            Files.deleteIfExists(file)
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.nftco.flow.sdk.metrics
+
+import com.nftco.flow.sdk.Flow
+import com.nftco.flow.sdk.cadence.StringField
+import com.nftco.flow.sdk.crypto.Crypto
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import java.util.concurrent.CopyOnWriteArrayList
+
+class FlowInstrumentationTest {
+
+    private val stages = CopyOnWriteArrayList<FlowStage>()
+    private val recorder = FlowStageRecorder { stage, durationNanos, allocatedBytes ->
+        assertThat(durationNanos).isNotNegative
+        assertThat(allocatedBytes).isNotNegative
+        stages.add(stage)
+    }
+
+    @AfterEach
+    fun tearDown() {
+        FlowInstrumentation.uninstall()
+    }
+
+    @Test
+    fun `Records nothing until installed`() {
+        Flow.decodeJsonCadence<StringField>(Flow.encodeJsonCadence(StringField("a")))
+        assertThat(stages).isEmpty()
+        assertThat(FlowInstrumentation.enabled).isFalse
+    }
+
+    @Test
+    fun `Records the stages of the SDK`() {
+        FlowInstrumentation.install(recorder)
+        val encoded = Flow.encodeJsonCadence(StringField("a"))
+        Flow.decodeJsonCadence<StringField>(encoded)
+        Crypto.getSigner(Crypto.generateKeyPair().private).sign(encoded)
+
+        assertThat(stages).containsExactly(FlowStage.JSON_CADENCE_ENCODE, FlowStage.JSON_CADENCE_DECODE, FlowStage.SIGN)
+    }
+
+    @Test
+    fun `Records only the outermost run of a stage`() {
+        FlowInstrumentation.install(recorder, trackAllocations = false)
+        val ret = FlowInstrumentation.measure(FlowStage.UNMARSHALL) {
+            FlowInstrumentation.measure(FlowStage.UNMARSHALL) { 1 } + 1
+        }
+        assertThat(ret).isEqualTo(2)
+        assertThat(stages).containsExactly(FlowStage.UNMARSHALL)
+    }
+}
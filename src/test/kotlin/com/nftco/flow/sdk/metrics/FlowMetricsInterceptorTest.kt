@@ -0,0 +1,87 @@
+package com.nftco.flow.sdk.metrics
+
+import com.nftco.flow.sdk.FlowChannelConfig
+import com.nftco.flow.sdk.test.FakeAccessApiServer
+import io.grpc.Status
+import io.grpc.StatusRuntimeException
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Test
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
+
+class FlowMetricsInterceptorTest {
+
+    private val server = FakeAccessApiServer()
+
+    private val inFlight = AtomicInteger()
+    private val completed = CopyOnWriteArrayList<FlowCallMetrics>()
+    private val spans = CopyOnWriteArrayList<String>()
+
+    private val recorder = object : FlowMetricsRecorder {
+        override fun callStarted(method: String, target: String) {
+            inFlight.incrementAndGet()
+        }
+
+        override fun callCompleted(metrics: FlowCallMetrics) {
+            inFlight.decrementAndGet()
+            completed.add(metrics)
+        }
+    }
+
+    private val tracer = FlowCallTracer { method, _, _ ->
+        spans.add("start $method")
+        FlowCallSpan { spans.add("end ${it.methodName} ${it.status.code}") }
+    }
+
+    @AfterEach
+    fun tearDown() {
+        server.close()
+    }
+
+    @Test
+    fun `Records every call with its status and sizes`() {
+        server.newAccessApi(FlowChannelConfig.builder().metrics(recorder, tracer).build()).use { api ->
+            api.getEventsForHeightRange("A.0000000000000001.Fake.Event", 1L..10L)
+            server.failNext(1, Status.UNAVAILABLE)
+            assertThrows(StatusRuntimeException::class.java) { api.ping() }
+        }
+
+        assertThat(inFlight.get()).isEqualTo(0)
+        assertThat(completed).hasSize(2)
+
+        val events = completed[0]
+        assertThat(events.serviceName).isEqualTo("flow.access.AccessAPI")
+        assertThat(events.methodName).isEqualTo("GetEventsForHeightRange")
+        assertThat(events.status.isOk).isTrue
+        assertThat(events.requestMessages).isEqualTo(1)
+        assertThat(events.responseMessages).isEqualTo(1)
+        assertThat(events.responseBytes).isGreaterThan(10L * 256)
+        assertThat(events.durationNanos).isPositive
+
+        assertThat(completed[1].status.code).isEqualTo(Status.Code.UNAVAILABLE)
+        assertThat(completed[1].responseMessages).isEqualTo(0)
+
+        assertThat(spans).containsExactly(
+            "start flow.access.AccessAPI/GetEventsForHeightRange",
+            "end GetEventsForHeightRange OK",
+            "start flow.access.AccessAPI/Ping",
+            "end Ping UNAVAILABLE"
+        )
+    }
+
+    @Test
+    fun `Publishes to Micrometer`() {
+        val registry = SimpleMeterRegistry()
+        server.newAccessApi(FlowChannelConfig.builder().metrics(MicrometerMetricsRecorder(registry)).build()).use { api ->
+            repeat(3) { api.ping() }
+        }
+
+        val timer = registry.get("flow.client.calls").tag("method", "flow.access.AccessAPI/Ping").tag("status", "OK").timer()
+        assertThat(timer.count()).isEqualTo(3)
+        assertThat(registry.get("flow.client.in.flight").gauge().value()).isEqualTo(0.0)
+        assertThat(registry.get("flow.client.request.bytes").summary().count()).isEqualTo(3)
+    }
+}
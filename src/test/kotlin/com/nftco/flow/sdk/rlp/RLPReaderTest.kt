@@ -0,0 +1,119 @@
+package com.nftco.flow.sdk.rlp
+
+import com.nftco.flow.sdk.FlowAddress
+import com.nftco.flow.sdk.FlowArgument
+import com.nftco.flow.sdk.FlowId
+import com.nftco.flow.sdk.FlowScript
+import com.nftco.flow.sdk.FlowTransaction
+import com.nftco.flow.sdk.FlowTransactionProposalKey
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+import java.io.ByteArrayInputStream
+import java.nio.ByteBuffer
+
+class RLPReaderTest {
+
+    private val long = ByteArray(300) { it.toByte() }
+
+    // [1, "dog", [300 bytes, []], 0x00..]
+    private val encoded = RLPCodec.encodeElements(
+        listOf(
+            RLPCodec.encodeInt(1),
+            RLPCodec.encodeString("dog"),
+            RLPCodec.encodeElements(listOf(RLPCodec.encodeBytes(long), RLPCodec.encodeElements(emptyList()))),
+            RLPCodec.encodeBytes(ByteArray(60))
+        )
+    )
+
+    private fun readers() = listOf(RLPReader.of(encoded), RLPReader.of(ByteArrayInputStream(encoded)))
+
+    @Test
+    fun `Reads nested lists`() {
+        readers().forEach { reader ->
+            assertThat(reader.enterList()).isEqualTo(encoded.size - 3L)
+            assertThat(reader.readInt()).isEqualTo(1)
+            assertThat(reader.readString()).isEqualTo("dog")
+            assertThat(reader.peekIsList()).isTrue
+            reader.enterList()
+            assertThat(reader.readBytes()).isEqualTo(long)
+            reader.enterList()
+            assertThat(reader.hasNext()).isFalse
+            reader.exitList()
+            reader.exitList()
+            assertThat(reader.readItem().remaining()).isEqualTo(60)
+            assertThat(reader.hasNext()).isFalse
+            reader.exitList()
+            assertThat(reader.depth()).isEqualTo(0)
+            assertThat(reader.hasNext()).isFalse
+            assertThat(reader.position()).isEqualTo(encoded.size.toLong())
+        }
+    }
+
+    @Test
+    fun `Skips subtrees and the rest of lists`() {
+        readers().forEach { reader ->
+            reader.enterList()
+            reader.skip()
+            reader.skip()
+            reader.skip()
+            assertThat(reader.readBytes()).isEqualTo(ByteArray(60))
+            reader.exitList()
+
+            assertThat(reader.hasNext()).isFalse
+        }
+        readers().forEach { reader ->
+            reader.enterList()
+            reader.readInt()
+            reader.exitList()
+            assertThat(reader.position()).isEqualTo(encoded.size.toLong())
+        }
+    }
+
+    @Test
+    fun `Returns items as slices of the buffer`() {
+        val buffer = ByteBuffer.wrap(encoded)
+        val reader = RLPReader.of(buffer)
+        reader.enterList()
+        reader.skip()
+        reader.skip()
+        reader.enterList()
+        val item = reader.readItem()
+        assertThat(item.isReadOnly).isTrue
+        assertThat(item.get(299)).isEqualTo(long[299])
+        assertThat(buffer.position().toLong()).isEqualTo(reader.position())
+    }
+
+    @Test
+    fun `Reads a sequence of transactions`() {
+        val transactions = (1..3).map {
+            FlowTransaction(
+                script = FlowScript("transaction { execute { log($it) } }"),
+                arguments = listOf(FlowArgument(byteArrayOf(it.toByte()))),
+                referenceBlockId = FlowId.of(byteArrayOf(it.toByte())),
+                gasLimit = 100L * it,
+                proposalKey = FlowTransactionProposalKey(FlowAddress.of(it.toLong()), it, 7L),
+                payerAddress = FlowAddress.of(it.toLong()),
+                authorizers = listOf(FlowAddress.of(it.toLong()))
+            )
+        }
+        val file = transactions.map { it.canonicalTransaction }.reduce { a, b -> a + b }
+
+        val reader = RLPReader.of(ByteArrayInputStream(file))
+        val read = mutableListOf<FlowTransaction>()
+        while (reader.hasNext()) {
+            read.add(FlowTransaction.of(reader.readEncoded()))
+        }
+        assertThat(read.map { it.script }).isEqualTo(transactions.map { it.script })
+        assertThat(read.map { it.gasLimit }).containsExactly(100L, 200L, 300L)
+    }
+
+    @Test
+    fun `Rejects elements overflowing their list`() {
+        // a list of 2 bytes holding an item of 3
+        val reader = RLPReader.of(byteArrayOf(0xc2.toByte(), 0x83.toByte(), 1, 2, 3))
+        reader.enterList()
+        assertThatThrownBy { reader.readItem() }.isInstanceOf(RuntimeException::class.java)
+        assertThatThrownBy { RLPReader.of(ByteArray(0)).readItem() }.isInstanceOf(RuntimeException::class.java)
+    }
+}
@@ -0,0 +1,88 @@
+package com.nftco.flow.sdk.streams
+
+import com.nftco.flow.sdk.AsyncFlowAccessApi
+import com.nftco.flow.sdk.FlowBlock
+import com.nftco.flow.sdk.FlowBlockHeader
+import com.nftco.flow.sdk.FlowEventResult
+import com.nftco.flow.sdk.FlowId
+import com.nftco.flow.sdk.FlowTransactionResult
+import com.nftco.flow.sdk.FlowTransactionStatus
+import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.flow.take
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.runBlocking
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.lang.reflect.Proxy
+import java.time.LocalDateTime
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.atomic.AtomicInteger
+
+class AsyncStreamsTest {
+
+    private val latest = 25L
+    private val started = AtomicInteger()
+    private val statuses = ArrayDeque(
+        listOf(FlowTransactionStatus.PENDING, FlowTransactionStatus.PENDING, FlowTransactionStatus.FINALIZED, FlowTransactionStatus.SEALED)
+    )
+
+    private val api = Proxy.newProxyInstance(javaClass.classLoader, arrayOf(AsyncFlowAccessApi::class.java)) { _, method, args ->
+        when (method.name) {
+            "getLatestBlockHeader" -> CompletableFuture.completedFuture(FlowBlockHeader(id(latest), id(latest - 1), latest))
+            "getLatestBlock" -> CompletableFuture.completedFuture(block(latest))
+            "getBlockByHeight" -> track(block(args[0] as Long))
+            "getEventsForHeightRange" -> {
+                @Suppress("UNCHECKED_CAST")
+                val range = args[1] as ClosedRange<Long>
+                track((range.start..range.endInclusive).map { FlowEventResult(id(it), it, LocalDateTime.MIN, emptyList()) })
+            }
+            "getTransactionResultById" -> CompletableFuture.completedFuture(FlowTransactionResult(statuses.removeFirst(), 0, "", emptyList()))
+            else -> throw IllegalStateException("unexpected call to ${method.name}")
+        }
+    } as AsyncFlowAccessApi
+
+    private fun id(height: Long) = FlowId.of(ByteArray(32) { if (it == 31) height.toByte() else 0 })
+
+    private fun block(height: Long) = FlowBlock(id(height), id(height - 1), height, LocalDateTime.MIN, emptyList(), emptyList(), emptyList())
+
+    private fun <T> track(value: T): CompletableFuture<T> {
+        started.incrementAndGet()
+        return CompletableFuture.completedFuture(value)
+    }
+
+    @Test
+    fun `Streams blocks in height order with bounded prefetch`() = runBlocking<Unit> {
+        var consumed = 0
+        val blocks = api.blocks(3, 20, prefetch = 4)
+            .onEach {
+                consumed++
+                assertThat(started.get() - consumed).isLessThanOrEqualTo(4)
+            }
+            .toList()
+        assertThat(blocks.map { it.height }).isEqualTo((3L..20L).toList())
+    }
+
+    @Test
+    fun `Only requests what the collector takes`() = runBlocking<Unit> {
+        val blocks = api.blocks(0, prefetch = 4).take(2).toList()
+        assertThat(blocks.map { it.height }).containsExactly(0L, 1L)
+        assertThat(started.get()).isLessThanOrEqualTo(6)
+    }
+
+    @Test
+    fun `Streams events in batches up to the latest sealed height`() = runBlocking<Unit> {
+        val results = api.events("A.0000000000000001.Contract.Event", 0, 100, batchSize = 10).take(latest.toInt() + 1).toList()
+        assertThat(results.map { it.blockHeight }).isEqualTo((0L..latest).toList())
+        assertThat(started.get()).isEqualTo(3)
+    }
+
+    @Test
+    fun `Emits transaction status changes until sealed`() = runBlocking<Unit> {
+        val results = api.transactionStatus(id(1), pollIntervalMs = 1).toList()
+        assertThat(results.map { it.status }).containsExactly(
+            FlowTransactionStatus.PENDING,
+            FlowTransactionStatus.FINALIZED,
+            FlowTransactionStatus.SEALED
+        )
+    }
+}
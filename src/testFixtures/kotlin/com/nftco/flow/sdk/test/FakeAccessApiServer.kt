@@ -0,0 +1,421 @@
+package com.nftco.flow.sdk.test
+
+import com.google.protobuf.ByteString
+import com.google.protobuf.Timestamp
+import com.nftco.flow.sdk.Flow
+import com.nftco.flow.sdk.FlowChainId
+import com.nftco.flow.sdk.FlowChannelConfig
+import com.nftco.flow.sdk.cadence.UInt64NumberField
+import com.nftco.flow.sdk.impl.AsyncFlowAccessApiImpl
+import com.nftco.flow.sdk.impl.FlowAccessApiImpl
+import io.grpc.ManagedChannel
+import io.grpc.Server
+import io.grpc.Status
+import io.grpc.inprocess.InProcessChannelBuilder
+import io.grpc.inprocess.InProcessServerBuilder
+import io.grpc.stub.StreamObserver
+import org.onflow.protobuf.access.Access
+import org.onflow.protobuf.access.AccessAPIGrpc
+import org.onflow.protobuf.entities.BlockHeaderOuterClass
+import org.onflow.protobuf.entities.BlockOuterClass
+import org.onflow.protobuf.entities.CollectionOuterClass
+import org.onflow.protobuf.entities.EventOuterClass
+import org.onflow.protobuf.entities.TransactionOuterClass
+import java.io.Closeable
+import java.nio.ByteBuffer
+import java.util.Random
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Shape of the chain served by [FakeAccessApiServer], and the latency and errors it injects.
+ *
+ * Every block has [collectionsPerBlock] collections of [transactionsPerCollection] transactions, each emitting
+ * [eventsPerTransaction] events with a payload of about [eventPayloadSize] bytes, cycling through [eventTypes].
+ * The chain starts at [initialHeight] and grows by [blocksPerSecond], or only through [FakeAccessApiServer.advance]
+ * when that is 0. Sealing trails finalization by [sealingLag] blocks. Every [errorEvery]th call fails with
+ * [errorStatus].
+ */
+data class FakeAccessApiConfig @JvmOverloads constructor(
+    val seed: Long = 42,
+    val chainId: FlowChainId = FlowChainId.EMULATOR,
+    val initialHeight: Long = 100,
+    val blocksPerSecond: Double = 0.0,
+    val sealingLag: Long = 0,
+    val collectionsPerBlock: Int = 1,
+    val transactionsPerCollection: Int = 4,
+    val eventsPerTransaction: Int = 2,
+    val eventPayloadSize: Int = 256,
+    val eventTypes: List<String> = listOf("A.0000000000000001.Fake.Event"),
+    val latencyMs: Long = 0,
+    val latencyJitterMs: Long = 0,
+    val errorEvery: Int = 0,
+    val errorStatus: Status = Status.UNAVAILABLE.withDescription("Injected failure")
+) {
+    init {
+        require(initialHeight >= 0) { "initialHeight must not be negative" }
+        require(blocksPerSecond >= 0) { "blocksPerSecond must not be negative" }
+        require(sealingLag in 0..initialHeight) { "sealingLag must be between 0 and initialHeight" }
+        require(collectionsPerBlock in 0..0xFFFF) { "collectionsPerBlock out of range" }
+        require(transactionsPerCollection in 0..0xFFFF) { "transactionsPerCollection out of range" }
+        require(eventsPerTransaction >= 0) { "eventsPerTransaction must not be negative" }
+        require(eventTypes.isNotEmpty()) { "eventTypes must not be empty" }
+        require(latencyMs >= 0 && latencyJitterMs >= 0) { "latency must not be negative" }
+        require(errorEvery >= 0) { "errorEvery must not be negative" }
+    }
+}
+
+/**
+ * An in-process stand-in for the Access API serving a synthetic chain. All data is derived from the height and the
+ * seed, so the same configuration always serves the same blocks, collections, transactions and events.
+ */
+class FakeAccessApiServer @JvmOverloads constructor(
+    val config: FakeAccessApiConfig = FakeAccessApiConfig()
+) : Closeable {
+
+    companion object {
+        private const val KIND_BLOCK: Byte = 1
+        private const val KIND_COLLECTION: Byte = 2
+        private const val KIND_TRANSACTION: Byte = 3
+
+        // 2022-01-01T00:00:00Z, one block per second from there
+        private const val GENESIS_EPOCH_SECOND = 1640995200L
+    }
+
+    val name: String = InProcessServerBuilder.generateName()
+
+    private val scheduler: ScheduledExecutorService = Executors.newScheduledThreadPool(2) { r ->
+        Thread(r, "fake-access-api").also { it.isDaemon = true }
+    }
+    private val random = Random(config.seed)
+    private val startedAt = System.nanoTime()
+    private val advanced = AtomicLong()
+    private val callCount = AtomicLong()
+    private val failures = AtomicInteger()
+    @Volatile
+    private var failureStatus: Status = config.errorStatus
+
+    private val server: Server = InProcessServerBuilder.forName(name)
+        .executor(scheduler)
+        .addService(Service())
+        .build()
+        .start()
+
+    /**
+     * The number of calls received so far.
+     */
+    val calls: Long get() = callCount.get()
+
+    val latestHeight: Long get() {
+        val grown = if (config.blocksPerSecond > 0) {
+            ((System.nanoTime() - startedAt) / 1e9 * config.blocksPerSecond).toLong()
+        } else {
+            0
+        }
+        return config.initialHeight + advanced.get() + grown
+    }
+
+    val sealedHeight: Long get() = latestHeight - config.sealingLag
+
+    /**
+     * Finalizes [blocks] more blocks.
+     */
+    @JvmOverloads
+    fun advance(blocks: Long = 1) {
+        require(blocks >= 0) { "blocks must not be negative" }
+        advanced.addAndGet(blocks)
+    }
+
+    /**
+     * Makes the next [count] calls fail with [status].
+     */
+    @JvmOverloads
+    fun failNext(count: Int, status: Status = config.errorStatus) {
+        failureStatus = status
+        failures.set(count)
+    }
+
+    @JvmOverloads
+    fun newChannel(channelConfig: FlowChannelConfig = FlowChannelConfig.DEFAULT): ManagedChannel =
+        channelConfig.apply(InProcessChannelBuilder.forName(name)).build()
+
+    @JvmOverloads
+    fun newAccessApi(channelConfig: FlowChannelConfig = FlowChannelConfig.DEFAULT): FlowAccessApiImpl =
+        FlowAccessApiImpl(channelConfig.apply(AccessAPIGrpc.newBlockingStub(newChannel(channelConfig))))
+
+    @JvmOverloads
+    fun newAsyncAccessApi(channelConfig: FlowChannelConfig = FlowChannelConfig.DEFAULT): AsyncFlowAccessApiImpl =
+        AsyncFlowAccessApiImpl(channelConfig.apply(AccessAPIGrpc.newFutureStub(newChannel(channelConfig))))
+
+    override fun close() {
+        server.shutdownNow()
+        scheduler.shutdownNow()
+    }
+
+    // ids: height, kind, collection index, transaction index, then filler derived from the seed
+
+    private fun id(height: Long, kind: Byte, collection: Int = 0, transaction: Int = 0): ByteString {
+        val ret = ByteBuffer.allocate(32)
+            .putLong(height)
+            .put(kind)
+            .putShort(collection.toShort())
+            .putShort(transaction.toShort())
+        var filler = config.seed * 31 + height * 17 + kind * 7 + collection * 3 + transaction
+        while (ret.hasRemaining()) {
+            filler = filler * 6364136223846793005L + 1442695040888963407L
+            ret.put((filler ushr 56).toByte())
+        }
+        return ByteString.copyFrom(ret.array())
+    }
+
+    private class Ref(val height: Long, val kind: Byte, val collection: Int, val transaction: Int)
+
+    private fun ref(id: ByteString, kind: Byte): Ref? {
+        if (id.size() != 32) {
+            return null
+        }
+        val buffer = id.asReadOnlyByteBuffer()
+        val ret = Ref(buffer.long, buffer.get(), buffer.short.toInt() and 0xFFFF, buffer.short.toInt() and 0xFFFF)
+        return if (ret.kind == kind && id == id(ret.height, ret.kind, ret.collection, ret.transaction) && ret.height in 0..latestHeight) {
+            ret
+        } else {
+            null
+        }
+    }
+
+    private fun timestamp(height: Long): Timestamp = Timestamp.newBuilder().setSeconds(GENESIS_EPOCH_SECOND + height).build()
+
+    private fun header(height: Long): BlockHeaderOuterClass.BlockHeader = BlockHeaderOuterClass.BlockHeader.newBuilder()
+        .setId(id(height, KIND_BLOCK))
+        .setParentId(id(height - 1, KIND_BLOCK))
+        .setHeight(height)
+        .build()
+
+    private fun block(height: Long): BlockOuterClass.Block = BlockOuterClass.Block.newBuilder()
+        .setId(id(height, KIND_BLOCK))
+        .setParentId(id(height - 1, KIND_BLOCK))
+        .setHeight(height)
+        .setTimestamp(timestamp(height))
+        .addAllCollectionGuarantees(
+            (0 until config.collectionsPerBlock).map {
+                CollectionOuterClass.CollectionGuarantee.newBuilder()
+                    .setCollectionId(id(height, KIND_COLLECTION, it))
+                    .build()
+            }
+        )
+        .build()
+
+    private fun collection(ref: Ref): CollectionOuterClass.Collection = CollectionOuterClass.Collection.newBuilder()
+        .setId(id(ref.height, KIND_COLLECTION, ref.collection))
+        .addAllTransactionIds((0 until config.transactionsPerCollection).map { id(ref.height, KIND_TRANSACTION, ref.collection, it) })
+        .build()
+
+    private fun transaction(ref: Ref): TransactionOuterClass.Transaction {
+        val payer = ByteString.copyFrom(ByteArray(8) { if (it == 7) 1 else 0 })
+        return TransactionOuterClass.Transaction.newBuilder()
+            .setScript(ByteString.copyFromUtf8("transaction { execute { log(\"${ref.height}/${ref.collection}/${ref.transaction}\") } }"))
+            .setReferenceBlockId(id(maxOf(ref.height - 1, 0), KIND_BLOCK))
+            .setGasLimit(1000)
+            .setProposalKey(
+                TransactionOuterClass.Transaction.ProposalKey.newBuilder()
+                    .setAddress(payer)
+                    .setKeyId(0)
+                    .setSequenceNumber(ref.height * config.collectionsPerBlock * config.transactionsPerCollection + ref.collection * config.transactionsPerCollection + ref.transaction)
+            )
+            .setPayer(payer)
+            .addAuthorizers(payer)
+            .build()
+    }
+
+    private fun events(height: Long, collection: Int, transaction: Int): List<EventOuterClass.Event> {
+        val transactionIndex = collection * config.transactionsPerCollection + transaction
+        return (0 until config.eventsPerTransaction).map { index ->
+            val type = config.eventTypes[(transactionIndex * config.eventsPerTransaction + index) % config.eventTypes.size]
+            EventOuterClass.Event.newBuilder()
+                .setType(type)
+                .setTransactionId(id(height, KIND_TRANSACTION, collection, transaction))
+                .setTransactionIndex(transactionIndex)
+                .setEventIndex(index)
+                .setPayload(payload(type, height, transactionIndex, index))
+                .build()
+        }
+    }
+
+    private fun blockEvents(height: Long, type: String): Access.EventsResponse.Result = Access.EventsResponse.Result.newBuilder()
+        .setBlockId(id(height, KIND_BLOCK))
+        .setBlockHeight(height)
+        .setBlockTimestamp(timestamp(height))
+        .addAllEvents(
+            (0 until config.collectionsPerBlock).flatMap { c ->
+                (0 until config.transactionsPerCollection).flatMap { t -> events(height, c, t) }
+            }.filter { it.type == type }
+        )
+        .build()
+
+    private fun payload(type: String, height: Long, transactionIndex: Int, index: Int): ByteString {
+        val prefix = "{\"type\":\"Event\",\"value\":{\"id\":\"$type\",\"fields\":[" +
+            "{\"name\":\"height\",\"value\":{\"type\":\"UInt64\",\"value\":\"$height\"}}," +
+            "{\"name\":\"transactionIndex\",\"value\":{\"type\":\"UInt32\",\"value\":\"$transactionIndex\"}}," +
+            "{\"name\":\"eventIndex\",\"value\":{\"type\":\"UInt32\",\"value\":\"$index\"}}," +
+            "{\"name\":\"data\",\"value\":{\"type\":\"String\",\"value\":\""
+        val suffix = "\"}}]}}"
+        val padding = maxOf(config.eventPayloadSize - prefix.length - suffix.length, 0)
+        val ret = StringBuilder(prefix.length + padding + suffix.length).append(prefix)
+        for (i in 0 until padding) {
+            ret.append('a' + ((height + transactionIndex + index + i) % 26).toInt())
+        }
+        return ByteString.copyFromUtf8(ret.append(suffix).toString())
+    }
+
+    private inner class Service : AccessAPIGrpc.AccessAPIImplBase() {
+
+        private fun <T> respond(observer: StreamObserver<T>, response: () -> T) {
+            val call = callCount.incrementAndGet()
+            val task = Runnable {
+                try {
+                    val failing = failures.getAndUpdate { if (it > 0) it - 1 else it } > 0
+                    when {
+                        failing -> observer.onError(failureStatus.asRuntimeException())
+                        config.errorEvery > 0 && call % config.errorEvery == 0L -> observer.onError(config.errorStatus.asRuntimeException())
+                        else -> {
+                            observer.onNext(response())
+                            observer.onCompleted()
+                        }
+                    }
+                } catch (e: Exception) {
+                    observer.onError(Status.fromThrowable(e).asRuntimeException())
+                }
+            }
+            val latency = config.latencyMs + if (config.latencyJitterMs > 0) (random.nextDouble() * config.latencyJitterMs).toLong() else 0
+            if (latency > 0) {
+                scheduler.schedule(task, latency, TimeUnit.MILLISECONDS)
+            } else {
+                task.run()
+            }
+        }
+
+        private fun notFound(what: String): Nothing = throw Status.NOT_FOUND.withDescription("$what not found").asRuntimeException()
+
+        private fun checkHeight(height: Long, limit: Long = latestHeight): Long {
+            if (height !in 0..limit) {
+                throw Status.NOT_FOUND.withDescription("Block at height $height not found").asRuntimeException()
+            }
+            return height
+        }
+
+        override fun ping(request: Access.PingRequest, responseObserver: StreamObserver<Access.PingResponse>) =
+            respond(responseObserver) { Access.PingResponse.getDefaultInstance() }
+
+        override fun getLatestBlockHeader(request: Access.GetLatestBlockHeaderRequest, responseObserver: StreamObserver<Access.BlockHeaderResponse>) =
+            respond(responseObserver) {
+                val height = if (request.isSealed) sealedHeight else latestHeight
+                Access.BlockHeaderResponse.newBuilder().setBlock(header(height)).build()
+            }
+
+        override fun getBlockHeaderByID(request: Access.GetBlockHeaderByIDRequest, responseObserver: StreamObserver<Access.BlockHeaderResponse>) =
+            respond(responseObserver) {
+                val ref = ref(request.id, KIND_BLOCK) ?: notFound("Block")
+                Access.BlockHeaderResponse.newBuilder().setBlock(header(ref.height)).build()
+            }
+
+        override fun getBlockHeaderByHeight(request: Access.GetBlockHeaderByHeightRequest, responseObserver: StreamObserver<Access.BlockHeaderResponse>) =
+            respond(responseObserver) {
+                Access.BlockHeaderResponse.newBuilder().setBlock(header(checkHeight(request.height))).build()
+            }
+
+        override fun getLatestBlock(request: Access.GetLatestBlockRequest, responseObserver: StreamObserver<Access.BlockResponse>) =
+            respond(responseObserver) {
+                val height = if (request.isSealed) sealedHeight else latestHeight
+                Access.BlockResponse.newBuilder().setBlock(block(height)).build()
+            }
+
+        override fun getBlockByID(request: Access.GetBlockByIDRequest, responseObserver: StreamObserver<Access.BlockResponse>) =
+            respond(responseObserver) {
+                val ref = ref(request.id, KIND_BLOCK) ?: notFound("Block")
+                Access.BlockResponse.newBuilder().setBlock(block(ref.height)).build()
+            }
+
+        override fun getBlockByHeight(request: Access.GetBlockByHeightRequest, responseObserver: StreamObserver<Access.BlockResponse>) =
+            respond(responseObserver) {
+                Access.BlockResponse.newBuilder().setBlock(block(checkHeight(request.height))).build()
+            }
+
+        override fun getCollectionByID(request: Access.GetCollectionByIDRequest, responseObserver: StreamObserver<Access.CollectionResponse>) =
+            respond(responseObserver) {
+                val ref = ref(request.id, KIND_COLLECTION)?.takeIf { it.collection < config.collectionsPerBlock } ?: notFound("Collection")
+                Access.CollectionResponse.newBuilder().setCollection(collection(ref)).build()
+            }
+
+        override fun getTransaction(request: Access.GetTransactionRequest, responseObserver: StreamObserver<Access.TransactionResponse>) =
+            respond(responseObserver) {
+                val ref = transactionRef(request.id)
+                Access.TransactionResponse.newBuilder().setTransaction(transaction(ref)).build()
+            }
+
+        override fun getTransactionResult(request: Access.GetTransactionRequest, responseObserver: StreamObserver<Access.TransactionResultResponse>) =
+            respond(responseObserver) {
+                val ref = transactionRef(request.id)
+                val status = if (ref.height <= sealedHeight) {
+                    TransactionOuterClass.TransactionStatus.SEALED
+                } else {
+                    TransactionOuterClass.TransactionStatus.FINALIZED
+                }
+                Access.TransactionResultResponse.newBuilder()
+                    .setStatus(status)
+                    .addAllEvents(events(ref.height, ref.collection, ref.transaction))
+                    .build()
+            }
+
+        private fun transactionRef(id: ByteString): Ref = ref(id, KIND_TRANSACTION)
+            ?.takeIf { it.collection < config.collectionsPerBlock && it.transaction < config.transactionsPerCollection }
+            ?: notFound("Transaction")
+
+        override fun executeScriptAtLatestBlock(request: Access.ExecuteScriptAtLatestBlockRequest, responseObserver: StreamObserver<Access.ExecuteScriptResponse>) =
+            respond(responseObserver) { scriptResponse(latestHeight) }
+
+        override fun executeScriptAtBlockID(request: Access.ExecuteScriptAtBlockIDRequest, responseObserver: StreamObserver<Access.ExecuteScriptResponse>) =
+            respond(responseObserver) {
+                val ref = ref(request.blockId, KIND_BLOCK) ?: notFound("Block")
+                scriptResponse(ref.height)
+            }
+
+        override fun executeScriptAtBlockHeight(request: Access.ExecuteScriptAtBlockHeightRequest, responseObserver: StreamObserver<Access.ExecuteScriptResponse>) =
+            respond(responseObserver) { scriptResponse(checkHeight(request.blockHeight)) }
+
+        // scripts return the height they were executed at
+        private fun scriptResponse(height: Long): Access.ExecuteScriptResponse = Access.ExecuteScriptResponse.newBuilder()
+            .setValue(ByteString.copyFrom(Flow.encodeJsonCadence(UInt64NumberField(height.toString()))))
+            .build()
+
+        override fun getEventsForHeightRange(request: Access.GetEventsForHeightRangeRequest, responseObserver: StreamObserver<Access.EventsResponse>) =
+            respond(responseObserver) {
+                val sealed = sealedHeight
+                if (request.startHeight > request.endHeight || request.endHeight > sealed) {
+                    throw Status.INVALID_ARGUMENT
+                        .withDescription("Invalid range ${request.startHeight}..${request.endHeight}, latest sealed height is $sealed")
+                        .asRuntimeException()
+                }
+                Access.EventsResponse.newBuilder()
+                    .addAllResults((request.startHeight..request.endHeight).map { blockEvents(it, request.type) })
+                    .build()
+            }
+
+        override fun getEventsForBlockIDs(request: Access.GetEventsForBlockIDsRequest, responseObserver: StreamObserver<Access.EventsResponse>) =
+            respond(responseObserver) {
+                Access.EventsResponse.newBuilder()
+                    .addAllResults(
+                        request.blockIdsList.map {
+                            val ref = ref(it, KIND_BLOCK) ?: notFound("Block")
+                            blockEvents(ref.height, request.type)
+                        }
+                    )
+                    .build()
+            }
+
+        override fun getNetworkParameters(request: Access.GetNetworkParametersRequest, responseObserver: StreamObserver<Access.GetNetworkParametersResponse>) =
+            respond(responseObserver) { Access.GetNetworkParametersResponse.newBuilder().setChainId(config.chainId.id).build() }
+    }
+}